@@ -0,0 +1,71 @@
+package com.butterfly.framework.core.rpc;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 本机回环RPC吞吐基准测试
+ * 客户端与服务端使用相同的传输实现，每次调用在同一条连接上并发发出一批请求并等待全部响应，
+ * 对比epoll原生传输与NIO传输的请求吞吐；epoll不可用时EPOLL参数回退为NIO
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoopbackTransportBenchmark {
+    private static final int BATCH = 64;
+    private static final long TIMEOUT_MILLIS = 10000;
+
+    @Param({"NIO", "EPOLL"})
+    private String transport;
+
+    private LoopbackRpcFixture fixture;
+    private RpcClient client;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        // 测试类路径上没有日志配置时logback默认输出DEBUG，逐请求的调试日志会主导测量结果
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME))
+                .setLevel(ch.qos.logback.classic.Level.WARN);
+        NettyTransport selected = NettyTransport.select("EPOLL".equals(transport));
+        fixture = new LoopbackRpcFixture(selected);
+        // 自适应并发限制会随回环RTT收缩并拒绝请求，只测量传输时关闭
+        fixture.setConcurrencyLimitEnabled(false);
+        fixture.startServer(request -> LoopbackRpcFixture.successResponse("ok"));
+        client = fixture.newClient();
+        client.sendRequest(LoopbackRpcFixture.newRequest("echo"), null, TIMEOUT_MILLIS, null, false, null).join();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void echo() {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            futures[i] = client.sendRequest(LoopbackRpcFixture.newRequest("echo"), null, TIMEOUT_MILLIS, null, false, null);
+        }
+        CompletableFuture.allOf(futures).join();
+    }
+}
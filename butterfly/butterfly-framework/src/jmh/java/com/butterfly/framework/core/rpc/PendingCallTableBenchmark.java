@@ -0,0 +1,105 @@
+package com.butterfly.framework.core.rpc;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 待响应请求表基准测试
+ * 保持固定数量的在途请求，每次操作登记一个新请求并移除最早的请求，
+ * 对比原先按UUID字符串为键的ConcurrentHashMap、按装箱Long为键的ConcurrentHashMap与PendingCallTable
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PendingCallTableBenchmark {
+
+    @Param({"16", "1024"})
+    private int inflight;
+
+    private final CompletableFuture<RpcResponse> future = new CompletableFuture<>();
+
+    private Map<String, CompletableFuture<RpcResponse>> uuidMap;
+    private String[] uuidWindow;
+
+    private Map<Long, CompletableFuture<RpcResponse>> boxedMap;
+    private AtomicLong boxedIds;
+    private long[] boxedWindow;
+
+    private PendingCallTable table;
+    private long[] tableWindow;
+
+    private int cursor;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        uuidMap = new ConcurrentHashMap<>();
+        uuidWindow = new String[inflight];
+        boxedMap = new ConcurrentHashMap<>();
+        boxedIds = new AtomicLong();
+        boxedWindow = new long[inflight];
+        table = new PendingCallTable();
+        tableWindow = new long[inflight];
+        for (int i = 0; i < inflight; i++) {
+            uuidWindow[i] = UUID.randomUUID().toString();
+            uuidMap.put(uuidWindow[i], future);
+            boxedWindow[i] = boxedIds.incrementAndGet();
+            boxedMap.put(boxedWindow[i], future);
+            tableWindow[i] = table.register(future);
+        }
+        cursor = 0;
+    }
+
+    private int nextSlot() {
+        int slot = cursor;
+        cursor = slot + 1 == inflight ? 0 : slot + 1;
+        return slot;
+    }
+
+    @Benchmark
+    public Object uuidStringMap() {
+        int slot = nextSlot();
+        CompletableFuture<RpcResponse> removed = uuidMap.remove(uuidWindow[slot]);
+        String requestId = UUID.randomUUID().toString();
+        uuidMap.put(requestId, future);
+        uuidWindow[slot] = requestId;
+        return removed;
+    }
+
+    @Benchmark
+    public Object boxedLongMap() {
+        int slot = nextSlot();
+        CompletableFuture<RpcResponse> removed = boxedMap.remove(boxedWindow[slot]);
+        long requestId = boxedIds.incrementAndGet();
+        boxedMap.put(requestId, future);
+        boxedWindow[slot] = requestId;
+        return removed;
+    }
+
+    @Benchmark
+    public Object pendingCallTable() {
+        int slot = nextSlot();
+        CompletableFuture<RpcResponse> removed = table.remove(tableWindow[slot]);
+        tableWindow[slot] = table.register(future);
+        return removed;
+    }
+}
@@ -0,0 +1,55 @@
+package com.butterfly.framework.annotation;
+
+import com.butterfly.framework.core.loadbalance.HashKeyExtractor;
+
+import java.lang.annotation.*;
+
+/**
+ * RPC方法级配置注解
+ * 标记在@RpcService接口的方法上，覆盖服务级别的调用配置
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RpcMethod {
+    /**
+     * 超时时间(毫秒)
+     * 小于等于0时使用@RpcService.timeout
+     */
+    int timeout() default 0;
+
+    /**
+     * 是否启用对冲请求
+     * 仅适用于幂等方法：原始请求超过对冲延迟未完成时，向其他实例发出相同请求并采用最先返回的结果
+     */
+    boolean hedging() default false;
+
+    /**
+     * 对冲延迟(毫秒)
+     * 小于等于0时使用该方法观测到的P95延迟
+     */
+    int hedgingDelay() default 0;
+
+    /**
+     * 对冲时的最大尝试次数(包含原始请求)
+     */
+    int maxHedgedAttempts() default 2;
+
+    /**
+     * 是否为关键请求
+     * 服务端过载时优先丢弃非关键请求，关键请求不因排队时延被丢弃
+     */
+    boolean critical() default false;
+
+    /**
+     * 一致性哈希负载均衡使用的参数下标
+     * 该参数的字符串形式作为路由键，小于0时不按哈希路由
+     */
+    int hashArgument() default 0;
+
+    /**
+     * 一致性哈希路由键提取器，配置后优先于hashArgument
+     * 默认值HashKeyExtractor.class表示未配置
+     */
+    Class<? extends HashKeyExtractor> hashKeyExtractor() default HashKeyExtractor.class;
+}
@@ -33,4 +33,16 @@ public @interface RpcService {
      * 服务调用的默认超时时间
      */
     int timeout() default 3000;
+
+    /**
+     * 序列化方式(json/jsonb)
+     * 为空时使用客户端连接协商的默认序列化方式，服务端不支持时同样回退到默认方式
+     */
+    String serialization() default "";
+
+    /**
+     * 负载均衡策略(如roundRobin/leastActive/consistentHash)
+     * 为空时使用rpc.load-balance.default-strategy
+     */
+    String loadBalance() default "";
 }
\ No newline at end of file
@@ -22,6 +22,38 @@ public class NettyClientConfig {
     private int reconnectInterval = 5000;
     /** 是否启用SSL */
     private boolean sslEnabled = false;
+    /** 首选序列化方式 (json/jsonb)，连接建立时与服务端协商 */
+    private String serialization = "json";
+    /** 每个服务端地址的连接数，同一地址上的所有服务共享 */
+    private int connectionsPerEndpoint = 2;
+    /** 首次访问服务端地址时预先建立的连接数 */
+    private int warmupConnections = 1;
+    /** 服务端地址空闲回收时间(毫秒)，小于等于0表示不回收 */
+    private long idleTimeoutMillis = 300000;
+    /** IO线程数，0表示使用Netty默认值 */
+    private int ioThreadCount = 0;
+    /** 是否启用原生传输(Linux epoll)，本地库不可用时自动回退到NIO */
+    private boolean nativeTransport = true;
+    /** epoll是否使用边缘触发模式 */
+    private boolean edgeTriggered = true;
+    /** epoll: 是否启用TCP_QUICKACK */
+    private boolean tcpQuickAck = true;
+    /** epoll: 是否启用TCP_FASTOPEN_CONNECT */
+    private boolean tcpFastOpenConnect = false;
+    /** 是否启用写合并：同一轮事件循环内的多次写出合并为一次flush，以少量延迟换取更少的系统调用 */
+    private boolean writeBatchingEnabled = false;
+    /** 写合并：累积多少条消息后立即flush */
+    private int writeBatchMaxMessages = 64;
+    /** 写合并：累积多少字节后立即flush */
+    private int writeBatchMaxBytes = 64 * 1024;
+    /** 超时时间轮的刻度(毫秒)，决定超时检测精度 */
+    private long timeoutTickMillis = 10;
+    /** 超时时间轮的槽位数 */
+    private int timeoutTicksPerWheel = 512;
+    /** 心跳间隔(毫秒)：连接在该时间内未读到任何数据时发送心跳，小于等于0表示不启用 */
+    private long heartbeatIntervalMillis = 10000;
+    /** 连续多少次心跳未收到任何数据后判定连接失效并关闭 */
+    private int heartbeatMaxMissed = 3;
 
     // Getters and Setters
     public String getServerAddress() { return serverAddress; }
@@ -36,4 +68,36 @@ public class NettyClientConfig {
     public void setReconnectInterval(int reconnectInterval) { this.reconnectInterval = reconnectInterval; }
     public boolean isSslEnabled() { return sslEnabled; }
     public void setSslEnabled(boolean sslEnabled) { this.sslEnabled = sslEnabled; }
+    public String getSerialization() { return serialization; }
+    public void setSerialization(String serialization) { this.serialization = serialization; }
+    public int getConnectionsPerEndpoint() { return connectionsPerEndpoint; }
+    public void setConnectionsPerEndpoint(int connectionsPerEndpoint) { this.connectionsPerEndpoint = connectionsPerEndpoint; }
+    public int getWarmupConnections() { return warmupConnections; }
+    public void setWarmupConnections(int warmupConnections) { this.warmupConnections = warmupConnections; }
+    public long getIdleTimeoutMillis() { return idleTimeoutMillis; }
+    public void setIdleTimeoutMillis(long idleTimeoutMillis) { this.idleTimeoutMillis = idleTimeoutMillis; }
+    public int getIoThreadCount() { return ioThreadCount; }
+    public void setIoThreadCount(int ioThreadCount) { this.ioThreadCount = ioThreadCount; }
+    public boolean isNativeTransport() { return nativeTransport; }
+    public void setNativeTransport(boolean nativeTransport) { this.nativeTransport = nativeTransport; }
+    public boolean isEdgeTriggered() { return edgeTriggered; }
+    public void setEdgeTriggered(boolean edgeTriggered) { this.edgeTriggered = edgeTriggered; }
+    public boolean isTcpQuickAck() { return tcpQuickAck; }
+    public void setTcpQuickAck(boolean tcpQuickAck) { this.tcpQuickAck = tcpQuickAck; }
+    public boolean isTcpFastOpenConnect() { return tcpFastOpenConnect; }
+    public void setTcpFastOpenConnect(boolean tcpFastOpenConnect) { this.tcpFastOpenConnect = tcpFastOpenConnect; }
+    public boolean isWriteBatchingEnabled() { return writeBatchingEnabled; }
+    public void setWriteBatchingEnabled(boolean writeBatchingEnabled) { this.writeBatchingEnabled = writeBatchingEnabled; }
+    public int getWriteBatchMaxMessages() { return writeBatchMaxMessages; }
+    public void setWriteBatchMaxMessages(int writeBatchMaxMessages) { this.writeBatchMaxMessages = writeBatchMaxMessages; }
+    public int getWriteBatchMaxBytes() { return writeBatchMaxBytes; }
+    public void setWriteBatchMaxBytes(int writeBatchMaxBytes) { this.writeBatchMaxBytes = writeBatchMaxBytes; }
+    public long getTimeoutTickMillis() { return timeoutTickMillis; }
+    public void setTimeoutTickMillis(long timeoutTickMillis) { this.timeoutTickMillis = timeoutTickMillis; }
+    public int getTimeoutTicksPerWheel() { return timeoutTicksPerWheel; }
+    public void setTimeoutTicksPerWheel(int timeoutTicksPerWheel) { this.timeoutTicksPerWheel = timeoutTicksPerWheel; }
+    public long getHeartbeatIntervalMillis() { return heartbeatIntervalMillis; }
+    public void setHeartbeatIntervalMillis(long heartbeatIntervalMillis) { this.heartbeatIntervalMillis = heartbeatIntervalMillis; }
+    public int getHeartbeatMaxMissed() { return heartbeatMaxMissed; }
+    public void setHeartbeatMaxMissed(int heartbeatMaxMissed) { this.heartbeatMaxMissed = heartbeatMaxMissed; }
 }
\ No newline at end of file
@@ -3,6 +3,9 @@ package com.butterfly.framework.config;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * 企业级Netty服务器配置类
  * 支持端口、线程数等核心参数的外部化配置
@@ -22,6 +25,46 @@ public class NettyServerConfig {
     private int connectTimeoutMillis = 3000;
     /** 最大帧长度 */
     private int maxFrameLength = 1024 * 1024;
+    /** 是否启用原生传输(Linux epoll)，本地库不可用时自动回退到NIO */
+    private boolean nativeTransport = true;
+    /** epoll是否使用边缘触发模式 */
+    private boolean edgeTriggered = true;
+    /** epoll: 是否启用TCP_QUICKACK */
+    private boolean tcpQuickAck = true;
+    /** epoll: 是否启用SO_REUSEPORT，启用后按Boss线程数绑定多个acceptor */
+    private boolean reusePort = true;
+    /** epoll: TCP_FASTOPEN队列长度，0表示不启用 */
+    private int tcpFastOpen = 0;
+    /** 是否启用写合并：同一轮事件循环内的多次写出合并为一次flush，以少量延迟换取更少的系统调用 */
+    private boolean writeBatchingEnabled = false;
+    /** 写合并：累积多少条消息后立即flush */
+    private int writeBatchMaxMessages = 64;
+    /** 写合并：累积多少字节后立即flush */
+    private int writeBatchMaxBytes = 64 * 1024;
+    /** 请求派发模式: direct(IO线程执行)、shared(共享业务线程池)、isolated(按服务隔离线程池) */
+    private String dispatchMode = "shared";
+    /** 按服务覆盖的派发模式，键为服务键(接口名:版本:分组)或接口名，接口名对该接口的所有版本和分组生效 */
+    private Map<String, String> serviceDispatchModes = new HashMap<>();
+    /** 共享业务线程池线程数 */
+    private int businessThreads = 200;
+    /** 共享业务线程池队列长度，队列满时快速拒绝 */
+    private int businessQueueSize = 1024;
+    /** 隔离模式下每个服务的线程数 */
+    private int isolatedThreads = 16;
+    /** 隔离模式下每个服务的队列长度 */
+    private int isolatedQueueSize = 256;
+    /** 是否启用按排队时延的准入控制(CoDel)，过载时快速拒绝非关键请求 */
+    private boolean admissionControlEnabled = true;
+    /** 准入控制：目标排队时延(毫秒)，一个观测窗口内的最小排队时延持续超过该值即判定过载 */
+    private int queueDelayTargetMillis = 5;
+    /** 准入控制：观测窗口(毫秒)，未过载时排队超过该值的非关键请求同样被拒绝 */
+    private int queueDelayIntervalMillis = 100;
+    /** 准入控制：每个服务的最大在途请求数，超过时拒绝非关键请求，0表示不限 */
+    private int maxInflightPerService = 0;
+    /** 连接读空闲超时(毫秒)：客户端空闲时会定期发送心跳，超过该时间未读到任何数据的连接视为失效并关闭，小于等于0表示不检测 */
+    private long readerIdleTimeoutMillis = 60000;
+    /** 实例权重，随服务元数据注册，按本机处理能力配置，加权负载均衡按权重比例分配流量 */
+    private int weight = 100;
 
     // Getters and Setters
     public int getPort() { return port; }
@@ -36,4 +79,44 @@ public class NettyServerConfig {
     public void setConnectTimeoutMillis(int connectTimeoutMillis) { this.connectTimeoutMillis = connectTimeoutMillis; }
     public int getMaxFrameLength() { return maxFrameLength; }
     public void setMaxFrameLength(int maxFrameLength) { this.maxFrameLength = maxFrameLength; }
+    public boolean isNativeTransport() { return nativeTransport; }
+    public void setNativeTransport(boolean nativeTransport) { this.nativeTransport = nativeTransport; }
+    public boolean isEdgeTriggered() { return edgeTriggered; }
+    public void setEdgeTriggered(boolean edgeTriggered) { this.edgeTriggered = edgeTriggered; }
+    public boolean isTcpQuickAck() { return tcpQuickAck; }
+    public void setTcpQuickAck(boolean tcpQuickAck) { this.tcpQuickAck = tcpQuickAck; }
+    public boolean isReusePort() { return reusePort; }
+    public void setReusePort(boolean reusePort) { this.reusePort = reusePort; }
+    public int getTcpFastOpen() { return tcpFastOpen; }
+    public void setTcpFastOpen(int tcpFastOpen) { this.tcpFastOpen = tcpFastOpen; }
+    public boolean isWriteBatchingEnabled() { return writeBatchingEnabled; }
+    public void setWriteBatchingEnabled(boolean writeBatchingEnabled) { this.writeBatchingEnabled = writeBatchingEnabled; }
+    public int getWriteBatchMaxMessages() { return writeBatchMaxMessages; }
+    public void setWriteBatchMaxMessages(int writeBatchMaxMessages) { this.writeBatchMaxMessages = writeBatchMaxMessages; }
+    public int getWriteBatchMaxBytes() { return writeBatchMaxBytes; }
+    public void setWriteBatchMaxBytes(int writeBatchMaxBytes) { this.writeBatchMaxBytes = writeBatchMaxBytes; }
+    public String getDispatchMode() { return dispatchMode; }
+    public void setDispatchMode(String dispatchMode) { this.dispatchMode = dispatchMode; }
+    public Map<String, String> getServiceDispatchModes() { return serviceDispatchModes; }
+    public void setServiceDispatchModes(Map<String, String> serviceDispatchModes) { this.serviceDispatchModes = serviceDispatchModes; }
+    public int getBusinessThreads() { return businessThreads; }
+    public void setBusinessThreads(int businessThreads) { this.businessThreads = businessThreads; }
+    public int getBusinessQueueSize() { return businessQueueSize; }
+    public void setBusinessQueueSize(int businessQueueSize) { this.businessQueueSize = businessQueueSize; }
+    public int getIsolatedThreads() { return isolatedThreads; }
+    public void setIsolatedThreads(int isolatedThreads) { this.isolatedThreads = isolatedThreads; }
+    public int getIsolatedQueueSize() { return isolatedQueueSize; }
+    public void setIsolatedQueueSize(int isolatedQueueSize) { this.isolatedQueueSize = isolatedQueueSize; }
+    public boolean isAdmissionControlEnabled() { return admissionControlEnabled; }
+    public void setAdmissionControlEnabled(boolean admissionControlEnabled) { this.admissionControlEnabled = admissionControlEnabled; }
+    public int getQueueDelayTargetMillis() { return queueDelayTargetMillis; }
+    public void setQueueDelayTargetMillis(int queueDelayTargetMillis) { this.queueDelayTargetMillis = queueDelayTargetMillis; }
+    public int getQueueDelayIntervalMillis() { return queueDelayIntervalMillis; }
+    public void setQueueDelayIntervalMillis(int queueDelayIntervalMillis) { this.queueDelayIntervalMillis = queueDelayIntervalMillis; }
+    public int getMaxInflightPerService() { return maxInflightPerService; }
+    public void setMaxInflightPerService(int maxInflightPerService) { this.maxInflightPerService = maxInflightPerService; }
+    public long getReaderIdleTimeoutMillis() { return readerIdleTimeoutMillis; }
+    public void setReaderIdleTimeoutMillis(long readerIdleTimeoutMillis) { this.readerIdleTimeoutMillis = readerIdleTimeoutMillis; }
+    public int getWeight() { return weight; }
+    public void setWeight(int weight) { this.weight = weight; }
 }
\ No newline at end of file
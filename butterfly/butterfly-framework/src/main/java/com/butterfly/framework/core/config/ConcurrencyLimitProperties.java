@@ -0,0 +1,129 @@
+package com.butterfly.framework.core.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 客户端自适应并发限制配置属性类
+ * 按 服务 x 服务实例 限制在途请求数，限制值根据测得的RTT自动调整
+ */
+@Component
+@ConfigurationProperties(prefix = "rpc.concurrency-limit")
+public class ConcurrencyLimitProperties {
+    /**
+     * 是否启用自适应并发限制
+     */
+    private boolean enabled = true;
+
+    /**
+     * 初始并发限制
+     */
+    private int initialLimit = 20;
+
+    /**
+     * 最小并发限制
+     */
+    private int minLimit = 2;
+
+    /**
+     * 最大并发限制
+     */
+    private int maxLimit = 1000;
+
+    /**
+     * 限制值平滑系数(0-1)，越大调整越快
+     */
+    private double smoothing = 0.2;
+
+    /**
+     * RTT容忍度：短期RTT不超过长期RTT的该倍数时不收缩限制
+     */
+    private double rttTolerance = 1.5;
+
+    /**
+     * 长期RTT均值的窗口(样本数)
+     */
+    private int longWindow = 600;
+
+    /**
+     * 请求超时或被服务端拒绝时限制值的乘性收缩比例
+     */
+    private double backoffRatio = 0.9;
+
+    /**
+     * 达到限制时是否尝试改投其他服务实例，否则直接快速失败
+     */
+    private boolean rerouteEnabled = true;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    public void setInitialLimit(int initialLimit) {
+        this.initialLimit = initialLimit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public void setMinLimit(int minLimit) {
+        this.minLimit = minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+
+    public double getSmoothing() {
+        return smoothing;
+    }
+
+    public void setSmoothing(double smoothing) {
+        this.smoothing = smoothing;
+    }
+
+    public double getRttTolerance() {
+        return rttTolerance;
+    }
+
+    public void setRttTolerance(double rttTolerance) {
+        this.rttTolerance = rttTolerance;
+    }
+
+    public int getLongWindow() {
+        return longWindow;
+    }
+
+    public void setLongWindow(int longWindow) {
+        this.longWindow = longWindow;
+    }
+
+    public double getBackoffRatio() {
+        return backoffRatio;
+    }
+
+    public void setBackoffRatio(double backoffRatio) {
+        this.backoffRatio = backoffRatio;
+    }
+
+    public boolean isRerouteEnabled() {
+        return rerouteEnabled;
+    }
+
+    public void setRerouteEnabled(boolean rerouteEnabled) {
+        this.rerouteEnabled = rerouteEnabled;
+    }
+}
@@ -30,6 +30,16 @@ public class HealthCheckProperties {
      */
     private boolean enabled = true;
 
+    /**
+     * 同时进行的健康检查探测数上限
+     */
+    private int maxConcurrency = 64;
+
+    /**
+     * 探测时间在检查间隔内的分散比例(0-1)，每个实例的探测在 [0, 间隔*比例) 内随机开始，避免集中发起
+     */
+    private double spreadRatio = 0.8;
+
     // Getters and Setters
     public int getIntervalMillis() {
         return intervalMillis;
@@ -62,4 +72,20 @@ public class HealthCheckProperties {
     public void setEnabled(boolean enabled) {
         this.enabled = enabled;
     }
-}
\ No newline at end of file
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public double getSpreadRatio() {
+        return spreadRatio;
+    }
+
+    public void setSpreadRatio(double spreadRatio) {
+        this.spreadRatio = spreadRatio;
+    }
+}
@@ -0,0 +1,93 @@
+package com.butterfly.framework.core.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 对冲请求配置属性类
+ * 用于外部化配置对冲请求的开关、延迟和额外负载预算
+ */
+@Component
+@ConfigurationProperties(prefix = "rpc.hedging")
+public class HedgingProperties {
+    /**
+     * 是否启用对冲请求，关闭后@RpcMethod(hedging = true)同样不生效
+     */
+    private boolean enabled = true;
+
+    /**
+     * 额外通过配置开启对冲的方法，格式: 接口全限定名.方法名
+     */
+    private Set<String> methods = new HashSet<>();
+
+    /**
+     * 默认对冲延迟(毫秒)，方法未指定延迟且延迟样本不足时使用
+     */
+    private long defaultDelayMillis = 50;
+
+    /**
+     * 使用观测到的P95延迟作为对冲延迟前所需的最少样本数
+     */
+    private int minSamples = 20;
+
+    /**
+     * 对冲请求占原始请求的最大比例，如0.05表示最多增加5%的额外负载
+     */
+    private double budgetRatio = 0.05;
+
+    /**
+     * 对冲预算令牌桶容量，限制空闲期积累后的突发对冲数
+     */
+    private int budgetMaxTokens = 10;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Set<String> getMethods() {
+        return methods;
+    }
+
+    public void setMethods(Set<String> methods) {
+        this.methods = methods;
+    }
+
+    public long getDefaultDelayMillis() {
+        return defaultDelayMillis;
+    }
+
+    public void setDefaultDelayMillis(long defaultDelayMillis) {
+        this.defaultDelayMillis = defaultDelayMillis;
+    }
+
+    public int getMinSamples() {
+        return minSamples;
+    }
+
+    public void setMinSamples(int minSamples) {
+        this.minSamples = minSamples;
+    }
+
+    public double getBudgetRatio() {
+        return budgetRatio;
+    }
+
+    public void setBudgetRatio(double budgetRatio) {
+        this.budgetRatio = budgetRatio;
+    }
+
+    public int getBudgetMaxTokens() {
+        return budgetMaxTokens;
+    }
+
+    public void setBudgetMaxTokens(int budgetMaxTokens) {
+        this.budgetMaxTokens = budgetMaxTokens;
+    }
+}
@@ -3,6 +3,9 @@ package com.butterfly.framework.core.config;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * 负载均衡配置属性类
  * 用于外部化配置负载均衡相关参数
@@ -20,6 +23,17 @@ public class LoadBalanceProperties {
      */
     private StrategyProperties strategy = new StrategyProperties();
 
+    /**
+     * 新实例预热参数
+     */
+    private WarmupProperties warmup = new WarmupProperties();
+
+    /**
+     * 按服务覆盖的预热参数，键为 接口全限定名:版本:分组
+     * 键中含有特殊字符，yml中需写作 "[com.example.DemoService:1.0.0:default]"
+     */
+    private Map<String, WarmupProperties> serviceWarmup = new HashMap<>();
+
     public String getDefaultStrategy() {
         return defaultStrategy;
     }
@@ -36,19 +50,50 @@ public class LoadBalanceProperties {
         this.strategy = strategy;
     }
 
+    public WarmupProperties getWarmup() {
+        return warmup;
+    }
+
+    public void setWarmup(WarmupProperties warmup) {
+        this.warmup = warmup;
+    }
+
+    public Map<String, WarmupProperties> getServiceWarmup() {
+        return serviceWarmup;
+    }
+
+    public void setServiceWarmup(Map<String, WarmupProperties> serviceWarmup) {
+        this.serviceWarmup = serviceWarmup;
+    }
+
+    /**
+     * 获取服务的预热参数，未单独配置时返回全局参数
+     */
+    public WarmupProperties getWarmup(String serviceName) {
+        WarmupProperties properties = serviceWarmup != null ? serviceWarmup.get(serviceName) : null;
+        return properties != null ? properties : warmup;
+    }
+
     /**
      * 负载均衡策略的具体参数
      */
     public static class StrategyProperties {
         /**
-         * 权重随机策略的权重配置
+         * 客户端侧的实例权重覆盖，格式: ip:port=weight，多个以逗号分隔
+         * 加权策略优先使用这里的权重，未配置的实例使用注册元数据中的weight
          */
         private String weightedRandomWeights;
 
         /**
          * 最少活跃策略的阈值
+         * 在途调用数不超过 最小在途数 + 阈值 的实例视为同样空闲，在其中按权重随机；0表示只在在途数最小的实例中选择
          */
-        private int leastActiveThreshold = 10;
+        private int leastActiveThreshold = 0;
+
+        /**
+         * 一致性哈希策略每个实例的虚拟节点数，按4的倍数向上取整
+         */
+        private int consistentHashVirtualNodes = 160;
 
         public String getWeightedRandomWeights() {
             return weightedRandomWeights;
@@ -65,5 +110,58 @@ public class LoadBalanceProperties {
         public void setLeastActiveThreshold(int leastActiveThreshold) {
             this.leastActiveThreshold = leastActiveThreshold;
         }
+
+        public int getConsistentHashVirtualNodes() {
+            return consistentHashVirtualNodes;
+        }
+
+        public void setConsistentHashVirtualNodes(int consistentHashVirtualNodes) {
+            this.consistentHashVirtualNodes = consistentHashVirtualNodes;
+        }
+    }
+
+    /**
+     * 新实例预热参数
+     * 实例注册后的预热窗口内，其有效权重从minRatio按曲线升至完整权重
+     */
+    public static class WarmupProperties {
+        /**
+         * 预热窗口(毫秒)，小于等于0表示不预热
+         */
+        private long windowMillis = 60000;
+
+        /**
+         * 预热曲线: linear(线性) / quadratic(先慢后快)
+         */
+        private String curve = "linear";
+
+        /**
+         * 预热开始时的权重比例
+         */
+        private double minRatio = 0.1;
+
+        public long getWindowMillis() {
+            return windowMillis;
+        }
+
+        public void setWindowMillis(long windowMillis) {
+            this.windowMillis = windowMillis;
+        }
+
+        public String getCurve() {
+            return curve;
+        }
+
+        public void setCurve(String curve) {
+            this.curve = curve;
+        }
+
+        public double getMinRatio() {
+            return minRatio;
+        }
+
+        public void setMinRatio(double minRatio) {
+            this.minRatio = minRatio;
+        }
     }
 }
\ No newline at end of file
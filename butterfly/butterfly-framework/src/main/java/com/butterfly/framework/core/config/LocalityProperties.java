@@ -0,0 +1,51 @@
+package com.butterfly.framework.core.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 就近路由配置属性类
+ * 服务提供者在注册元数据中发布所在可用区，调用方优先选择同可用区的实例，本地可用容量不足时才跨区
+ */
+@Component
+@ConfigurationProperties(prefix = "rpc.locality")
+public class LocalityProperties {
+    /**
+     * 是否启用就近路由，本机未配置可用区时不生效
+     */
+    private boolean enabled = true;
+
+    /**
+     * 本机所在的可用区/机架标签，同时作为提供者发布的可用区和调用方的就近依据
+     */
+    private String zone;
+
+    /**
+     * 同可用区实例中未被摘除的比例低于该百分比时溢出到全部可用区
+     */
+    private int minLocalHealthyPercent = 70;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getZone() {
+        return zone;
+    }
+
+    public void setZone(String zone) {
+        this.zone = zone;
+    }
+
+    public int getMinLocalHealthyPercent() {
+        return minLocalHealthyPercent;
+    }
+
+    public void setMinLocalHealthyPercent(int minLocalHealthyPercent) {
+        this.minLocalHealthyPercent = minLocalHealthyPercent;
+    }
+}
@@ -0,0 +1,142 @@
+package com.butterfly.framework.core.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 被动异常实例检测配置属性类
+ * 根据真实调用结果摘除连续失败或延迟明显偏高的实例，不依赖周期性的主动健康检查
+ */
+@Component
+@ConfigurationProperties(prefix = "rpc.outlier-detection")
+public class OutlierDetectionProperties {
+    /**
+     * 是否启用被动异常实例检测
+     */
+    private boolean enabled = true;
+
+    /**
+     * 连续失败多少次后摘除实例
+     */
+    private int consecutiveErrors = 5;
+
+    /**
+     * 平均延迟超过同服务实例中位数的多少倍视为延迟异常，小于等于0表示不检测延迟
+     */
+    private double latencyMultiplier = 3.0;
+
+    /**
+     * 参与延迟异常判定的最低平均延迟(毫秒)，避免亚毫秒级抖动被放大为倍数差异
+     */
+    private long latencyMinMillis = 5;
+
+    /**
+     * 参与延迟异常判定所需的最少样本数
+     */
+    private int minRequests = 20;
+
+    /**
+     * 参与延迟异常判定所需的最少实例数，实例过少时中位数没有意义
+     */
+    private int minHosts = 3;
+
+    /**
+     * 首次摘除时长(毫秒)，再次摘除时按次数指数增长
+     */
+    private long baseEjectionMillis = 10000;
+
+    /**
+     * 最长摘除时长(毫秒)
+     */
+    private long maxEjectionMillis = 300000;
+
+    /**
+     * 同一服务最多摘除的实例比例(百分比)，至少保留一个实例
+     */
+    private int maxEjectionPercent = 50;
+
+    /**
+     * 延迟异常分析和摘除次数衰减的周期(毫秒)
+     */
+    private long intervalMillis = 1000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getConsecutiveErrors() {
+        return consecutiveErrors;
+    }
+
+    public void setConsecutiveErrors(int consecutiveErrors) {
+        this.consecutiveErrors = consecutiveErrors;
+    }
+
+    public double getLatencyMultiplier() {
+        return latencyMultiplier;
+    }
+
+    public void setLatencyMultiplier(double latencyMultiplier) {
+        this.latencyMultiplier = latencyMultiplier;
+    }
+
+    public long getLatencyMinMillis() {
+        return latencyMinMillis;
+    }
+
+    public void setLatencyMinMillis(long latencyMinMillis) {
+        this.latencyMinMillis = latencyMinMillis;
+    }
+
+    public int getMinRequests() {
+        return minRequests;
+    }
+
+    public void setMinRequests(int minRequests) {
+        this.minRequests = minRequests;
+    }
+
+    public int getMinHosts() {
+        return minHosts;
+    }
+
+    public void setMinHosts(int minHosts) {
+        this.minHosts = minHosts;
+    }
+
+    public long getBaseEjectionMillis() {
+        return baseEjectionMillis;
+    }
+
+    public void setBaseEjectionMillis(long baseEjectionMillis) {
+        this.baseEjectionMillis = baseEjectionMillis;
+    }
+
+    public long getMaxEjectionMillis() {
+        return maxEjectionMillis;
+    }
+
+    public void setMaxEjectionMillis(long maxEjectionMillis) {
+        this.maxEjectionMillis = maxEjectionMillis;
+    }
+
+    public int getMaxEjectionPercent() {
+        return maxEjectionPercent;
+    }
+
+    public void setMaxEjectionPercent(int maxEjectionPercent) {
+        this.maxEjectionPercent = maxEjectionPercent;
+    }
+
+    public long getIntervalMillis() {
+        return intervalMillis;
+    }
+
+    public void setIntervalMillis(long intervalMillis) {
+        this.intervalMillis = intervalMillis;
+    }
+}
@@ -0,0 +1,52 @@
+package com.butterfly.framework.core.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 客户端子集配置属性类
+ * 大规模集群中每个客户端只连接服务实例的一个确定性子集，连接数从 客户端数 x 实例数 降为 客户端数 x 子集大小
+ */
+@Component
+@ConfigurationProperties(prefix = "rpc.subset")
+public class SubsetProperties {
+    /**
+     * 是否启用客户端子集
+     */
+    private boolean enabled = false;
+
+    /**
+     * 每个服务选取的实例数，实例数不超过该值时使用全部实例
+     */
+    private int size = 10;
+
+    /**
+     * 客户端标识，决定选中哪些实例；为空时使用 进程号@主机名
+     * 需要重启后保持相同子集时应显式配置，且不同客户端必须不同，否则各实例负载不均
+     */
+    private String clientId;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public String getClientId() {
+        return clientId;
+    }
+
+    public void setClientId(String clientId) {
+        this.clientId = clientId;
+    }
+}
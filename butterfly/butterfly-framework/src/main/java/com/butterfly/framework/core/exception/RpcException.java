@@ -0,0 +1,23 @@
+package com.butterfly.framework.core.exception;
+
+/**
+ * 携带RPC错误码的异常
+ * 服务端据此构建失败响应，错误码定义见RpcErrorCode
+ */
+public class RpcException extends RuntimeException {
+    private final int errorCode;
+
+    public RpcException(int errorCode, String message) {
+        super(message);
+        this.errorCode = errorCode;
+    }
+
+    public RpcException(int errorCode, String message, Throwable cause) {
+        super(message, cause);
+        this.errorCode = errorCode;
+    }
+
+    public int getErrorCode() {
+        return errorCode;
+    }
+}
@@ -0,0 +1,111 @@
+package com.butterfly.framework.core.faulttolerance;
+
+import com.butterfly.framework.core.config.ConcurrencyLimitProperties;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 梯度式自适应并发限制器
+ * 维护长期RTT均值作为无排队时的基准，用 长期RTT / 短期RTT 的梯度衡量服务端排队程度：
+ * 梯度接近1时以sqrt(limit)的余量探测更高并发，RTT上升时按梯度收缩，超时或被拒绝时乘性收缩。
+ * 获取许可为一次CAS，限制值的更新在请求完成时进行，临界区只有少量浮点运算
+ */
+public class AdaptiveConcurrencyLimiter {
+    // 梯度下限，单次更新最多收缩一半
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final double rttTolerance;
+    private final int longWindow;
+    private final double backoffRatio;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+    private volatile int limit;
+    private double estimatedLimit;
+    private double longRttNanos;
+
+    public AdaptiveConcurrencyLimiter(ConcurrencyLimitProperties properties) {
+        this.minLimit = Math.max(1, properties.getMinLimit());
+        this.maxLimit = Math.max(minLimit, properties.getMaxLimit());
+        this.smoothing = properties.getSmoothing();
+        this.rttTolerance = properties.getRttTolerance();
+        this.longWindow = Math.max(1, properties.getLongWindow());
+        this.backoffRatio = properties.getBackoffRatio();
+        this.estimatedLimit = Math.min(maxLimit, Math.max(minLimit, properties.getInitialLimit()));
+        this.limit = (int) estimatedLimit;
+    }
+
+    /**
+     * 尝试获取许可
+     * @return 在途请求数未达到限制时返回true，调用方必须在请求结束时调用onSuccess/onDropped/onIgnore之一
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inflight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 请求正常完成，释放许可并用本次RTT更新限制
+     * @param rttNanos 请求往返时间(纳秒)
+     */
+    public void onSuccess(long rttNanos) {
+        int inflightAtCompletion = inflight.getAndDecrement();
+        if (rttNanos <= 0) {
+            return;
+        }
+        synchronized (this) {
+            longRttNanos = longRttNanos == 0 ? rttNanos : longRttNanos + (rttNanos - longRttNanos) / longWindow;
+            // 短期RTT显著低于长期均值时(如服务端恢复)，加速长期均值回落
+            if (longRttNanos / rttNanos > 2) {
+                longRttNanos *= 0.95;
+            }
+            // 在途请求远低于限制时，RTT不能反映限制是否合适
+            if (inflightAtCompletion < estimatedLimit / 2) {
+                return;
+            }
+            double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, rttTolerance * longRttNanos / rttNanos));
+            double queueSize = Math.sqrt(estimatedLimit);
+            update(estimatedLimit * gradient + queueSize);
+        }
+    }
+
+    /**
+     * 请求超时或被服务端因过载拒绝，释放许可并乘性收缩限制
+     */
+    public void onDropped() {
+        inflight.decrementAndGet();
+        synchronized (this) {
+            update(estimatedLimit * backoffRatio);
+        }
+    }
+
+    /**
+     * 请求被取消或因与负载无关的原因失败，只释放许可
+     */
+    public void onIgnore() {
+        inflight.decrementAndGet();
+    }
+
+    private void update(double newLimit) {
+        double smoothed = estimatedLimit * (1 - smoothing) + newLimit * smoothing;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, smoothed));
+        limit = (int) estimatedLimit;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+}
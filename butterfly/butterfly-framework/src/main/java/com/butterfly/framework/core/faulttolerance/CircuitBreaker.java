@@ -1,5 +1,8 @@
 package com.butterfly.framework.core.faulttolerance;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
 /**
  * 熔断器接口
  * 实现服务调用的熔断模式，防止故障级联传播
@@ -14,6 +17,15 @@ public interface CircuitBreaker {
      */
     <T> T execute(CircuitBreakerMethod<T> method) throws Exception;
 
+    /**
+     * 异步执行目标方法
+     * 熔断打开时直接返回失败的Future；否则在返回的Future完成时记录成功或失败，调用线程不等待结果
+     * @param method 发起异步调用的方法
+     * @param <T> 返回值类型
+     * @return 异步执行结果
+     */
+    <T> CompletableFuture<T> executeAsync(Supplier<CompletableFuture<T>> method);
+
     /**
      * 获取当前熔断器状态
      * @return 熔断器状态
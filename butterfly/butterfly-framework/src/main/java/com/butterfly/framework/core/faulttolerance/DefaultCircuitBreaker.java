@@ -2,9 +2,11 @@ package com.butterfly.framework.core.faulttolerance;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
 /**
  * 默认熔断器实现
@@ -78,6 +80,38 @@ public class DefaultCircuitBreaker implements CircuitBreaker {
         }
     }
 
+    @Override
+    public <T> CompletableFuture<T> executeAsync(Supplier<CompletableFuture<T>> method) {
+        // 检查并更新状态
+        checkAndUpdateState();
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        if (state == CircuitBreakerState.OPEN) {
+            // 打开状态，直接返回熔断异常
+            result.completeExceptionally(new CircuitBreakerOpenException("Circuit breaker '" + name + "' is OPEN"));
+            return result;
+        }
+
+        CompletableFuture<T> future;
+        try {
+            future = method.get();
+        } catch (RuntimeException e) {
+            onFailure();
+            result.completeExceptionally(e);
+            return result;
+        }
+        future.whenComplete((value, ex) -> {
+            if (ex == null) {
+                onSuccess();
+                result.complete(value);
+            } else {
+                onFailure();
+                result.completeExceptionally(ex);
+            }
+        });
+        return result;
+    }
+
     /**
      * 检查并更新熔断器状态
      */
@@ -6,8 +6,13 @@ import com.butterfly.framework.core.config.RetryPolicyProperties;
 import com.butterfly.framework.core.exception.RetryInterruptedException;
 import com.butterfly.framework.core.exception.RetryExhaustedException;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import com.butterfly.framework.core.faulttolerance.CircuitBreaker;
 import com.butterfly.framework.core.faulttolerance.RetryPolicy;
 
@@ -82,6 +87,47 @@ public ExponentialBackoffRetryPolicy(RetryPolicyProperties properties) {
         throw new RetryExhaustedException("达到最大重试次数" + maxRetries, lastException);
     }
 
+    @Override
+    public <T> CompletableFuture<T> executeAsync(Supplier<CompletableFuture<T>> method, ScheduledExecutorService scheduler) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        attemptAsync(method, scheduler, result, 0);
+        return result;
+    }
+
+    /**
+     * 发起一次异步调用，失败时按退避延迟调度下一次尝试
+     */
+    private <T> void attemptAsync(Supplier<CompletableFuture<T>> method, ScheduledExecutorService scheduler,
+                                  CompletableFuture<T> result, int attempt) {
+        CompletableFuture<T> future;
+        try {
+            future = method.get();
+        } catch (RuntimeException e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+        }
+        future.whenComplete((value, ex) -> {
+            if (ex == null) {
+                result.complete(value);
+                return;
+            }
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            logger.warn("第{}次调用失败: {}", attempt, cause.getMessage());
+            if (attempt >= maxRetries) {
+                result.completeExceptionally(new RetryExhaustedException("达到最大重试次数" + maxRetries, cause));
+                return;
+            }
+            int nextAttempt = attempt + 1;
+            long delay = calculateDelay(nextAttempt);
+            logger.info("重试第{}次，等待{}ms...", nextAttempt, delay);
+            try {
+                scheduler.schedule(() -> attemptAsync(method, scheduler, result, nextAttempt), delay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                result.completeExceptionally(new RetryExhaustedException("重试调度失败", cause));
+            }
+        });
+    }
+
     /**
      * 计算重试延迟时间
      * @param attempt 当前重试次数(从1开始)
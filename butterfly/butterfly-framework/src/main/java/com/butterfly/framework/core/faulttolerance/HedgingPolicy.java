@@ -0,0 +1,98 @@
+package com.butterfly.framework.core.faulttolerance;
+
+import java.util.Arrays;
+
+/**
+ * 对冲策略
+ * 单个方法的对冲状态：按令牌桶控制对冲请求占原始请求的比例，并维护最近调用的延迟窗口，
+ * 未显式指定对冲延迟时以观测到的P95延迟作为发送对冲请求的时机
+ */
+public class HedgingPolicy {
+    // 延迟窗口大小
+    private static final int WINDOW_SIZE = 128;
+    // 每记录多少个样本重新计算一次P95
+    private static final int RECOMPUTE_INTERVAL = 32;
+
+    private final long fixedDelayMillis;
+    private final long defaultDelayMillis;
+    private final int minSamples;
+    private final int maxAttempts;
+    private final double budgetRatio;
+    private final double budgetMaxTokens;
+
+    // 令牌桶余量，每个原始请求增加budgetRatio，每个对冲请求消耗1
+    private double tokens;
+    private final long[] latencies = new long[WINDOW_SIZE];
+    private int sampleCount;
+    private int nextSample;
+    private volatile long p95Millis = -1;
+
+    /**
+     * 构造函数
+     * @param fixedDelayMillis 固定对冲延迟(毫秒)，小于等于0表示按P95自适应
+     * @param defaultDelayMillis 样本不足时的默认对冲延迟(毫秒)
+     * @param minSamples 使用P95前所需的最少样本数
+     * @param maxAttempts 最大尝试次数(包含原始请求)
+     * @param budgetRatio 对冲请求占原始请求的最大比例
+     * @param budgetMaxTokens 令牌桶容量
+     */
+    public HedgingPolicy(long fixedDelayMillis, long defaultDelayMillis, int minSamples, int maxAttempts,
+                         double budgetRatio, int budgetMaxTokens) {
+        this.fixedDelayMillis = fixedDelayMillis;
+        this.defaultDelayMillis = defaultDelayMillis;
+        this.minSamples = Math.min(Math.max(1, minSamples), WINDOW_SIZE);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.budgetRatio = budgetRatio;
+        this.budgetMaxTokens = Math.max(1, budgetMaxTokens);
+    }
+
+    /**
+     * 记录一次原始请求，为对冲预算补充令牌
+     */
+    public synchronized void onRequest() {
+        tokens = Math.min(budgetMaxTokens, tokens + budgetRatio);
+    }
+
+    /**
+     * 尝试获取一次对冲请求的预算
+     * @return 预算充足时返回true
+     */
+    public synchronized boolean tryAcquire() {
+        if (tokens >= 1) {
+            tokens -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 记录一次成功调用的延迟
+     */
+    public synchronized void recordLatency(long latencyMillis) {
+        latencies[nextSample] = latencyMillis;
+        nextSample = (nextSample + 1) % WINDOW_SIZE;
+        if (sampleCount < WINDOW_SIZE) {
+            sampleCount++;
+        }
+        if (sampleCount >= minSamples && (p95Millis < 0 || nextSample % RECOMPUTE_INTERVAL == 0)) {
+            long[] sorted = Arrays.copyOf(latencies, sampleCount);
+            Arrays.sort(sorted);
+            p95Millis = sorted[(int) Math.ceil(sorted.length * 0.95) - 1];
+        }
+    }
+
+    /**
+     * 获取发送对冲请求前的等待时间(毫秒)
+     */
+    public long getDelayMillis() {
+        if (fixedDelayMillis > 0) {
+            return fixedDelayMillis;
+        }
+        long p95 = p95Millis;
+        return p95 >= 0 ? Math.max(1, p95) : defaultDelayMillis;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+}
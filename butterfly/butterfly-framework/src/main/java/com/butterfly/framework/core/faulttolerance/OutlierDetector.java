@@ -0,0 +1,301 @@
+package com.butterfly.framework.core.faulttolerance;
+
+import com.butterfly.framework.core.config.OutlierDetectionProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 被动异常实例检测器
+ * 根据客户端上报的每次调用结果按 服务 x 实例 统计连续失败次数和平均延迟：
+ * 连续失败达到阈值时立即摘除，平均延迟远高于同服务实例中位数的实例由周期分析摘除。
+ * 摘除时长随摘除次数指数增长，实例恢复正常后摘除次数逐步衰减；
+ * 选择实例时同一服务被过滤掉的实例数不超过maxEjectionPercent，且至少保留一个实例
+ */
+@Component
+public class OutlierDetector {
+    private static final Logger logger = LoggerFactory.getLogger(OutlierDetector.class);
+    // 平均延迟的EWMA平滑系数
+    private static final double LATENCY_ALPHA = 0.1;
+    // 摘除时长指数增长的最大次数，避免移位溢出
+    private static final int MAX_BACKOFF_SHIFT = 16;
+
+    private final OutlierDetectionProperties properties;
+    private final Map<String, Map<InetSocketAddress, HostStats>> stats = new ConcurrentHashMap<>();
+    // 按服务缓存的过滤结果，地址列表引用、摘除版本和最早恢复时间均未变化时直接复用
+    private final Map<String, FilteredView> views = new ConcurrentHashMap<>();
+    // 每次摘除实例时递增，用于判定缓存的过滤结果是否失效
+    private final AtomicInteger ejectionVersion = new AtomicInteger();
+    private final ScheduledExecutorService analysisExecutor;
+
+    @Autowired
+    public OutlierDetector(OutlierDetectionProperties properties) {
+        this.properties = properties;
+        if (properties.isEnabled()) {
+            this.analysisExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "rpc-outlier-detector");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long interval = Math.max(100, properties.getIntervalMillis());
+            analysisExecutor.scheduleWithFixedDelay(this::analyze, interval, interval, TimeUnit.MILLISECONDS);
+        } else {
+            this.analysisExecutor = null;
+        }
+    }
+
+    /**
+     * 记录一次调用结果
+     * @param serviceName 服务名称
+     * @param address 被调用的实例
+     * @param success 调用是否成功
+     * @param responseTimeNanos 响应时间(纳秒)
+     */
+    public void onResult(String serviceName, InetSocketAddress address, boolean success, long responseTimeNanos) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        HostStats host = getHostStats(serviceName, address);
+        host.lastSampleMillis = System.currentTimeMillis();
+        if (success) {
+            host.consecutiveErrors.set(0);
+            host.recordLatency(responseTimeNanos);
+            return;
+        }
+        if (host.consecutiveErrors.incrementAndGet() >= properties.getConsecutiveErrors()) {
+            eject(serviceName, address, host, "连续失败" + properties.getConsecutiveErrors() + "次");
+        }
+    }
+
+    /**
+     * 过滤掉当前处于摘除状态的实例
+     * @param serviceName 服务名称
+     * @param addresses 服务实例列表，不会被修改
+     * @return 可用实例列表，没有实例被摘除时返回原列表；同一地址列表在摘除状态不变期间返回同一个只读列表
+     */
+    public List<InetSocketAddress> filter(String serviceName, List<InetSocketAddress> addresses) {
+        if (!properties.isEnabled() || addresses.size() <= 1) {
+            return addresses;
+        }
+        Map<InetSocketAddress, HostStats> hosts = stats.get(serviceName);
+        if (hosts == null) {
+            return addresses;
+        }
+        long now = System.currentTimeMillis();
+        int version = ejectionVersion.get();
+        FilteredView view = views.get(serviceName);
+        if (view != null && view.matches(addresses, version, now)) {
+            return view.available;
+        }
+        // 先读取版本再计算，计算期间发生的摘除使缓存在下次调用时失效
+        int maxEjected = Math.min(addresses.size() - 1, addresses.size() * properties.getMaxEjectionPercent() / 100);
+        List<InetSocketAddress> available = null;
+        long validUntilMillis = Long.MAX_VALUE;
+        int ejected = 0;
+        for (int i = 0; i < addresses.size(); i++) {
+            InetSocketAddress address = addresses.get(i);
+            HostStats host = hosts.get(address);
+            long ejectedUntilMillis = host != null ? host.ejectedUntilMillis : 0;
+            boolean skip = now < ejectedUntilMillis && ejected < maxEjected;
+            if (skip && available == null) {
+                available = new ArrayList<>(addresses.subList(0, i));
+            }
+            if (skip) {
+                ejected++;
+                validUntilMillis = Math.min(validUntilMillis, ejectedUntilMillis);
+            } else if (available != null) {
+                available.add(address);
+            }
+        }
+        List<InetSocketAddress> result = available != null ? Collections.unmodifiableList(available) : addresses;
+        views.put(serviceName, new FilteredView(addresses, version, validUntilMillis, result));
+        return result;
+    }
+
+    /**
+     * 实例当前是否处于摘除状态
+     */
+    public boolean isEjected(String serviceName, InetSocketAddress address) {
+        Map<InetSocketAddress, HostStats> hosts = stats.get(serviceName);
+        HostStats host = hosts != null ? hosts.get(address) : null;
+        return host != null && host.isEjected(System.currentTimeMillis());
+    }
+
+    private HostStats getHostStats(String serviceName, InetSocketAddress address) {
+        Map<InetSocketAddress, HostStats> hosts = stats.get(serviceName);
+        if (hosts == null) {
+            hosts = stats.computeIfAbsent(serviceName, key -> new ConcurrentHashMap<>());
+        }
+        HostStats host = hosts.get(address);
+        if (host == null) {
+            host = hosts.computeIfAbsent(address, key -> new HostStats());
+        }
+        return host;
+    }
+
+    private void eject(String serviceName, InetSocketAddress address, HostStats host, String reason) {
+        long now = System.currentTimeMillis();
+        synchronized (host) {
+            if (host.isEjected(now)) {
+                return;
+            }
+            int shift = Math.min(host.ejectionCount, MAX_BACKOFF_SHIFT);
+            long duration = Math.min(properties.getMaxEjectionMillis(), properties.getBaseEjectionMillis() << shift);
+            host.ejectionCount++;
+            host.ejectedUntilMillis = now + duration;
+            ejectionVersion.incrementAndGet();
+            host.lastStateChangeMillis = now;
+            host.reset();
+            logger.warn("摘除异常实例: {} -> {}，原因: {}，摘除时长: {}ms，累计摘除次数: {}",
+                    serviceName, address, reason, duration, host.ejectionCount);
+        }
+    }
+
+    /**
+     * 周期分析：摘除延迟异常的实例，衰减恢复正常的实例的摘除次数，清理长期无调用的实例
+     */
+    private void analyze() {
+        try {
+            long now = System.currentTimeMillis();
+            for (Map.Entry<String, Map<InetSocketAddress, HostStats>> entry : stats.entrySet()) {
+                Map<InetSocketAddress, HostStats> hosts = entry.getValue();
+                for (Map.Entry<InetSocketAddress, HostStats> hostEntry : hosts.entrySet()) {
+                    HostStats host = hostEntry.getValue();
+                    if (host.isEjected(now)) {
+                        continue;
+                    }
+                    if (host.ejectionCount > 0 && now - host.lastStateChangeMillis >= properties.getBaseEjectionMillis()) {
+                        synchronized (host) {
+                            host.ejectionCount--;
+                            host.lastStateChangeMillis = now;
+                        }
+                    }
+                    if (host.ejectionCount == 0 && now - host.lastSampleMillis > properties.getMaxEjectionMillis()) {
+                        hosts.remove(hostEntry.getKey(), host);
+                    }
+                }
+                if (properties.getLatencyMultiplier() > 0) {
+                    detectLatencyOutliers(entry.getKey(), hosts, now);
+                }
+            }
+        } catch (Exception e) {
+            logger.error("异常实例分析失败", e);
+        }
+    }
+
+    private void detectLatencyOutliers(String serviceName, Map<InetSocketAddress, HostStats> hosts, long now) {
+        List<InetSocketAddress> candidates = new ArrayList<>();
+        List<HostStats> candidateStats = new ArrayList<>();
+        for (Map.Entry<InetSocketAddress, HostStats> hostEntry : hosts.entrySet()) {
+            HostStats host = hostEntry.getValue();
+            if (!host.isEjected(now) && host.sampleCount >= properties.getMinRequests()) {
+                candidates.add(hostEntry.getKey());
+                candidateStats.add(host);
+            }
+        }
+        if (candidates.size() < Math.max(2, properties.getMinHosts())) {
+            return;
+        }
+        double[] latencies = new double[candidateStats.size()];
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = candidateStats.get(i).latencyNanos;
+        }
+        Arrays.sort(latencies);
+        int mid = latencies.length / 2;
+        double median = (latencies.length & 1) == 1 ? latencies[mid] : (latencies[mid - 1] + latencies[mid]) / 2;
+        double threshold = Math.max(median * properties.getLatencyMultiplier(),
+                TimeUnit.MILLISECONDS.toNanos(properties.getLatencyMinMillis()));
+        for (int i = 0; i < candidates.size(); i++) {
+            HostStats host = candidateStats.get(i);
+            if (host.latencyNanos > threshold) {
+                eject(serviceName, candidates.get(i), host, String.format("平均延迟%.1fms，中位数%.1fms",
+                        host.latencyNanos / 1e6, median / 1e6));
+            }
+        }
+    }
+
+    /**
+     * 关闭分析线程
+     */
+    @PreDestroy
+    public void close() {
+        if (analysisExecutor != null) {
+            analysisExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * 某个地址列表在某个摘除版本下的过滤结果
+     */
+    private static class FilteredView {
+        // 过滤时传入的列表引用，服务发现返回的快照在地址变更前保持同一引用
+        private final List<InetSocketAddress> source;
+        private final int size;
+        private final int version;
+        // 被过滤实例中最早的恢复时间，到达后需重新过滤
+        private final long validUntilMillis;
+        private final List<InetSocketAddress> available;
+
+        FilteredView(List<InetSocketAddress> source, int version, long validUntilMillis,
+                     List<InetSocketAddress> available) {
+            this.source = source;
+            this.size = source.size();
+            this.version = version;
+            this.validUntilMillis = validUntilMillis;
+            this.available = available;
+        }
+
+        boolean matches(List<InetSocketAddress> addresses, int currentVersion, long nowMillis) {
+            return addresses == source && addresses.size() == size
+                    && version == currentVersion && nowMillis < validUntilMillis;
+        }
+    }
+
+    /**
+     * 单个实例的统计状态
+     * 延迟统计在调用线程上无锁更新，并发写入偶尔丢失一个样本不影响异常判定
+     */
+    private static class HostStats {
+        private final AtomicInteger consecutiveErrors = new AtomicInteger();
+        private volatile double latencyNanos;
+        private volatile int sampleCount;
+        private volatile long lastSampleMillis = System.currentTimeMillis();
+        private volatile long ejectedUntilMillis;
+        // 以下两个字段在持有HostStats锁时修改
+        private volatile int ejectionCount;
+        private volatile long lastStateChangeMillis;
+
+        void recordLatency(long nanos) {
+            double current = latencyNanos;
+            latencyNanos = sampleCount == 0 ? nanos : current + (nanos - current) * LATENCY_ALPHA;
+            sampleCount++;
+        }
+
+        boolean isEjected(long nowMillis) {
+            return nowMillis < ejectedUntilMillis;
+        }
+
+        /**
+         * 摘除后重新开始统计，恢复后需要积累新的样本才会再次参与延迟判定
+         */
+        void reset() {
+            consecutiveErrors.set(0);
+            latencyNanos = 0;
+            sampleCount = 0;
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package com.butterfly.framework.core.faulttolerance;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Supplier;
+
 /**
  * 重试策略接口
  * 定义服务调用失败后的重试机制
@@ -14,8 +18,19 @@ public interface RetryPolicy {
      */
     <T> T execute(CircuitBreaker.CircuitBreakerMethod<T> method) throws Exception;
 
+    /**
+     * 异步执行带重试的方法调用
+     * 失败后的退避等待由调度器定时触发，不占用调用线程
+     * @param method 发起异步调用的方法，每次重试重新调用
+     * @param scheduler 用于调度重试的定时执行器，重试在其线程上发起调用，不应使用网络IO线程
+     * @param <T> 返回值类型
+     * @return 异步执行结果，重试耗尽后以RetryExhaustedException失败
+     */
+    <T> CompletableFuture<T> executeAsync(Supplier<CompletableFuture<T>> method, ScheduledExecutorService scheduler);
+
     /**
      * 获取当前重试次数
+     * 只反映同步execute的重试状态；executeAsync的各次调用并发执行，重试次数由各自的调用链独立维护
      * @return 当前重试次数
      */
     int getCurrentRetryCount();
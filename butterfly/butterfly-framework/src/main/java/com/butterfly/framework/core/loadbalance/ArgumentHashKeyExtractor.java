@@ -0,0 +1,26 @@
+package com.butterfly.framework.core.loadbalance;
+
+import java.util.Arrays;
+
+/**
+ * 按参数下标提取路由键，方法未声明提取器时的默认实现
+ */
+public class ArgumentHashKeyExtractor implements HashKeyExtractor {
+    private final int index;
+
+    public ArgumentHashKeyExtractor(int index) {
+        this.index = index;
+    }
+
+    @Override
+    public String extract(Object[] arguments) {
+        if (arguments == null || index < 0 || index >= arguments.length) {
+            return null;
+        }
+        Object argument = arguments[index];
+        if (argument instanceof Object[]) {
+            return Arrays.deepToString((Object[]) argument);
+        }
+        return String.valueOf(argument);
+    }
+}
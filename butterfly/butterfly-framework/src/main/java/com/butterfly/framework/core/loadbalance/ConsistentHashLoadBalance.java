@@ -0,0 +1,213 @@
+package com.butterfly.framework.core.loadbalance;
+
+import com.butterfly.framework.annotation.LoadBalanceStrategy;
+import com.butterfly.framework.core.config.LoadBalanceProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiFunction;
+
+/**
+ * 一致性哈希负载均衡实现(Ketama)
+ * 每个实例按MD5生成若干虚拟节点分布在32位哈希环上，调用按路由键(默认为第一个参数，可通过@RpcMethod声明)
+ * 的MD5定位到环上顺时针第一个虚拟节点，相同路由键始终落在同一实例，提高实例本地缓存命中率。
+ * 环以有序long数组保存，查找为一次二分查找；只在地址列表出现环上没有的实例时重建。
+ * 传入的列表是环上实例的子集时(实例下线、异常实例摘除)或存在对冲排除的实例时沿环跳过这些节点，
+ * 由于每个实例的虚拟节点位置只与该实例自身有关，结果与按子集重建环一致，其余路由键不受影响。
+ * 没有路由键的调用随机选择实例
+ */
+@LoadBalanceStrategy("consistentHash")
+public class ConsistentHashLoadBalance implements LoadBalance {
+    private static final Logger logger = LoggerFactory.getLogger(ConsistentHashLoadBalance.class);
+    private static final ThreadLocal<MessageDigest> MD5 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 algorithm not available", e);
+        }
+    });
+
+    private final Map<String, HashRing> rings = new ConcurrentHashMap<>();
+    private volatile int virtualNodes = 160;
+
+    @Override
+    public void init(LoadBalanceProperties properties,
+                     BiFunction<String, InetSocketAddress, Map<String, String>> metadataLookup) {
+        if (properties != null && properties.getStrategy() != null) {
+            this.virtualNodes = Math.max(4, properties.getStrategy().getConsistentHashVirtualNodes());
+        }
+    }
+
+    @Override
+    public InetSocketAddress select(List<InetSocketAddress> addresses, String serviceName) {
+        return select(addresses, serviceName, null);
+    }
+
+    @Override
+    public InetSocketAddress select(List<InetSocketAddress> addresses, String serviceName, Invocation invocation) {
+        if (addresses == null || addresses.isEmpty()) {
+            logger.error("服务地址列表为空，无法选择服务实例: {}", serviceName);
+            return null;
+        }
+        String key = invocation != null ? invocation.getHashKey() : null;
+        if (key == null) {
+            return addresses.get(ThreadLocalRandom.current().nextInt(addresses.size()));
+        }
+        if (addresses.size() == 1) {
+            return addresses.get(0);
+        }
+        InetSocketAddress selectedAddress = locate(addresses, serviceName, key, null);
+
+        logger.debug("一致性哈希负载均衡选择服务实例: {} -> {} (key: {})", serviceName, selectedAddress, key);
+        return selectedAddress;
+    }
+
+    /**
+     * 沿环跳过排除的实例，取顺时针方向的下一个实例，相同路由键的重发总是落在同一个备选实例
+     */
+    @Override
+    public InetSocketAddress select(List<InetSocketAddress> addresses, String serviceName, Invocation invocation,
+                                    Set<InetSocketAddress> excluded) {
+        String key = invocation != null ? invocation.getHashKey() : null;
+        if (key == null || excluded == null || excluded.isEmpty() || addresses == null || addresses.size() <= 1) {
+            return LoadBalance.super.select(addresses, serviceName, invocation, excluded);
+        }
+        InetSocketAddress selectedAddress = locate(addresses, serviceName, key, excluded);
+
+        logger.debug("一致性哈希负载均衡选择服务实例: {} -> {} (key: {}, 排除: {})", serviceName, selectedAddress, key, excluded);
+        return selectedAddress;
+    }
+
+    private InetSocketAddress locate(List<InetSocketAddress> addresses, String serviceName, String key,
+                                     Set<InetSocketAddress> excluded) {
+        HashRing ring = rings.get(serviceName);
+        boolean exact = ring != null && ring.matches(addresses);
+        if (!exact && (ring == null || !ring.covers(addresses))) {
+            ring = new HashRing(addresses, virtualNodes);
+            rings.put(serviceName, ring);
+            exact = true;
+            logger.debug("重建一致性哈希环: {} -> 实例数: {}，虚拟节点数: {}", serviceName, addresses.size(), ring.points.length);
+        }
+        return ring.locate(hash(digest(key), 0), exact ? null : addresses, excluded);
+    }
+
+    static byte[] digest(String value) {
+        MessageDigest md5 = MD5.get();
+        md5.reset();
+        return md5.digest(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 取MD5摘要中第index组4字节作为32位无符号哈希值(Ketama算法)
+     */
+    static long hash(byte[] digest, int index) {
+        return ((long) (digest[3 + index * 4] & 0xFF) << 24)
+                | ((long) (digest[2 + index * 4] & 0xFF) << 16)
+                | ((long) (digest[1 + index * 4] & 0xFF) << 8)
+                | (digest[index * 4] & 0xFF);
+    }
+
+    /**
+     * 某个地址列表版本对应的哈希环
+     */
+    static class HashRing {
+        // 构建环时传入的列表引用，服务发现返回的快照在地址变更前保持同一引用
+        private final List<InetSocketAddress> source;
+        private final List<InetSocketAddress> snapshot;
+        private final Set<InetSocketAddress> members;
+        // 升序排列的虚拟节点哈希值及其对应的实例
+        final long[] points;
+        final InetSocketAddress[] nodes;
+
+        HashRing(List<InetSocketAddress> addresses, int virtualNodes) {
+            this.source = addresses;
+            this.snapshot = new ArrayList<>(addresses);
+            this.members = new HashSet<>(addresses);
+            int groups = (virtualNodes + 3) / 4;
+            // 高32位为哈希值、低32位为实例下标，排序后两者一起有序；
+            // 哈希值为32位无符号数，左移后最高位可能为1，翻转符号位使有符号排序等价于无符号排序
+            long[] packed = new long[snapshot.size() * groups * 4];
+            int count = 0;
+            for (int i = 0; i < snapshot.size(); i++) {
+                InetSocketAddress address = snapshot.get(i);
+                String prefix = address.getHostString() + ":" + address.getPort() + "#";
+                for (int group = 0; group < groups; group++) {
+                    byte[] digest = digest(prefix + group);
+                    for (int h = 0; h < 4; h++) {
+                        packed[count++] = ((hash(digest, h) << 32) ^ Long.MIN_VALUE) | i;
+                    }
+                }
+            }
+            Arrays.sort(packed);
+            this.points = new long[packed.length];
+            this.nodes = new InetSocketAddress[packed.length];
+            for (int i = 0; i < packed.length; i++) {
+                points[i] = (packed[i] ^ Long.MIN_VALUE) >>> 32;
+                nodes[i] = snapshot.get((int) (packed[i] & 0xFFFFFFFFL));
+            }
+        }
+
+        boolean matches(List<InetSocketAddress> addresses) {
+            if (addresses == source && addresses.size() == snapshot.size()) {
+                return true;
+            }
+            return snapshot.equals(addresses);
+        }
+
+        /**
+         * 传入的列表是否为环上实例的子集，且子集不至于过小(否则沿环跳过的节点过多，重建更划算)
+         */
+        boolean covers(List<InetSocketAddress> addresses) {
+            if (addresses.size() * 2 < members.size()) {
+                return false;
+            }
+            for (int i = 0; i < addresses.size(); i++) {
+                if (!members.contains(addresses.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * 查找哈希值顺时针方向第一个可用的虚拟节点
+         * @param available 可用实例，为null时环上所有实例均可用
+         */
+        InetSocketAddress locate(long hash, List<InetSocketAddress> available) {
+            InetSocketAddress node = locate(hash, available, null);
+            return node != null ? node : available.get(0);
+        }
+
+        /**
+         * 查找哈希值顺时针方向第一个可用且未被排除的虚拟节点
+         * @param available 可用实例，为null时环上所有实例均可用
+         * @param excluded 排除的实例，可以为null
+         * @return 选中的实例，没有符合条件的实例时返回null
+         */
+        InetSocketAddress locate(long hash, List<InetSocketAddress> available, Set<InetSocketAddress> excluded) {
+            int index = Arrays.binarySearch(points, hash);
+            if (index < 0) {
+                index = -index - 1;
+            }
+            for (int step = 0; step < nodes.length; step++) {
+                InetSocketAddress node = nodes[(index + step) % nodes.length];
+                if ((available == null || available.contains(node)) && (excluded == null || !excluded.contains(node))) {
+                    return node;
+                }
+            }
+            return null;
+        }
+    }
+}
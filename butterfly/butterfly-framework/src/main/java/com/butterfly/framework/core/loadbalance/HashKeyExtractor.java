@@ -0,0 +1,14 @@
+package com.butterfly.framework.core.loadbalance;
+
+/**
+ * 一致性哈希键提取器
+ * 通过@RpcMethod.hashKeyExtractor按方法声明，从调用参数中提取路由键；实现类需提供无参构造函数且线程安全
+ */
+public interface HashKeyExtractor {
+    /**
+     * 提取路由键
+     * @param arguments 调用参数，可能为null
+     * @return 路由键，返回null时不按哈希路由
+     */
+    String extract(Object[] arguments);
+}
@@ -0,0 +1,140 @@
+package com.butterfly.framework.core.loadbalance;
+
+import com.butterfly.framework.core.config.LoadBalanceProperties;
+import com.butterfly.framework.core.registry.ServiceRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiFunction;
+
+/**
+ * 实例权重解析
+ * 优先取客户端配置的覆盖值，其次取注册元数据中的weight，缺省为默认权重；负数按0处理。
+ * 同时按注册元数据中的startTime计算新实例的预热比例，时间差按客户端时钟计算，时钟偏差只会轻微拉长或缩短预热
+ */
+class InstanceWeights {
+    private static final Logger logger = LoggerFactory.getLogger(InstanceWeights.class);
+    // 未配置权重时的默认权重，与服务端默认权重保持一致
+    static final int DEFAULT_WEIGHT = 100;
+
+    private final LoadBalanceProperties properties;
+    private final Map<String, Integer> overrides;
+    private final BiFunction<String, InetSocketAddress, Map<String, String>> metadataLookup;
+
+    InstanceWeights(LoadBalanceProperties properties,
+                    BiFunction<String, InetSocketAddress, Map<String, String>> metadataLookup) {
+        this.properties = properties;
+        this.overrides = properties != null && properties.getStrategy() != null
+                ? parseOverrides(properties.getStrategy().getWeightedRandomWeights()) : Collections.emptyMap();
+        this.metadataLookup = metadataLookup;
+    }
+
+    /**
+     * 解析实例权重
+     * @param serviceName 服务名称
+     * @param address 实例地址
+     * @return 非负权重
+     */
+    int resolve(String serviceName, InetSocketAddress address) {
+        Integer override = overrides.get(address.getHostString() + ":" + address.getPort());
+        if (override != null) {
+            return override;
+        }
+        Map<String, String> metadata = metadataLookup != null ? metadataLookup.apply(serviceName, address) : null;
+        String weight = metadata != null ? metadata.get(ServiceRegistry.METADATA_WEIGHT) : null;
+        if (weight == null || weight.isEmpty()) {
+            return DEFAULT_WEIGHT;
+        }
+        try {
+            return Math.max(0, Integer.parseInt(weight.trim()));
+        } catch (NumberFormatException e) {
+            logger.warn("实例权重格式错误，使用默认权重: {} -> {}, weight={}", serviceName, address, weight);
+            return DEFAULT_WEIGHT;
+        }
+    }
+
+    /**
+     * 计算实例的预热比例
+     * @param serviceName 服务名称
+     * @param address 实例地址
+     * @param nowMillis 当前时间
+     * @return (0, 1]，未发布注册时间、未启用预热或已过预热窗口时返回1
+     */
+    double warmupRatio(String serviceName, InetSocketAddress address, long nowMillis) {
+        if (properties == null) {
+            return 1;
+        }
+        LoadBalanceProperties.WarmupProperties warmup = properties.getWarmup(serviceName);
+        if (warmup == null || warmup.getWindowMillis() <= 0) {
+            return 1;
+        }
+        Map<String, String> metadata = metadataLookup != null ? metadataLookup.apply(serviceName, address) : null;
+        String startTime = metadata != null ? metadata.get(ServiceRegistry.METADATA_START_TIME) : null;
+        if (startTime == null || startTime.isEmpty()) {
+            return 1;
+        }
+        long elapsed;
+        try {
+            elapsed = Math.max(0, nowMillis - Long.parseLong(startTime.trim()));
+        } catch (NumberFormatException e) {
+            return 1;
+        }
+        if (elapsed >= warmup.getWindowMillis()) {
+            return 1;
+        }
+        double progress = (double) elapsed / warmup.getWindowMillis();
+        if ("quadratic".equalsIgnoreCase(warmup.getCurve())) {
+            progress = progress * progress;
+        }
+        double minRatio = Math.min(1, Math.max(0.01, warmup.getMinRatio()));
+        return minRatio + (1 - minRatio) * progress;
+    }
+
+    /**
+     * 按预热比例随机决定是否接受选中的实例，供不使用权重表的策略在选择后过滤预热中的实例
+     * @return 实例已完成预热时总是返回true
+     */
+    boolean admit(String serviceName, InetSocketAddress address) {
+        double ratio = warmupRatio(serviceName, address, System.currentTimeMillis());
+        return ratio >= 1 || ThreadLocalRandom.current().nextDouble() < ratio;
+    }
+
+    /**
+     * 按预热比例折算权重，非零权重折算后至少为1
+     */
+    static int applyWarmup(int weight, double ratio) {
+        if (weight <= 0 || ratio >= 1) {
+            return weight;
+        }
+        return Math.max(1, (int) (weight * ratio));
+    }
+
+    /**
+     * 解析客户端权重覆盖配置，格式: ip:port=weight，多个以逗号分隔
+     */
+    private static Map<String, Integer> parseOverrides(String config) {
+        if (config == null || config.trim().isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, Integer> overrides = new HashMap<>();
+        for (String entry : config.split(",")) {
+            int separator = entry.lastIndexOf('=');
+            if (separator <= 0) {
+                logger.warn("忽略格式错误的权重配置: {}", entry);
+                continue;
+            }
+            try {
+                overrides.put(entry.substring(0, separator).trim(),
+                        Math.max(0, Integer.parseInt(entry.substring(separator + 1).trim())));
+            } catch (NumberFormatException e) {
+                logger.warn("忽略格式错误的权重配置: {}", entry);
+            }
+        }
+        return Collections.unmodifiableMap(overrides);
+    }
+}
@@ -0,0 +1,37 @@
+package com.butterfly.framework.core.loadbalance;
+
+/**
+ * 一次调用的路由信息
+ * 由代理按方法元数据创建，传给负载均衡策略；按参数路由的策略(如一致性哈希)从中提取路由键
+ */
+public class Invocation {
+    /** 方法名称 */
+    private final String methodName;
+    /** 调用参数 */
+    private final Object[] arguments;
+    /** 服务指定的负载均衡策略，为空时使用默认策略 */
+    private final String loadBalance;
+    /** 路由键提取器，为null时没有路由键 */
+    private final HashKeyExtractor hashKeyExtractor;
+
+    public Invocation(String methodName, Object[] arguments, String loadBalance, HashKeyExtractor hashKeyExtractor) {
+        this.methodName = methodName;
+        this.arguments = arguments;
+        this.loadBalance = loadBalance;
+        this.hashKeyExtractor = hashKeyExtractor;
+    }
+
+    /**
+     * 提取路由键
+     * @return 路由键，没有提取器或提取结果为null时返回null
+     */
+    public String getHashKey() {
+        return hashKeyExtractor != null ? hashKeyExtractor.extract(arguments) : null;
+    }
+
+    // Getters
+    public String getMethodName() { return methodName; }
+    public Object[] getArguments() { return arguments; }
+    public String getLoadBalance() { return loadBalance; }
+    public HashKeyExtractor getHashKeyExtractor() { return hashKeyExtractor; }
+}
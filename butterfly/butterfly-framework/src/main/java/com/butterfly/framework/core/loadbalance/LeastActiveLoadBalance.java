@@ -0,0 +1,151 @@
+package com.butterfly.framework.core.loadbalance;
+
+import com.butterfly.framework.annotation.LoadBalanceStrategy;
+import com.butterfly.framework.core.config.LoadBalanceProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiFunction;
+
+/**
+ * 最少活跃调用负载均衡实现
+ * 从RpcStatus读取每个实例的在途调用数，在途数不超过 最小值 + leastActiveThreshold 的实例视为同样空闲，
+ * 在其中按实例权重随机选择。实例因GC停顿或依赖变慢而积压请求时在途数立即上升，下一次选择即可避开，
+ * 不必等待健康检查。权重为0的实例不参与选择(全部为0时按等权处理)；预热中的实例按预热比例折算权重
+ */
+@LoadBalanceStrategy("leastActive")
+public class LeastActiveLoadBalance implements LoadBalance {
+    private static final Logger logger = LoggerFactory.getLogger(LeastActiveLoadBalance.class);
+    // 有实例预热时重新解析权重的间隔
+    private static final long WARMUP_REFRESH_MILLIS = 1000;
+
+    private final Map<String, WeightSnapshot> weightSnapshots = new ConcurrentHashMap<>();
+    private volatile InstanceWeights instanceWeights = new InstanceWeights(null, null);
+    private volatile int threshold;
+
+    @Override
+    public void init(LoadBalanceProperties properties,
+                     BiFunction<String, InetSocketAddress, Map<String, String>> metadataLookup) {
+        this.instanceWeights = new InstanceWeights(properties, metadataLookup);
+        if (properties != null && properties.getStrategy() != null) {
+            this.threshold = Math.max(0, properties.getStrategy().getLeastActiveThreshold());
+        }
+    }
+
+    @Override
+    public InetSocketAddress select(List<InetSocketAddress> addresses, String serviceName) {
+        if (addresses == null || addresses.isEmpty()) {
+            logger.error("服务地址列表为空，无法选择服务实例: {}", serviceName);
+            return null;
+        }
+        int size = addresses.size();
+        if (size == 1) {
+            return addresses.get(0);
+        }
+
+        int[] weights = getWeights(serviceName, addresses);
+        long[] actives = new long[size];
+        long leastActive = Long.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            if (weights[i] > 0) {
+                actives[i] = RpcStatus.getActive(serviceName, addresses.get(i));
+                leastActive = Math.min(leastActive, actives[i]);
+            }
+        }
+
+        // 在同样空闲的实例中按权重随机
+        long limit = leastActive + threshold;
+        int totalWeight = 0;
+        for (int i = 0; i < size; i++) {
+            if (weights[i] > 0 && actives[i] <= limit) {
+                totalWeight += weights[i];
+            }
+        }
+        int offset = ThreadLocalRandom.current().nextInt(totalWeight);
+        int selected = 0;
+        for (int i = 0; i < size; i++) {
+            if (weights[i] > 0 && actives[i] <= limit) {
+                offset -= weights[i];
+                if (offset < 0) {
+                    selected = i;
+                    break;
+                }
+            }
+        }
+        InetSocketAddress selectedAddress = addresses.get(selected);
+
+        logger.debug("最少活跃负载均衡选择服务实例: {} -> {} (在途: {}，最小在途: {})",
+                serviceName, selectedAddress, actives[selected], leastActive);
+        return selectedAddress;
+    }
+
+    /**
+     * 获取地址列表对应的权重，地址列表不变时复用上次解析的结果
+     */
+    private int[] getWeights(String serviceName, List<InetSocketAddress> addresses) {
+        WeightSnapshot snapshot = weightSnapshots.get(serviceName);
+        if (snapshot != null && snapshot.matches(addresses)) {
+            return snapshot.weights;
+        }
+        List<InetSocketAddress> copy = new ArrayList<>(addresses);
+        InstanceWeights resolver = this.instanceWeights;
+        long now = System.currentTimeMillis();
+        boolean warming = false;
+        int[] weights = new int[copy.size()];
+        int total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            // 限制单个权重上限，避免权重求和溢出
+            weights[i] = Math.min(resolver.resolve(serviceName, copy.get(i)), 1 << 20);
+            double ratio = resolver.warmupRatio(serviceName, copy.get(i), now);
+            if (ratio < 1 && weights[i] > 0) {
+                warming = true;
+                weights[i] = InstanceWeights.applyWarmup(weights[i], ratio);
+            }
+            total += weights[i];
+        }
+        if (total == 0) {
+            for (int i = 0; i < weights.length; i++) {
+                weights[i] = 1;
+            }
+        }
+        weightSnapshots.put(serviceName, new WeightSnapshot(addresses, copy, weights,
+                warming ? now + WARMUP_REFRESH_MILLIS : Long.MAX_VALUE));
+        return weights;
+    }
+
+    /**
+     * 某个地址列表版本对应的实例权重
+     */
+    private static class WeightSnapshot {
+        // 解析权重时传入的列表引用，服务发现返回的快照在地址变更前保持同一引用
+        private final List<InetSocketAddress> source;
+        private final List<InetSocketAddress> snapshot;
+        private final int[] weights;
+        // 有实例预热时权重的过期时间，之后需要按新的预热比例重新解析
+        private final long refreshAtMillis;
+
+        WeightSnapshot(List<InetSocketAddress> source, List<InetSocketAddress> snapshot, int[] weights,
+                       long refreshAtMillis) {
+            this.source = source;
+            this.snapshot = snapshot;
+            this.weights = weights;
+            this.refreshAtMillis = refreshAtMillis;
+        }
+
+        boolean matches(List<InetSocketAddress> addresses) {
+            if (refreshAtMillis != Long.MAX_VALUE && System.currentTimeMillis() >= refreshAtMillis) {
+                return false;
+            }
+            if (addresses == source && addresses.size() == snapshot.size()) {
+                return true;
+            }
+            return snapshot.equals(addresses);
+        }
+    }
+}
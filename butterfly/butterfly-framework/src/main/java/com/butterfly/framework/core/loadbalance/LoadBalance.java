@@ -1,13 +1,30 @@
 package com.butterfly.framework.core.loadbalance;
 
+import com.butterfly.framework.core.config.LoadBalanceProperties;
+
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 企业级负载均衡接口
  * 定义服务实例选择的标准契约，支持多种负载均衡策略
  */
 public interface LoadBalance {
+    /**
+     * 初始化负载均衡器，由LoadBalanceFactory在创建实例后调用一次
+     * @param properties 负载均衡配置
+     * @param metadataLookup 按 服务名称、实例地址 查询实例注册元数据，实例不存在时返回空Map
+     */
+    default void init(LoadBalanceProperties properties,
+                      BiFunction<String, InetSocketAddress, Map<String, String>> metadataLookup) {
+        // 默认实现为空，需要配置或实例元数据的策略可选择性实现
+    }
+
     /**
      * 从服务地址列表中选择一个实例
      * @param addresses 服务地址列表
@@ -16,6 +33,66 @@ public interface LoadBalance {
      */
     InetSocketAddress select(List<InetSocketAddress> addresses, String serviceName);
 
+    /**
+     * 按调用信息从服务地址列表中选择一个实例
+     * 默认忽略调用信息，按参数路由的策略(如一致性哈希)需覆盖该方法
+     * @param addresses 服务地址列表
+     * @param serviceName 服务名称
+     * @param invocation 调用信息，可能为null
+     * @return 选中的服务地址
+     */
+    default InetSocketAddress select(List<InetSocketAddress> addresses, String serviceName, Invocation invocation) {
+        return select(addresses, serviceName);
+    }
+
+    /**
+     * 按调用信息选择一个不在排除集合中的实例，用于对冲请求等需要换一个实例重发的场景
+     * 默认直接在传入的列表上选择，命中排除实例时重选，使按列表缓存的选择状态(如加权轮询序列)不因排除而重建；
+     * 重选次数达到列表长度仍未选出时才按过滤后的列表选择。总是选中同一实例的确定性策略应覆盖该方法
+     * @param addresses 服务地址列表
+     * @param serviceName 服务名称
+     * @param invocation 调用信息，可能为null
+     * @param excluded 需要排除的服务地址，可能为null
+     * @return 选中的服务地址，列表中没有排除集合之外的实例时返回null
+     */
+    default InetSocketAddress select(List<InetSocketAddress> addresses, String serviceName, Invocation invocation,
+                                     Set<InetSocketAddress> excluded) {
+        if (excluded == null || excluded.isEmpty()) {
+            return select(addresses, serviceName, invocation);
+        }
+        int available = 0;
+        for (int i = 0; i < addresses.size(); i++) {
+            if (!excluded.contains(addresses.get(i))) {
+                available++;
+            }
+        }
+        if (available == 0) {
+            return null;
+        }
+        if (available == addresses.size()) {
+            return select(addresses, serviceName, invocation);
+        }
+        for (int attempt = 0; attempt < addresses.size(); attempt++) {
+            InetSocketAddress selected = select(addresses, serviceName, invocation);
+            if (selected != null && !excluded.contains(selected)) {
+                return selected;
+            }
+        }
+        List<InetSocketAddress> remaining = new ArrayList<>(addresses);
+        remaining.removeAll(excluded);
+        return select(remaining, serviceName, invocation);
+    }
+
+    /**
+     * 通知负载均衡器即将向选中的实例发出调用
+     * 每次notifyStart之后都会有且仅有一次对应的notifyResult，用于统计实例的在途请求数
+     * @param address 选中的服务地址
+     * @param serviceName 服务名称
+     */
+    default void notifyStart(InetSocketAddress address, String serviceName) {
+        // 默认实现为空，策略可选择性实现
+    }
+
     /**
      * 通知负载均衡器服务调用结果
      * 用于动态调整策略（如：失败重试、权重调整）
@@ -27,4 +104,18 @@ public interface LoadBalance {
     default void notifyResult(InetSocketAddress address, String serviceName, boolean success, long responseTime) {
         // 默认实现为空，策略可选择性实现
     }
-}
\ No newline at end of file
+
+    /**
+     * 通知负载均衡器服务调用结果(指定时间单位)
+     * 框架按纳秒精度上报，默认转换为毫秒后调用{@link #notifyResult(InetSocketAddress, String, boolean, long)}，
+     * 需要亚毫秒精度的策略可覆盖该方法
+     * @param address 被调用的服务地址
+     * @param serviceName 服务名称
+     * @param success 调用是否成功
+     * @param responseTime 响应时间
+     * @param unit 响应时间单位
+     */
+    default void notifyResult(InetSocketAddress address, String serviceName, boolean success, long responseTime, TimeUnit unit) {
+        notifyResult(address, serviceName, success, unit.toMillis(responseTime));
+    }
+}
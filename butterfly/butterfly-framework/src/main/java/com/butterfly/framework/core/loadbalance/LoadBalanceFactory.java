@@ -6,10 +6,13 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 import com.butterfly.framework.core.config.LoadBalanceProperties;
 import org.springframework.beans.factory.annotation.Autowired;
+import java.net.InetSocketAddress;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.ServiceLoader;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
 
 /**
  * 企业级负载均衡工厂
@@ -25,6 +28,8 @@ public class LoadBalanceFactory {
     // 负载均衡策略映射
     private final LoadBalanceProperties properties;
     private final Map<String, Class<? extends LoadBalance>> loadBalanceMap;
+    // 实例元数据查询，由服务发现组件注入
+    private volatile BiFunction<String, InetSocketAddress, Map<String, String>> metadataLookup;
 
     @Autowired
     public LoadBalanceFactory(LoadBalanceProperties properties) {
@@ -32,8 +37,15 @@ public class LoadBalanceFactory {
         this.properties = properties;
         this.defaultLoadBalanceStrategy = properties.getDefaultStrategy();
         loadBalanceMap = new HashMap<>();
-        loadBalanceMap.put(defaultLoadBalanceStrategy, RoundRobinLoadBalance.class);
-        
+        registerBuiltIn(RoundRobinLoadBalance.class);
+        registerBuiltIn(PeakEwmaLoadBalance.class);
+        registerBuiltIn(WeightedRoundRobinLoadBalance.class);
+        registerBuiltIn(LeastActiveLoadBalance.class);
+        registerBuiltIn(ConsistentHashLoadBalance.class);
+        if (!loadBalanceMap.containsKey(defaultLoadBalanceStrategy)) {
+            // 兼容以任意名称配置默认策略的旧配置，未知名称按轮询处理
+            loadBalanceMap.put(defaultLoadBalanceStrategy, RoundRobinLoadBalance.class);
+        }
 
         // 通过SPI加载自定义负载均衡策略
         loadSpiLoadBalances();
@@ -69,6 +81,7 @@ public class LoadBalanceFactory {
 
                 try {
                     loadBalance = loadBalanceClass.newInstance();
+                    loadBalance.init(properties, this::lookupMetadata);
                     loadBalanceCache.put(strategy, loadBalance);
                     logger.info("创建负载均衡实例: {}", strategy);
                 } catch (InstantiationException | IllegalAccessException e) {
@@ -81,6 +94,28 @@ public class LoadBalanceFactory {
         return loadBalance;
     }
 
+    /**
+     * 设置实例元数据查询，需要实例元数据(如权重)的策略通过它读取注册信息
+     * @param metadataLookup 按 服务名称、实例地址 查询实例注册元数据
+     */
+    public void setMetadataLookup(BiFunction<String, InetSocketAddress, Map<String, String>> metadataLookup) {
+        this.metadataLookup = metadataLookup;
+    }
+
+    private Map<String, String> lookupMetadata(String serviceName, InetSocketAddress address) {
+        BiFunction<String, InetSocketAddress, Map<String, String>> lookup = metadataLookup;
+        Map<String, String> metadata = lookup != null ? lookup.apply(serviceName, address) : null;
+        return metadata != null ? metadata : Collections.emptyMap();
+    }
+
+    /**
+     * 按@LoadBalanceStrategy注解的名称注册内置负载均衡策略
+     */
+    private void registerBuiltIn(Class<? extends LoadBalance> loadBalanceClass) {
+        LoadBalanceStrategy annotation = loadBalanceClass.getAnnotation(LoadBalanceStrategy.class);
+        loadBalanceMap.put(annotation.value(), loadBalanceClass);
+    }
+
     /**
      * 通过SPI加载自定义负载均衡策略
      */
@@ -92,6 +127,7 @@ public class LoadBalanceFactory {
                 if (annotation != null && !annotation.value().isEmpty()) {
                     String strategyName = annotation.value();
                     loadBalanceMap.put(strategyName, loadBalance.getClass());
+                    loadBalance.init(properties, this::lookupMetadata);
                     loadBalanceCache.put(strategyName, loadBalance);
                     logger.info("通过SPI加载自定义负载均衡策略: {}", strategyName);
                 }
@@ -0,0 +1,161 @@
+package com.butterfly.framework.core.loadbalance;
+
+import com.butterfly.framework.annotation.LoadBalanceStrategy;
+import com.butterfly.framework.core.config.LoadBalanceProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+
+/**
+ * Peak-EWMA二选一负载均衡实现
+ * 随机抽取两个实例，选择 峰值EWMA延迟 x (在途请求数 + 1) 较小的一个：
+ * 延迟高于当前均值时立即取峰值，低于均值时按时间指数衰减，因此慢实例会被迅速避开，恢复后逐步重新获得流量。
+ * 依赖框架通过notifyStart/notifyResult上报每次调用，统计按 服务 x 实例 维护且无锁更新。
+ * 预热中的实例胜出时按预热比例概率接受，未接受时改选另一个实例
+ */
+@LoadBalanceStrategy("peakEwma")
+public class PeakEwmaLoadBalance implements LoadBalance {
+    private static final Logger logger = LoggerFactory.getLogger(PeakEwmaLoadBalance.class);
+    // 延迟衰减的时间常数
+    private static final double DECAY_NANOS = TimeUnit.SECONDS.toNanos(10);
+    // 尚无延迟样本但已有在途请求的实例的代价，保证新实例在首个响应返回前最多只承担一个请求
+    private static final double PENALTY = Double.MAX_VALUE / 2;
+
+    private final Map<String, Map<InetSocketAddress, EndpointStats>> stats = new ConcurrentHashMap<>();
+    private volatile InstanceWeights instanceWeights = new InstanceWeights(null, null);
+
+    @Override
+    public void init(LoadBalanceProperties properties,
+                     BiFunction<String, InetSocketAddress, Map<String, String>> metadataLookup) {
+        this.instanceWeights = new InstanceWeights(properties, metadataLookup);
+    }
+
+    @Override
+    public InetSocketAddress select(List<InetSocketAddress> addresses, String serviceName) {
+        if (addresses == null || addresses.isEmpty()) {
+            logger.error("服务地址列表为空，无法选择服务实例: {}", serviceName);
+            return null;
+        }
+        int size = addresses.size();
+        if (size == 1) {
+            return addresses.get(0);
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+        InetSocketAddress a = addresses.get(first);
+        InetSocketAddress b = addresses.get(second);
+        Map<InetSocketAddress, EndpointStats> serviceStats = stats.get(serviceName);
+        if (serviceStats == null) {
+            return instanceWeights.admit(serviceName, a) ? a : b;
+        }
+        long now = System.nanoTime();
+        double costA = cost(serviceStats.get(a), now);
+        double costB = cost(serviceStats.get(b), now);
+        InetSocketAddress selected = costB < costA ? b : a;
+        if (!instanceWeights.admit(serviceName, selected)) {
+            selected = selected == a ? b : a;
+        }
+
+        logger.debug("Peak-EWMA负载均衡选择服务实例: {} -> {} (代价: {} / {})", serviceName, selected, costA, costB);
+        return selected;
+    }
+
+    @Override
+    public void notifyStart(InetSocketAddress address, String serviceName) {
+        getStats(serviceName, address).inflight.incrementAndGet();
+    }
+
+    @Override
+    public void notifyResult(InetSocketAddress address, String serviceName, boolean success, long responseTime) {
+        notifyResult(address, serviceName, success, responseTime, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void notifyResult(InetSocketAddress address, String serviceName, boolean success, long responseTime, TimeUnit unit) {
+        EndpointStats endpoint = getStats(serviceName, address);
+        endpoint.inflight.decrementAndGet();
+        endpoint.observe(unit.toNanos(Math.max(0, responseTime)), System.nanoTime());
+    }
+
+    private static double cost(EndpointStats endpoint, long now) {
+        if (endpoint == null) {
+            return 0;
+        }
+        int inflight = Math.max(0, endpoint.inflight.get());
+        double latency = endpoint.decayedLatency(now);
+        if (latency == 0 && inflight > 0) {
+            return PENALTY;
+        }
+        return latency * (inflight + 1);
+    }
+
+    private EndpointStats getStats(String serviceName, InetSocketAddress address) {
+        Map<InetSocketAddress, EndpointStats> serviceStats = stats.get(serviceName);
+        if (serviceStats == null) {
+            serviceStats = stats.computeIfAbsent(serviceName, key -> new ConcurrentHashMap<>());
+        }
+        EndpointStats endpoint = serviceStats.get(address);
+        if (endpoint == null) {
+            endpoint = serviceStats.computeIfAbsent(address, key -> new EndpointStats());
+        }
+        return endpoint;
+    }
+
+    /**
+     * 单个实例的统计
+     * 延迟均值和更新时间打包为不可变对象，通过CAS整体替换
+     */
+    private static class EndpointStats {
+        private final AtomicInteger inflight = new AtomicInteger();
+        private final AtomicReference<Ewma> ewma = new AtomicReference<>(new Ewma(0, System.nanoTime()));
+
+        void observe(long latencyNanos, long now) {
+            while (true) {
+                Ewma current = ewma.get();
+                double value;
+                if (latencyNanos > current.value) {
+                    // 峰值：延迟升高时立即生效
+                    value = latencyNanos;
+                } else {
+                    double weight = Math.exp(-(now - current.stampNanos) / DECAY_NANOS);
+                    value = current.value * weight + latencyNanos * (1 - weight);
+                }
+                if (ewma.compareAndSet(current, new Ewma(value, now))) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * 按距上次样本的时间衰减后的延迟，长时间未被选中的慢实例会逐步恢复竞争力
+         */
+        double decayedLatency(long now) {
+            Ewma current = ewma.get();
+            return current.value * Math.exp(-Math.max(0, now - current.stampNanos) / DECAY_NANOS);
+        }
+    }
+
+    private static final class Ewma {
+        private final double value;
+        private final long stampNanos;
+
+        Ewma(double value, long stampNanos) {
+            this.value = value;
+            this.stampNanos = stampNanos;
+        }
+    }
+}
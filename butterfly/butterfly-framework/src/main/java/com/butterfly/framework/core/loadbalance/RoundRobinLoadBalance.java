@@ -1,19 +1,31 @@
 package com.butterfly.framework.core.loadbalance;
 
+import com.butterfly.framework.annotation.LoadBalanceStrategy;
+import com.butterfly.framework.core.config.LoadBalanceProperties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.net.InetSocketAddress;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
 
 /**
  * 企业级轮询负载均衡实现
- * 按顺序循环选择服务实例，确保请求均匀分配
+ * 按顺序循环选择服务实例，确保请求均匀分配；预热中的实例按预热比例概率接受，未接受时顺延到下一个实例
  */
+@LoadBalanceStrategy("roundRobin")
 public class RoundRobinLoadBalance implements LoadBalance {
     private static final Logger logger = LoggerFactory.getLogger(RoundRobinLoadBalance.class);
     // 服务选择计数器，使用原子类保证线程安全
     private final AtomicInteger counter = new AtomicInteger(0);
+    private volatile InstanceWeights instanceWeights = new InstanceWeights(null, null);
+
+    @Override
+    public void init(LoadBalanceProperties properties,
+                     BiFunction<String, InetSocketAddress, Map<String, String>> metadataLookup) {
+        this.instanceWeights = new InstanceWeights(properties, metadataLookup);
+    }
 
     @Override
     public InetSocketAddress select(List<InetSocketAddress> addresses, String serviceName) {
@@ -25,6 +37,10 @@ public class RoundRobinLoadBalance implements LoadBalance {
         int addressCount = addresses.size();
         // 防止计数器溢出，取模确保在有效范围内
         int index = Math.abs(counter.getAndIncrement()) % addressCount;
+        InstanceWeights weights = instanceWeights;
+        for (int attempt = 1; attempt < addressCount && !weights.admit(serviceName, addresses.get(index)); attempt++) {
+            index = (index + 1) % addressCount;
+        }
         InetSocketAddress selectedAddress = addresses.get(index);
 
         logger.debug("轮询负载均衡选择服务实例: {}[{}] -> {}",
@@ -0,0 +1,68 @@
+package com.butterfly.framework.core.loadbalance;
+
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 调用状态统计
+ * 按 服务 x 实例 记录在途调用数，由RpcClient在每次调用发出前后增减，与所用的负载均衡策略无关。
+ * 计数器使用LongAdder分段累加，高并发下各调用线程更新不同的槽位而不争用同一缓存行
+ */
+public final class RpcStatus {
+    private static final Map<String, Map<InetSocketAddress, RpcStatus>> SERVICE_STATUSES = new ConcurrentHashMap<>();
+
+    private final LongAdder active = new LongAdder();
+
+    private RpcStatus() {
+    }
+
+    /**
+     * 获取实例的调用状态，不存在时创建
+     * @param serviceName 服务名称
+     * @param address 实例地址
+     * @return 调用状态
+     */
+    public static RpcStatus getStatus(String serviceName, InetSocketAddress address) {
+        Map<InetSocketAddress, RpcStatus> statuses = SERVICE_STATUSES.get(serviceName);
+        if (statuses == null) {
+            statuses = SERVICE_STATUSES.computeIfAbsent(serviceName, key -> new ConcurrentHashMap<>());
+        }
+        RpcStatus status = statuses.get(address);
+        if (status == null) {
+            status = statuses.computeIfAbsent(address, key -> new RpcStatus());
+        }
+        return status;
+    }
+
+    /**
+     * 获取实例当前的在途调用数，从未调用过的实例返回0且不创建状态
+     */
+    public static long getActive(String serviceName, InetSocketAddress address) {
+        Map<InetSocketAddress, RpcStatus> statuses = SERVICE_STATUSES.get(serviceName);
+        RpcStatus status = statuses != null ? statuses.get(address) : null;
+        return status != null ? status.getActive() : 0;
+    }
+
+    /**
+     * 调用发出前调用，之后必须调用一次endCount
+     */
+    public static void beginCount(String serviceName, InetSocketAddress address) {
+        getStatus(serviceName, address).active.increment();
+    }
+
+    /**
+     * 调用结束(成功、失败、超时或取消)时调用
+     */
+    public static void endCount(String serviceName, InetSocketAddress address) {
+        getStatus(serviceName, address).active.decrement();
+    }
+
+    /**
+     * 当前在途调用数
+     */
+    public long getActive() {
+        return Math.max(0, active.sum());
+    }
+}
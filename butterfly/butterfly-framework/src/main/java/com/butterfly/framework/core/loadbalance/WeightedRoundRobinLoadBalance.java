@@ -0,0 +1,173 @@
+package com.butterfly.framework.core.loadbalance;
+
+import com.butterfly.framework.annotation.LoadBalanceStrategy;
+import com.butterfly.framework.core.config.LoadBalanceProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+/**
+ * 平滑加权轮询负载均衡实现
+ * 实例权重优先取客户端配置的覆盖值，其次取注册元数据中的weight，缺省为默认权重；权重为0的实例不分配流量(全部为0时按等权处理)。
+ * 按nginx平滑加权轮询算法为每个地址列表预先生成一个完整周期的选择序列，同一周期内高权重实例被均匀穿插而不是连续命中；
+ * 地址列表不变时选择只需一次原子自增和数组下标访问，无锁且不分配对象。
+ * 地址列表(按引用或内容)变化时重新生成序列，注册元数据中的权重变化随实例重新注册引起的列表变更生效；
+ * 有实例处于预热期时按预热比例折算其权重，并每隔WARMUP_REFRESH_MILLIS重新生成序列直至预热结束
+ */
+@LoadBalanceStrategy("weightedRoundRobin")
+public class WeightedRoundRobinLoadBalance implements LoadBalance {
+    private static final Logger logger = LoggerFactory.getLogger(WeightedRoundRobinLoadBalance.class);
+    // 选择序列的最大长度，权重总和超过该值时按比例缩小，限制每个服务的内存占用
+    private static final int MAX_SEQUENCE_LENGTH = 16384;
+    // 有实例预热时重新生成序列的间隔
+    private static final long WARMUP_REFRESH_MILLIS = 1000;
+
+    private final Map<String, WeightTable> tables = new ConcurrentHashMap<>();
+    private volatile InstanceWeights instanceWeights = new InstanceWeights(null, null);
+
+    @Override
+    public void init(LoadBalanceProperties properties,
+                     BiFunction<String, InetSocketAddress, Map<String, String>> metadataLookup) {
+        this.instanceWeights = new InstanceWeights(properties, metadataLookup);
+    }
+
+    @Override
+    public InetSocketAddress select(List<InetSocketAddress> addresses, String serviceName) {
+        if (addresses == null || addresses.isEmpty()) {
+            logger.error("服务地址列表为空，无法选择服务实例: {}", serviceName);
+            return null;
+        }
+        if (addresses.size() == 1) {
+            return addresses.get(0);
+        }
+
+        WeightTable table = tables.get(serviceName);
+        if (table == null || !table.matches(addresses)) {
+            table = buildTable(serviceName, addresses);
+            tables.put(serviceName, table);
+        }
+        InetSocketAddress[] sequence = table.sequence;
+        int index = (table.counter.getAndIncrement() & Integer.MAX_VALUE) % sequence.length;
+        InetSocketAddress selectedAddress = sequence[index];
+
+        logger.debug("平滑加权轮询负载均衡选择服务实例: {}[{}] -> {}", serviceName, index, selectedAddress);
+        return selectedAddress;
+    }
+
+    /**
+     * 按当前权重生成一个完整周期的平滑加权轮询序列
+     */
+    private WeightTable buildTable(String serviceName, List<InetSocketAddress> addresses) {
+        List<InetSocketAddress> snapshot = new ArrayList<>(addresses);
+        int size = snapshot.size();
+        InstanceWeights instanceWeights = this.instanceWeights;
+        long now = System.currentTimeMillis();
+        boolean warming = false;
+        int[] weights = new int[size];
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            weights[i] = instanceWeights.resolve(serviceName, snapshot.get(i));
+            double ratio = instanceWeights.warmupRatio(serviceName, snapshot.get(i), now);
+            if (ratio < 1 && weights[i] > 0) {
+                warming = true;
+                weights[i] = InstanceWeights.applyWarmup(weights[i], ratio);
+            }
+            total += weights[i];
+        }
+        if (total == 0) {
+            // 全部实例权重为0时不摘除流量，退化为等权轮询
+            for (int i = 0; i < size; i++) {
+                weights[i] = 1;
+            }
+            total = size;
+        }
+
+        // 约去公约数，缩短周期；仍超过上限时按比例缩小，保留每个非零权重至少为1
+        int divisor = 0;
+        for (int weight : weights) {
+            divisor = gcd(divisor, weight);
+        }
+        total = 0;
+        for (int i = 0; i < size; i++) {
+            weights[i] /= divisor;
+            total += weights[i];
+        }
+        if (total > MAX_SEQUENCE_LENGTH) {
+            long scaled = 0;
+            for (int i = 0; i < size; i++) {
+                if (weights[i] > 0) {
+                    weights[i] = (int) Math.max(1, weights[i] * (long) MAX_SEQUENCE_LENGTH / total);
+                }
+                scaled += weights[i];
+            }
+            total = scaled;
+        }
+
+        InetSocketAddress[] sequence = new InetSocketAddress[(int) total];
+        long[] current = new long[size];
+        for (int step = 0; step < sequence.length; step++) {
+            int best = -1;
+            for (int i = 0; i < size; i++) {
+                if (weights[i] == 0) {
+                    continue;
+                }
+                current[i] += weights[i];
+                if (best < 0 || current[i] > current[best]) {
+                    best = i;
+                }
+            }
+            current[best] -= total;
+            sequence[step] = snapshot.get(best);
+        }
+
+        logger.debug("生成平滑加权轮询序列: {} -> 实例数: {}，周期长度: {}", serviceName, size, sequence.length);
+        return new WeightTable(addresses, snapshot, sequence, warming ? now + WARMUP_REFRESH_MILLIS : Long.MAX_VALUE);
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    /**
+     * 某个地址列表版本对应的选择序列
+     */
+    private static class WeightTable {
+        // 生成序列时传入的列表引用，服务发现返回的快照在地址变更前保持同一引用
+        private final List<InetSocketAddress> source;
+        private final List<InetSocketAddress> snapshot;
+        private final InetSocketAddress[] sequence;
+        // 有实例预热时序列的过期时间，之后需要按新的预热比例重新生成
+        private final long refreshAtMillis;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        WeightTable(List<InetSocketAddress> source, List<InetSocketAddress> snapshot, InetSocketAddress[] sequence,
+                    long refreshAtMillis) {
+            this.source = source;
+            this.snapshot = snapshot;
+            this.sequence = sequence;
+            this.refreshAtMillis = refreshAtMillis;
+        }
+
+        boolean matches(List<InetSocketAddress> addresses) {
+            if (refreshAtMillis != Long.MAX_VALUE && System.currentTimeMillis() >= refreshAtMillis) {
+                return false;
+            }
+            if (addresses == source && addresses.size() == snapshot.size()) {
+                return true;
+            }
+            return snapshot.equals(addresses);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.butterfly.framework.core.registry;
 
 import java.net.InetSocketAddress;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 企业级服务健康检查接口
@@ -15,6 +16,17 @@ public interface HealthChecker {
      */
     boolean check(String serviceName, InetSocketAddress address);
 
+    /**
+     * 异步检查服务健康状态
+     * 默认在调用线程上执行同步检查，实现类应覆盖为非阻塞实现，以便注册中心并行探测大量实例
+     * @param serviceName 服务名称
+     * @param address 服务地址
+     * @return 健康状态，true表示健康
+     */
+    default CompletableFuture<Boolean> checkAsync(String serviceName, InetSocketAddress address) {
+        return CompletableFuture.completedFuture(check(serviceName, address));
+    }
+
     /**
      * 获取健康检查超时时间(毫秒)
      */
@@ -1,16 +1,23 @@
 package com.butterfly.framework.core.registry;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Component;
 import org.springframework.beans.factory.annotation.Autowired;
 import java.net.InetSocketAddress;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import javax.annotation.PreDestroy;
 import com.butterfly.framework.core.config.HealthCheckProperties;
@@ -35,11 +42,23 @@ public class InMemoryServiceRegistry implements ServiceRegistry {
     private final AtomicBoolean isRunning = new AtomicBoolean(false);
     // 服务健康状态记录: serviceName -> address -> 连续失败次数
     private final Map<String, Map<InetSocketAddress, Integer>> serviceFailureCounts = new ConcurrentHashMap<>();
+    // 每轮健康检查的耗时指标，未配置指标注册表时为null
+    private final Timer passTimer;
+
+    // 以下探测调度状态只在健康检查线程上访问
+    private final Deque<Runnable> pendingProbes = new ArrayDeque<>();
+    private int runningProbes;
+    // 已调度但尚未结束探测的实例: serviceName -> 地址集合，新一轮检查跳过这些实例
+    private final Map<String, Set<InetSocketAddress>> probingInstances = new HashMap<>();
+    private int intervalMillis;
 
     @Autowired
-    public InMemoryServiceRegistry(HealthChecker healthChecker, HealthCheckProperties healthCheckProperties) {
+    public InMemoryServiceRegistry(HealthChecker healthChecker, HealthCheckProperties healthCheckProperties,
+                                   ObjectProvider<MeterRegistry> meterRegistryProvider) {
         this.healthChecker = healthChecker;
         this.healthCheckProperties = healthCheckProperties;
+        MeterRegistry meterRegistry = meterRegistryProvider.getIfAvailable();
+        this.passTimer = meterRegistry != null ? meterRegistry.timer("rpc.registry.health.check.pass") : null;
         this.healthCheckExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
             Thread thread = new Thread(runnable, "service-health-checker");
             thread.setDaemon(true);
@@ -57,14 +76,18 @@ public class InMemoryServiceRegistry implements ServiceRegistry {
      */
     private void startHealthCheck() {
         if (isRunning.compareAndSet(false, true)) {
-            int interval = healthChecker != null ? healthChecker.getIntervalMillis() : healthCheckProperties.getIntervalMillis();
-            healthCheckExecutor.scheduleAtFixedRate(this::performHealthChecks, 0, interval, TimeUnit.MILLISECONDS);
-            logger.info("服务健康检查已启动，间隔: {}ms", interval);
+            intervalMillis = healthChecker != null ? healthChecker.getIntervalMillis() : healthCheckProperties.getIntervalMillis();
+            healthCheckExecutor.scheduleAtFixedRate(this::performHealthChecks, 0, intervalMillis, TimeUnit.MILLISECONDS);
+            logger.info("服务健康检查已启动，间隔: {}ms，最大并发探测数: {}", intervalMillis, healthCheckProperties.getMaxConcurrency());
         }
     }
 
     /**
      * 执行所有服务的健康检查
+     * 每个实例的探测在检查间隔内随机分散开始，同时进行的探测数受maxConcurrency限制；
+     * 分散窗口加上探测兜底超时(2倍超时时间)不超过检查间隔，正常情况下一轮探测在下一轮开始前结束。
+     * 探测以异步方式进行，结果回到健康检查线程处理，单个慢实例不会阻塞整轮检查；
+     * 上一轮对某个实例的探测仍未结束时本轮只跳过该实例，其余实例照常检查
      */
     private void performHealthChecks() {
         if (healthChecker == null) {
@@ -73,43 +96,119 @@ public class InMemoryServiceRegistry implements ServiceRegistry {
         }
 
         try {
-            // 遍历所有服务
-            for (String serviceName : serviceRegistry.keySet()) {
-                List<InetSocketAddress> addresses = new ArrayList<>(serviceRegistry.get(serviceName));
-                for (InetSocketAddress address : addresses) {
-                    checkServiceHealth(serviceName, address);
+            long spreadMillis = (long) (intervalMillis * Math.max(0, Math.min(1, healthCheckProperties.getSpreadRatio())));
+            spreadMillis = Math.min(spreadMillis, intervalMillis - healthChecker.getTimeoutMillis() * 2L);
+            HealthCheckPass pass = new HealthCheckPass();
+            int skipped = 0;
+            for (Map.Entry<String, List<InetSocketAddress>> entry : serviceRegistry.entrySet()) {
+                String serviceName = entry.getKey();
+                Set<InetSocketAddress> probing = probingInstances.computeIfAbsent(serviceName, k -> new HashSet<>());
+                for (InetSocketAddress address : entry.getValue()) {
+                    if (!probing.add(address)) {
+                        skipped++;
+                        continue;
+                    }
+                    pass.remainingProbes++;
+                    long delay = spreadMillis > 0 ? ThreadLocalRandom.current().nextLong(spreadMillis) : 0;
+                    healthCheckExecutor.schedule(() -> {
+                        pendingProbes.add(() -> checkServiceHealth(serviceName, address, pass));
+                        startPendingProbes();
+                    }, delay, TimeUnit.MILLISECONDS);
                 }
             }
+            if (skipped > 0) {
+                logger.warn("上一轮健康检查尚未完成的实例本轮跳过，实例数: {}", skipped);
+            }
         } catch (Exception e) {
             logger.error("执行健康检查异常", e);
         }
     }
 
+    /**
+     * 在并发上限内启动等待中的探测
+     */
+    private void startPendingProbes() {
+        int maxConcurrency = Math.max(1, healthCheckProperties.getMaxConcurrency());
+        while (runningProbes < maxConcurrency && !pendingProbes.isEmpty()) {
+            runningProbes++;
+            pendingProbes.poll().run();
+        }
+    }
+
+    /**
+     * 一次探测结束，释放并发名额；所属一轮的探测全部结束时记录该轮耗时
+     */
+    private void onProbeFinished(String serviceName, InetSocketAddress address, HealthCheckPass pass) {
+        runningProbes--;
+        Set<InetSocketAddress> probing = probingInstances.get(serviceName);
+        if (probing != null && probing.remove(address) && probing.isEmpty()) {
+            probingInstances.remove(serviceName);
+        }
+        if (--pass.remainingProbes == 0) {
+            long elapsedNanos = System.nanoTime() - pass.startNanos;
+            if (passTimer != null) {
+                passTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+            }
+            logger.debug("本轮健康检查完成，耗时: {}ms", TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        }
+        startPendingProbes();
+    }
+
     /**
      * 检查单个服务实例的健康状态
      */
-    private void checkServiceHealth(String serviceName, InetSocketAddress address) {
+    private void checkServiceHealth(String serviceName, InetSocketAddress address, HealthCheckPass pass) {
+        CompletableFuture<Boolean> probe;
         try {
-            boolean isHealthy = healthChecker.check(serviceName, address);
-            if (isHealthy) {
-                // 健康，重置失败计数
-                resetFailureCount(serviceName, address);
-            } else {
-                // 不健康，增加失败计数
-                int failureCount = incrementFailureCount(serviceName, address);
-                logger.warn("服务实例不健康: {} -> {}，连续失败次数: {}/{}",
-                        serviceName, address, failureCount, healthCheckProperties.getMaxFailureCount());
-
-                // 如果达到最大失败次数，自动注销服务
-                if (failureCount >= healthCheckProperties.getMaxFailureCount()) {
-                    unregister(serviceName, address);
-                    logger.error("服务实例连续失败次数达到阈值，已自动注销: {} -> {}",
-                            serviceName, address);
+            probe = healthChecker.checkAsync(serviceName, address);
+        } catch (Exception e) {
+            probe = new CompletableFuture<>();
+            probe.completeExceptionally(e);
+        }
+        // 兜底超时，避免检查器未按时完成导致整轮检查无法结束
+        CompletableFuture<Boolean> result = probe;
+        ScheduledFuture<?> guard = healthCheckExecutor.schedule(
+                () -> result.completeExceptionally(new TimeoutException("健康检查超时")),
+                healthChecker.getTimeoutMillis() * 2L, TimeUnit.MILLISECONDS);
+        result.whenCompleteAsync((healthy, ex) -> {
+            guard.cancel(false);
+            try {
+                if (ex != null) {
+                    logger.error("检查服务健康状态异常: {} -> {}", serviceName, address, ex);
                 }
+                onCheckResult(serviceName, address, ex == null && Boolean.TRUE.equals(healthy));
+            } finally {
+                onProbeFinished(serviceName, address, pass);
             }
-        } catch (Exception e) {
-            logger.error("检查服务健康状态异常: {} -> {}", serviceName, address, e);
-            incrementFailureCount(serviceName, address);
+        }, healthCheckExecutor);
+    }
+
+    /**
+     * 处理单个服务实例的检查结果
+     */
+    private void onCheckResult(String serviceName, InetSocketAddress address, boolean isHealthy) {
+        if (isHealthy) {
+            // 健康，重置失败计数
+            resetFailureCount(serviceName, address);
+            return;
+        }
+        List<InetSocketAddress> addresses = serviceRegistry.get(serviceName);
+        if (addresses == null || !addresses.contains(address)) {
+            // 探测期间实例已被注销
+            resetFailureCount(serviceName, address);
+            return;
+        }
+        // 不健康，增加失败计数
+        int failureCount = incrementFailureCount(serviceName, address);
+        logger.warn("服务实例不健康: {} -> {}，连续失败次数: {}/{}",
+                serviceName, address, failureCount, healthCheckProperties.getMaxFailureCount());
+
+        // 如果达到最大失败次数，自动注销服务
+        if (failureCount >= healthCheckProperties.getMaxFailureCount()) {
+            unregister(serviceName, address);
+            resetFailureCount(serviceName, address);
+            logger.error("服务实例连续失败次数达到阈值，已自动注销: {} -> {}",
+                    serviceName, address);
         }
     }
 
@@ -254,5 +353,11 @@ public class InMemoryServiceRegistry implements ServiceRegistry {
         logger.info("服务注册中心已关闭");
     }
 
-
+    /**
+     * 一轮健康检查的进度，只在健康检查线程上访问
+     */
+    private static class HealthCheckPass {
+        private final long startNanos = System.nanoTime();
+        private int remainingProbes;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,112 @@
+package com.butterfly.framework.core.registry;
+
+import com.butterfly.framework.core.config.LocalityProperties;
+import com.butterfly.framework.core.faulttolerance.OutlierDetector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * 就近路由
+ * 按注册元数据中的zone将服务实例划分为同可用区和其他可用区，优先返回同可用区中未被摘除的实例；
+ * 同可用区未被摘除的实例比例低于minLocalHealthyPercent时溢出，返回全部可用区的可用实例。
+ * 划分结果按地址列表快照缓存，未发生溢出且没有实例被摘除时返回同一个列表对象，负载均衡策略的预计算结果可以复用
+ */
+public class LocalityRouter {
+    private static final Logger logger = LoggerFactory.getLogger(LocalityRouter.class);
+
+    private final boolean enabled;
+    private final String zone;
+    private final int minLocalHealthyPercent;
+    private final OutlierDetector outlierDetector;
+    private final BiFunction<String, InetSocketAddress, Map<String, String>> metadataLookup;
+    private final Map<String, ZonePartition> partitions = new ConcurrentHashMap<>();
+
+    public LocalityRouter(LocalityProperties properties, OutlierDetector outlierDetector,
+                          BiFunction<String, InetSocketAddress, Map<String, String>> metadataLookup) {
+        this.zone = properties.getZone() != null ? properties.getZone().trim() : "";
+        this.enabled = properties.isEnabled() && !zone.isEmpty();
+        this.minLocalHealthyPercent = Math.max(0, Math.min(100, properties.getMinLocalHealthyPercent()));
+        this.outlierDetector = outlierDetector;
+        this.metadataLookup = metadataLookup;
+    }
+
+    /**
+     * 选出本次调用的候选实例
+     * @param serviceName 服务名称
+     * @param addresses 服务发现缓存的地址列表快照
+     * @return 候选实例，已过滤被摘除的异常实例
+     */
+    public List<InetSocketAddress> route(String serviceName, List<InetSocketAddress> addresses) {
+        if (!enabled) {
+            return outlierDetector.filter(serviceName, addresses);
+        }
+        ZonePartition partition = partitions.get(serviceName);
+        if (partition == null || partition.source != addresses) {
+            partition = new ZonePartition(addresses, localInstances(serviceName, addresses));
+            partitions.put(serviceName, partition);
+        }
+        List<InetSocketAddress> local = partition.local;
+        if (local.isEmpty()) {
+            return outlierDetector.filter(serviceName, addresses);
+        }
+
+        int healthy = 0;
+        for (int i = 0; i < local.size(); i++) {
+            if (!outlierDetector.isEjected(serviceName, local.get(i))) {
+                healthy++;
+            }
+        }
+        boolean spill = healthy * 100 < local.size() * minLocalHealthyPercent;
+        if (spill != partition.spilling) {
+            partition.spilling = spill;
+            if (spill) {
+                logger.warn("同可用区可用实例不足，溢出到其他可用区: {} (zone={}, 可用{}/{})",
+                        serviceName, zone, healthy, local.size());
+            } else {
+                logger.info("同可用区可用实例恢复，回到就近路由: {} (zone={}, 可用{}/{})",
+                        serviceName, zone, healthy, local.size());
+            }
+        }
+        if (spill) {
+            return outlierDetector.filter(serviceName, addresses);
+        }
+        return healthy == local.size() ? local : outlierDetector.filter(serviceName, local);
+    }
+
+    private List<InetSocketAddress> localInstances(String serviceName, List<InetSocketAddress> addresses) {
+        List<InetSocketAddress> local = new ArrayList<>();
+        for (InetSocketAddress address : addresses) {
+            Map<String, String> metadata = metadataLookup.apply(serviceName, address);
+            if (metadata != null && zone.equals(metadata.get(ServiceRegistry.METADATA_ZONE))) {
+                local.add(address);
+            }
+        }
+        if (local.size() == addresses.size()) {
+            return addresses;
+        }
+        return Collections.unmodifiableList(local);
+    }
+
+    /**
+     * 某个地址列表快照中的同可用区实例
+     */
+    private static class ZonePartition {
+        private final List<InetSocketAddress> source;
+        private final List<InetSocketAddress> local;
+        // 当前是否处于溢出状态，仅用于记录状态切换日志
+        private volatile boolean spilling;
+
+        ZonePartition(List<InetSocketAddress> source, List<InetSocketAddress> local) {
+            this.source = source;
+            this.local = local;
+        }
+    }
+}
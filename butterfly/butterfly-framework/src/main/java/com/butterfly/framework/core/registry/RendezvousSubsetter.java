@@ -0,0 +1,84 @@
+package com.butterfly.framework.core.registry;
+
+import com.butterfly.framework.core.config.SubsetProperties;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 基于最高随机权重(Rendezvous)哈希的客户端子集选择
+ * 每个实例的得分由 客户端标识 x 实例地址 哈希得到，取得分最高的size个实例。
+ * 实例增减时只有得分进入或跌出前size名的实例发生变化，其余实例的子集成员关系保持不变；
+ * 不同客户端的得分相互独立，各实例被选中的客户端数在统计上均匀
+ */
+public class RendezvousSubsetter {
+    private final boolean enabled;
+    private final int size;
+    private final long clientHash;
+
+    public RendezvousSubsetter(SubsetProperties properties) {
+        this.enabled = properties.isEnabled() && properties.getSize() > 0;
+        this.size = properties.getSize();
+        String clientId = properties.getClientId();
+        if (clientId == null || clientId.trim().isEmpty()) {
+            clientId = ManagementFactory.getRuntimeMXBean().getName();
+        }
+        this.clientHash = hash(clientId);
+    }
+
+    /**
+     * 选取当前客户端的实例子集
+     * @param addresses 服务的全部实例，不会被修改
+     * @return 子集，保持原列表中的相对顺序；未启用或实例数不超过子集大小时返回原列表
+     */
+    public List<InetSocketAddress> select(List<InetSocketAddress> addresses) {
+        if (!enabled || addresses.size() <= size) {
+            return addresses;
+        }
+        int count = addresses.size();
+        long[] scores = new long[count];
+        for (int i = 0; i < count; i++) {
+            InetSocketAddress address = addresses.get(i);
+            scores[i] = mix(clientHash ^ hash(address.getHostString() + ":" + address.getPort()));
+        }
+        // 第size高的得分作为入选门槛
+        long[] sorted = scores.clone();
+        Arrays.sort(sorted);
+        long threshold = sorted[count - size];
+        List<InetSocketAddress> subset = new ArrayList<>(size);
+        for (int i = 0; i < count && subset.size() < size; i++) {
+            if (scores[i] >= threshold) {
+                subset.add(addresses.get(i));
+            }
+        }
+        return subset;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 64位FNV-1a字符串哈希
+     */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * SplitMix64终结函数，使相近的输入得到充分打散的输出
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -1,5 +1,7 @@
 package com.butterfly.framework.core.registry;
 
+import com.butterfly.framework.core.faulttolerance.OutlierDetector;
+import com.butterfly.framework.core.loadbalance.Invocation;
 import com.butterfly.framework.core.loadbalance.LoadBalance;
 import com.butterfly.framework.core.loadbalance.LoadBalanceFactory;
 import org.slf4j.Logger;
@@ -7,12 +9,16 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import com.butterfly.framework.core.config.LoadBalanceProperties;
+import com.butterfly.framework.core.config.LocalityProperties;
+import com.butterfly.framework.core.config.SubsetProperties;
 import java.net.InetSocketAddress;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
@@ -29,15 +35,24 @@ public class ServiceDiscovery implements ServiceRegistry.ServiceChangeListener {
     private final Map<String, List<InetSocketAddress>> serviceCache;
     private final LoadBalanceProperties loadBalanceProperties;
     private final Map<String, ReentrantLock> serviceLocks;
+    private final OutlierDetector outlierDetector;
+    private final RendezvousSubsetter subsetter;
+    private final LocalityRouter localityRouter;
 
     @Autowired
-    public ServiceDiscovery(ServiceRegistry serviceRegistry, LoadBalanceFactory loadBalanceFactory, LoadBalanceProperties loadBalanceProperties) {
+    public ServiceDiscovery(ServiceRegistry serviceRegistry, LoadBalanceFactory loadBalanceFactory, LoadBalanceProperties loadBalanceProperties,
+                            OutlierDetector outlierDetector, SubsetProperties subsetProperties,
+                            LocalityProperties localityProperties) {
         this.serviceRegistry = serviceRegistry;
+        this.outlierDetector = outlierDetector;
+        this.subsetter = new RendezvousSubsetter(subsetProperties);
+        this.localityRouter = new LocalityRouter(localityProperties, outlierDetector, this::getServiceMetadata);
         this.loadBalanceFactory = loadBalanceFactory;
         this.serviceCache = new ConcurrentHashMap<>();
         this.loadBalanceProperties = loadBalanceProperties;
         this.defaultLoadBalanceStrategy = loadBalanceProperties.getDefaultStrategy();
         this.serviceLocks = new ConcurrentHashMap<>();
+        loadBalanceFactory.setMetadataLookup(this::getServiceMetadata);
     }
 
     /**
@@ -63,13 +78,138 @@ public class ServiceDiscovery implements ServiceRegistry.ServiceChangeListener {
             throw new IllegalStateException("No available service instances: " + serviceName);
         }
 
-        // 获取负载均衡器并选择实例
+        // 就近选出候选实例并过滤被摘除的异常实例后，获取负载均衡器并选择实例
         LoadBalance loadBalance = loadBalanceFactory.getLoadBalance(loadBalanceStrategy);
-        return loadBalance.select(addresses, serviceName);
+        return loadBalance.select(localityRouter.route(serviceName, addresses), serviceName);
+    }
+
+    /**
+     * 发现服务并选择一个不在排除集合中的实例
+     * 用于对冲请求等需要换一个实例重发的场景
+     * @param serviceName 服务名称
+     * @param excludedAddresses 需要排除的服务地址
+     * @return 选中的服务地址
+     */
+    public InetSocketAddress discoverService(String serviceName, Set<InetSocketAddress> excludedAddresses) {
+        return discoverService(serviceName, excludedAddresses, null);
+    }
+
+    /**
+     * 发现服务并按调用信息选择一个不在排除集合中的实例
+     * @param serviceName 服务名称
+     * @param excludedAddresses 需要排除的服务地址，可以为null
+     * @param invocation 调用信息，指定了负载均衡策略时使用该策略，否则使用默认策略；可以为null
+     * @return 选中的服务地址
+     */
+    public InetSocketAddress discoverService(String serviceName, Set<InetSocketAddress> excludedAddresses,
+                                             Invocation invocation) {
+        List<InetSocketAddress> addresses = getServiceAddresses(serviceName);
+        if (addresses.isEmpty()) {
+            logger.error("未找到可用服务实例: {}", serviceName);
+            throw new IllegalStateException("No available service instances: " + serviceName);
+        }
+        LoadBalance loadBalance = getLoadBalance(invocation);
+        List<InetSocketAddress> candidates = localityRouter.route(serviceName, addresses);
+        if (excludedAddresses == null || excludedAddresses.isEmpty()) {
+            return loadBalance.select(candidates, serviceName, invocation);
+        }
+
+        // 在缓存的候选列表上跳过排除的实例，不为每次重发生成新列表，避免负载均衡器按列表缓存的状态被重建
+        InetSocketAddress selected = loadBalance.select(candidates, serviceName, invocation, excludedAddresses);
+        if (selected == null) {
+            // 同可用区没有其他实例时改投其他可用区
+            List<InetSocketAddress> all = outlierDetector.filter(serviceName, addresses);
+            if (all != candidates) {
+                selected = loadBalance.select(all, serviceName, invocation, excludedAddresses);
+            }
+        }
+        if (selected == null) {
+            throw new IllegalStateException("No other available service instances: " + serviceName);
+        }
+        return selected;
+    }
+
+    /**
+     * 获取调用使用的负载均衡策略，调用信息指定了策略时使用该策略，否则使用默认策略
+     */
+    private LoadBalance getLoadBalance(Invocation invocation) {
+        String strategy = invocation != null && invocation.getLoadBalance() != null
+                ? invocation.getLoadBalance() : defaultLoadBalanceStrategy;
+        return loadBalanceFactory.getLoadBalance(strategy);
+    }
+
+    /**
+     * 上报即将向实例发出一次调用，之后必须通过notifyResult或notifyCancelled上报结束
+     * @param serviceName 服务名称
+     * @param address 选中的服务地址
+     */
+    public void notifyStart(String serviceName, InetSocketAddress address) {
+        notifyStart(serviceName, address, null);
+    }
+
+    /**
+     * 上报即将向实例发出一次调用，通知选择该实例时使用的负载均衡策略
+     * @param serviceName 服务名称
+     * @param address 选中的服务地址
+     * @param invocation 选择实例时使用的调用信息，可以为null
+     */
+    public void notifyStart(String serviceName, InetSocketAddress address, Invocation invocation) {
+        getLoadBalance(invocation).notifyStart(address, serviceName);
+    }
+
+    /**
+     * 上报一次调用结果
+     * 同时通知默认负载均衡策略和异常实例检测器
+     * @param serviceName 服务名称
+     * @param address 被调用的服务地址
+     * @param success 调用是否成功
+     * @param responseTimeNanos 响应时间(纳秒)
+     */
+    public void notifyResult(String serviceName, InetSocketAddress address, boolean success, long responseTimeNanos) {
+        notifyResult(serviceName, address, success, responseTimeNanos, null);
+    }
+
+    /**
+     * 上报一次调用结果
+     * 同时通知选择该实例时使用的负载均衡策略和异常实例检测器
+     * @param serviceName 服务名称
+     * @param address 被调用的服务地址
+     * @param success 调用是否成功
+     * @param responseTimeNanos 响应时间(纳秒)
+     * @param invocation 选择实例时使用的调用信息，可以为null
+     */
+    public void notifyResult(String serviceName, InetSocketAddress address, boolean success, long responseTimeNanos,
+                             Invocation invocation) {
+        getLoadBalance(invocation).notifyResult(address, serviceName, success, responseTimeNanos, TimeUnit.NANOSECONDS);
+        outlierDetector.onResult(serviceName, address, success, responseTimeNanos);
+    }
+
+    /**
+     * 上报一次被取消的调用(如对冲请求已有结果)
+     * 已等待的时间是该实例延迟的下界，仍上报给负载均衡策略；不计入异常实例检测
+     * @param serviceName 服务名称
+     * @param address 被调用的服务地址
+     * @param elapsedNanos 取消前已等待的时间(纳秒)
+     */
+    public void notifyCancelled(String serviceName, InetSocketAddress address, long elapsedNanos) {
+        notifyCancelled(serviceName, address, elapsedNanos, null);
+    }
+
+    /**
+     * 上报一次被取消的调用，通知选择该实例时使用的负载均衡策略
+     * @param serviceName 服务名称
+     * @param address 被调用的服务地址
+     * @param elapsedNanos 取消前已等待的时间(纳秒)
+     * @param invocation 选择实例时使用的调用信息，可以为null
+     */
+    public void notifyCancelled(String serviceName, InetSocketAddress address, long elapsedNanos, Invocation invocation) {
+        getLoadBalance(invocation).notifyResult(address, serviceName, true, elapsedNanos, TimeUnit.NANOSECONDS);
     }
 
     /**
      * 获取服务地址列表（带缓存机制）
+     * 返回缓存中的只读快照，地址列表变更前多次调用返回同一个对象，负载均衡策略可据此复用按列表预计算的结果；
+     * 启用客户端子集时缓存的是本客户端的实例子集，只在地址列表变更时重新计算
      */
     private List<InetSocketAddress> getServiceAddresses(String serviceName) {
         // 先从缓存获取
@@ -87,12 +227,14 @@ public class ServiceDiscovery implements ServiceRegistry.ServiceChangeListener {
                     addresses = serviceRegistry.discover(serviceName);
                     if (addresses != null && !addresses.isEmpty()) {
                         // 缓存服务地址
-                        serviceCache.put(serviceName, new CopyOnWriteArrayList<>(addresses));
+                        addresses = snapshot(subsetter.select(addresses));
+                        serviceCache.put(serviceName, addresses);
                         // 订阅服务变更
                         serviceRegistry.subscribe(serviceName, this);
                         logger.info("缓存服务地址: {} -> {}", serviceName, addresses.size());
                     } else {
-                        serviceCache.put(serviceName, new CopyOnWriteArrayList<>());
+                        addresses = Collections.emptyList();
+                        serviceCache.put(serviceName, addresses);
                     }
                 }
             } finally {
@@ -100,7 +242,11 @@ public class ServiceDiscovery implements ServiceRegistry.ServiceChangeListener {
             }
         }
 
-        return addresses != null ? new ArrayList<>(addresses) : new ArrayList<>();
+        return addresses != null ? addresses : Collections.emptyList();
+    }
+
+    private static List<InetSocketAddress> snapshot(List<InetSocketAddress> addresses) {
+        return Collections.unmodifiableList(new ArrayList<>(addresses));
     }
 
     /**
@@ -110,7 +256,11 @@ public class ServiceDiscovery implements ServiceRegistry.ServiceChangeListener {
     public void onServiceChanged(String serviceName, List<InetSocketAddress> newServiceAddresses) {
         logger.info("服务地址变更: {} -> 新实例数: {}", serviceName, newServiceAddresses.size());
         // 更新缓存
-        serviceCache.put(serviceName, new CopyOnWriteArrayList<>(newServiceAddresses));
+        List<InetSocketAddress> addresses = snapshot(subsetter.select(newServiceAddresses));
+        if (subsetter.isEnabled()) {
+            logger.info("服务实例子集: {} -> {}/{}", serviceName, addresses.size(), newServiceAddresses.size());
+        }
+        serviceCache.put(serviceName, addresses);
     }
 
     /**
@@ -9,6 +9,13 @@ import java.util.Map;
  * 定义服务注册、发现、注销的标准契约
  */
 public interface ServiceRegistry {
+    /** 元数据键: 实例权重 */
+    String METADATA_WEIGHT = "weight";
+    /** 元数据键: 实例注册时间戳(毫秒)，用于新实例预热 */
+    String METADATA_START_TIME = "startTime";
+    /** 元数据键: 实例所在的可用区/机架，用于就近路由 */
+    String METADATA_ZONE = "zone";
+
     /**
      * 注册服务
      * @param serviceName 服务名称 (格式: 接口全限定名:版本:分组)
@@ -1,30 +1,61 @@
 package com.butterfly.framework.core.registry;
 
+import com.butterfly.framework.config.NettyClientConfig;
+import com.butterfly.framework.core.rpc.ChannelLivenessRegistry;
+import com.butterfly.framework.core.rpc.NettyTransport;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
 import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 企业级TCP健康检查实现
- * 通过尝试建立TCP连接验证服务实例的可用性
+ * 一个检查间隔内RPC连接上有过数据往来(业务响应或心跳)的实例直接判定健康，
+ * 只对没有近期流量的实例尝试建立TCP连接验证可用性。
+ * 异步检查基于Netty非阻塞建连，所有探测共享一个IO线程，传输实现与RPC客户端配置一致；
+ * 连接建立后正常关闭(FIN)，避免服务端把每次探测当作连接重置记录异常
  */
 @Component
 public class TcpHealthChecker implements HealthChecker {
     private static final Logger logger = LoggerFactory.getLogger(TcpHealthChecker.class);
     private static final int DEFAULT_TIMEOUT = 3000;
     private static final int DEFAULT_INTERVAL = 10000;
+    // 探测连接不收发数据，所有连接共享同一个空处理器
+    private static final ChannelHandler PROBE_HANDLER = new ProbeHandler();
 
     private int timeoutMillis = DEFAULT_TIMEOUT;
     private int intervalMillis = DEFAULT_INTERVAL;
 
+    @Autowired(required = false)
+    private ChannelLivenessRegistry channelLivenessRegistry;
+    @Autowired(required = false)
+    private NettyClientConfig nettyClientConfig;
+
+    // 异步探测使用的线程组和Bootstrap，首次异步检查时创建
+    private EventLoopGroup probeGroup;
+    private volatile Bootstrap probeBootstrap;
+
     @Override
     public boolean check(String serviceName, InetSocketAddress address) {
         if (address == null) {
             logger.warn("服务地址为空，无法执行健康检查: {}", serviceName);
             return false;
         }
+        if (channelLivenessRegistry != null && channelLivenessRegistry.isAlive(address, intervalMillis)) {
+            logger.debug("服务实例连接活跃，跳过探测: {} -> {}:{}", serviceName, address.getHostString(), address.getPort());
+            return true;
+        }
 
         Socket socket = null;
         try {
@@ -49,6 +80,67 @@ public class TcpHealthChecker implements HealthChecker {
         }
     }
 
+    @Override
+    public CompletableFuture<Boolean> checkAsync(String serviceName, InetSocketAddress address) {
+        if (address == null) {
+            logger.warn("服务地址为空，无法执行健康检查: {}", serviceName);
+            return CompletableFuture.completedFuture(false);
+        }
+        if (channelLivenessRegistry != null && channelLivenessRegistry.isAlive(address, intervalMillis)) {
+            logger.debug("服务实例连接活跃，跳过探测: {} -> {}:{}", serviceName, address.getHostString(), address.getPort());
+            return CompletableFuture.completedFuture(true);
+        }
+
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        ChannelFuture connectFuture = getProbeBootstrap().connect(address);
+        connectFuture.addListener(f -> {
+            if (connectFuture.isSuccess()) {
+                connectFuture.channel().close();
+                logger.debug("服务健康检查结果: {} -> {}:{}, 状态: 健康",
+                        serviceName, address.getHostString(), address.getPort());
+                result.complete(true);
+            } else {
+                logger.warn("服务健康检查失败: {} -> {}:{}, 原因: {}",
+                        serviceName, address.getHostString(), address.getPort(), String.valueOf(f.cause()));
+                result.complete(false);
+            }
+        });
+        return result;
+    }
+
+    private Bootstrap getProbeBootstrap() {
+        Bootstrap bootstrap = probeBootstrap;
+        if (bootstrap == null) {
+            synchronized (this) {
+                bootstrap = probeBootstrap;
+                if (bootstrap == null) {
+                    NettyTransport transport = NettyTransport.select(
+                            nettyClientConfig == null || nettyClientConfig.isNativeTransport());
+                    probeGroup = transport.newEventLoopGroup(1, "rpc-health-probe");
+                    bootstrap = new Bootstrap()
+                            .group(probeGroup)
+                            .channel(transport.socketChannelClass())
+                            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, timeoutMillis)
+                            .handler(PROBE_HANDLER);
+                    probeBootstrap = bootstrap;
+                }
+            }
+        }
+        return bootstrap;
+    }
+
+    /**
+     * 关闭异步探测线程组
+     */
+    @PreDestroy
+    public synchronized void close() {
+        if (probeGroup != null) {
+            probeGroup.shutdownGracefully();
+            probeGroup = null;
+            probeBootstrap = null;
+        }
+    }
+
     @Override
     public int getTimeoutMillis() {
         return timeoutMillis;
@@ -70,4 +162,8 @@ public class TcpHealthChecker implements HealthChecker {
             this.intervalMillis = intervalMillis;
         }
     }
-}
\ No newline at end of file
+
+    @ChannelHandler.Sharable
+    private static class ProbeHandler extends ChannelInboundHandlerAdapter {
+    }
+}
@@ -0,0 +1,111 @@
+package com.butterfly.framework.core.rpc;
+
+import com.butterfly.framework.config.NettyServerConfig;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 服务端准入控制器
+ * 按服务统计在途请求数和排队时延，采用CoDel思路判定过载：一个观测窗口内的最小排队时延超过目标值，
+ * 说明队列无法被及时消化而非瞬时突发。过载时排队超过目标时延的非关键请求在执行前被丢弃，
+ * 未过载时只丢弃排队超过整个观测窗口的非关键请求；被丢弃的请求立即以过载错误码响应，调用方可改投其他实例。
+ * 关键请求不受排队时延丢弃，只受业务线程池容量限制
+ */
+public class AdmissionController {
+    private final boolean enabled;
+    private final long targetNanos;
+    private final long intervalNanos;
+    private final int maxInflightPerService;
+    private final Map<String, ServiceLoad> loads = new ConcurrentHashMap<>();
+
+    public AdmissionController(NettyServerConfig config) {
+        this.enabled = config.isAdmissionControlEnabled();
+        this.targetNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, config.getQueueDelayTargetMillis()));
+        this.intervalNanos = Math.max(targetNanos, TimeUnit.MILLISECONDS.toNanos(config.getQueueDelayIntervalMillis()));
+        this.maxInflightPerService = config.getMaxInflightPerService();
+    }
+
+    /**
+     * 获取服务的负载统计
+     * @param serviceKey 服务键
+     * @return 负载统计，未启用准入控制时返回null
+     */
+    public ServiceLoad getLoad(String serviceKey) {
+        if (!enabled) {
+            return null;
+        }
+        ServiceLoad load = loads.get(serviceKey);
+        if (load == null) {
+            load = loads.computeIfAbsent(serviceKey, key -> new ServiceLoad());
+        }
+        return load;
+    }
+
+    /**
+     * 请求入队前调用，占用一个在途名额
+     * @return 是否接纳，返回false时未占用名额
+     */
+    public boolean tryAdmit(ServiceLoad load, boolean critical) {
+        int inflight = load.inflight.incrementAndGet();
+        if (!critical && maxInflightPerService > 0 && inflight > maxInflightPerService) {
+            load.inflight.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 请求出队(即将执行)时调用，记录排队时延并判断是否应丢弃
+     * @param queueDelayNanos 请求从接收到开始执行的排队时长
+     * @return 是否继续执行，返回false时调用方应以过载错误码响应并释放名额
+     */
+    public boolean onDequeue(ServiceLoad load, long queueDelayNanos, boolean critical) {
+        boolean overloaded = load.sample(queueDelayNanos, System.nanoTime(), targetNanos, intervalNanos);
+        if (critical) {
+            return true;
+        }
+        return queueDelayNanos <= (overloaded ? targetNanos : intervalNanos);
+    }
+
+    /**
+     * 请求处理结束(包括被丢弃)时释放在途名额
+     */
+    public void release(ServiceLoad load) {
+        load.inflight.decrementAndGet();
+    }
+
+    /**
+     * 单个服务的负载统计
+     * 窗口内最小排队时延用CAS维护，只有跨越窗口边界的线程负责切换窗口并更新过载状态
+     */
+    public static class ServiceLoad {
+        private final AtomicInteger inflight = new AtomicInteger();
+        private final AtomicLong minDelayNanos = new AtomicLong(Long.MAX_VALUE);
+        private final AtomicLong intervalEndNanos = new AtomicLong(System.nanoTime());
+        private volatile boolean overloaded;
+
+        boolean sample(long delayNanos, long nowNanos, long targetNanos, long intervalNanos) {
+            long min = minDelayNanos.get();
+            while (delayNanos < min && !minDelayNanos.compareAndSet(min, delayNanos)) {
+                min = minDelayNanos.get();
+            }
+            long intervalEnd = intervalEndNanos.get();
+            if (nowNanos - intervalEnd >= 0 && intervalEndNanos.compareAndSet(intervalEnd, nowNanos + intervalNanos)) {
+                overloaded = minDelayNanos.getAndSet(Long.MAX_VALUE) > targetNanos;
+            }
+            return overloaded;
+        }
+
+        public int getInflight() {
+            return inflight.get();
+        }
+
+        public boolean isOverloaded() {
+            return overloaded;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.butterfly.framework.core.rpc;
+
+import org.springframework.stereotype.Component;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 连接存活状态注册表
+ * 客户端连接上的业务响应和心跳响应都会刷新对应服务实例的最近活跃时间，
+ * 健康检查据此直接判定有活跃连接的实例健康，只对没有近期流量的实例额外探测
+ */
+@Component
+public class ChannelLivenessRegistry {
+    // 服务实例 -> 到该实例的连接存活状态，最后一条连接关闭时移除
+    private final Map<InetSocketAddress, Liveness> entries = new ConcurrentHashMap<>();
+
+    /**
+     * 记录到服务实例的连接已建立
+     */
+    public void channelOpened(SocketAddress address) {
+        if (address instanceof InetSocketAddress) {
+            entries.compute((InetSocketAddress) address, (key, liveness) -> {
+                Liveness current = liveness != null ? liveness : new Liveness();
+                current.channels++;
+                return current;
+            });
+        }
+    }
+
+    /**
+     * 记录到服务实例的连接已关闭，该实例没有其他连接时移除其存活状态
+     */
+    public void channelClosed(SocketAddress address) {
+        if (address instanceof InetSocketAddress) {
+            entries.computeIfPresent((InetSocketAddress) address,
+                    (key, liveness) -> --liveness.channels > 0 ? liveness : null);
+        }
+    }
+
+    /**
+     * 记录从服务实例读到数据
+     */
+    public void markAlive(SocketAddress address, long nowMillis) {
+        Liveness liveness = address instanceof InetSocketAddress ? entries.get(address) : null;
+        if (liveness != null) {
+            liveness.lastActiveMillis = nowMillis;
+        }
+    }
+
+    /**
+     * 记录到服务实例的连接因心跳超时被关闭
+     */
+    public void markDead(SocketAddress address) {
+        Liveness liveness = address instanceof InetSocketAddress ? entries.get(address) : null;
+        if (liveness != null) {
+            liveness.lastActiveMillis = 0;
+        }
+    }
+
+    /**
+     * 服务实例在指定时间窗口内是否有过数据往来
+     * @param address 服务实例地址
+     * @param withinMillis 时间窗口(毫秒)
+     */
+    public boolean isAlive(InetSocketAddress address, long withinMillis) {
+        Liveness liveness = entries.get(address);
+        return liveness != null && System.currentTimeMillis() - liveness.lastActiveMillis <= withinMillis;
+    }
+
+    /**
+     * 已登记的服务实例数
+     */
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * 单个服务实例的存活状态
+     */
+    private static class Liveness {
+        // 最近一次从该实例读到数据的时间(毫秒时间戳)
+        private volatile long lastActiveMillis;
+        // 到该实例的已建立连接数，只在ConcurrentHashMap.compute中修改
+        private int channels;
+    }
+}
@@ -0,0 +1,55 @@
+package com.butterfly.framework.core.rpc;
+
+import com.butterfly.framework.core.config.ConcurrencyLimitProperties;
+import com.butterfly.framework.core.faulttolerance.AdaptiveConcurrencyLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 客户端并发限制器注册表
+ * 按 服务键 -> 服务实例 两级索引限制器，首次创建时注册当前限制值和在途请求数指标
+ */
+public class ConcurrencyLimiterRegistry {
+    private final ConcurrencyLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Map<InetSocketAddress, AdaptiveConcurrencyLimiter>> limiters = new ConcurrentHashMap<>();
+
+    /**
+     * 构造函数
+     * @param properties 并发限制配置
+     * @param meterRegistry 指标注册表，可为null
+     */
+    public ConcurrencyLimiterRegistry(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 获取服务实例的并发限制器
+     */
+    public AdaptiveConcurrencyLimiter get(String serviceKey, InetSocketAddress address) {
+        Map<InetSocketAddress, AdaptiveConcurrencyLimiter> serviceLimiters = limiters.get(serviceKey);
+        if (serviceLimiters == null) {
+            serviceLimiters = limiters.computeIfAbsent(serviceKey, key -> new ConcurrentHashMap<>());
+        }
+        AdaptiveConcurrencyLimiter limiter = serviceLimiters.get(address);
+        if (limiter == null) {
+            limiter = serviceLimiters.computeIfAbsent(address, key -> createLimiter(serviceKey, key));
+        }
+        return limiter;
+    }
+
+    private AdaptiveConcurrencyLimiter createLimiter(String serviceKey, InetSocketAddress address) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties);
+        if (meterRegistry != null) {
+            Tags tags = Tags.of("service", serviceKey, "endpoint", address.getHostString() + ":" + address.getPort());
+            meterRegistry.gauge("rpc.client.concurrency.limit", tags, limiter, AdaptiveConcurrencyLimiter::getLimit);
+            meterRegistry.gauge("rpc.client.concurrency.inflight", tags, limiter, AdaptiveConcurrencyLimiter::getInflight);
+        }
+        return limiter;
+    }
+}
@@ -0,0 +1,264 @@
+package com.butterfly.framework.core.rpc;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.concurrent.ScheduledFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 按服务端地址划分的连接池
+ * 每个地址维护固定数量的多路复用连接，部署在同一服务端上的所有服务共享这些连接；
+ * 连接按需懒创建并可预热，空闲超时的地址整体回收，热路径上的连接选择无锁，建连过程不阻塞调用线程
+ */
+public class ConnectionPool {
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionPool.class);
+    // 访问时间戳的刷新粒度，避免每次调用都写共享变量
+    private static final long ACCESS_TIME_RESOLUTION_MILLIS = 1000;
+
+    private final Bootstrap bootstrap;
+    private final int connectionsPerEndpoint;
+    private final int warmupConnections;
+    private final long idleTimeoutMillis;
+    private final long handshakeTimeoutMillis;
+    private final Map<InetSocketAddress, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private final ScheduledFuture<?> idleEvictionTask;
+
+    /**
+     * 构造函数
+     * @param bootstrap 已配置好的客户端Bootstrap
+     * @param eventLoopGroup 用于调度空闲回收任务的线程组
+     * @param connectionsPerEndpoint 每个地址的连接数
+     * @param warmupConnections 首次访问地址时预先建立的连接数
+     * @param idleTimeoutMillis 地址空闲回收时间(毫秒)，小于等于0表示不回收
+     * @param handshakeTimeoutMillis 等待连接握手的最长时间(毫秒)
+     */
+    public ConnectionPool(Bootstrap bootstrap, EventLoopGroup eventLoopGroup, int connectionsPerEndpoint,
+                          int warmupConnections, long idleTimeoutMillis, long handshakeTimeoutMillis) {
+        this.bootstrap = bootstrap;
+        this.connectionsPerEndpoint = Math.max(1, connectionsPerEndpoint);
+        this.warmupConnections = Math.min(Math.max(0, warmupConnections), this.connectionsPerEndpoint);
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.handshakeTimeoutMillis = handshakeTimeoutMillis;
+        if (idleTimeoutMillis > 0) {
+            long period = Math.max(ACCESS_TIME_RESOLUTION_MILLIS, idleTimeoutMillis / 2);
+            this.idleEvictionTask = eventLoopGroup.scheduleWithFixedDelay(
+                    this::evictIdleEndpoints, period, period, TimeUnit.MILLISECONDS);
+        } else {
+            this.idleEvictionTask = null;
+        }
+    }
+
+    /**
+     * 获取到指定地址的可用连接
+     * 已有活跃连接时无锁返回已完成的Future；没有活跃连接时发起建连并返回握手完成后的连接，不阻塞调用线程，
+     * 因此可以在IO线程和CompletableFuture回调中调用
+     * @param address 服务端地址
+     * @return 活跃连接的Future，建连失败或超时时以异常完成
+     */
+    public CompletableFuture<Channel> acquire(InetSocketAddress address) {
+        while (true) {
+            Endpoint endpoint = endpoints.get(address);
+            if (endpoint == null) {
+                endpoint = endpoints.computeIfAbsent(address, Endpoint::new);
+            }
+            CompletableFuture<Channel> channel = endpoint.select();
+            if (channel != null) {
+                return channel;
+            }
+            // 地址在选择期间被空闲回收，重新获取
+        }
+    }
+
+    /**
+     * 关闭连接池及其所有连接
+     */
+    public void close() {
+        if (idleEvictionTask != null) {
+            idleEvictionTask.cancel(false);
+        }
+        for (Endpoint endpoint : endpoints.values()) {
+            endpoint.close();
+        }
+        endpoints.clear();
+    }
+
+    /**
+     * 回收空闲超时的地址
+     */
+    private void evictIdleEndpoints() {
+        long now = System.currentTimeMillis();
+        for (Endpoint endpoint : endpoints.values()) {
+            if (now - endpoint.lastAccessMillis > idleTimeoutMillis && !endpoint.hasPendingCalls()) {
+                if (endpoints.remove(endpoint.address, endpoint)) {
+                    endpoint.close();
+                    logger.info("回收空闲连接: {}", endpoint.address);
+                }
+            }
+        }
+    }
+
+    private static boolean isUsable(Connection connection) {
+        return connection != null && connection.isUsable();
+    }
+
+    /**
+     * 槽位上的一条连接，就绪Future在握手完成后完成，热路径直接返回该Future而不再分配
+     */
+    private class Connection {
+        private final ChannelFuture connectFuture;
+        private final CompletableFuture<Channel> ready = new CompletableFuture<>();
+
+        Connection(ChannelFuture connectFuture, InetSocketAddress address) {
+            this.connectFuture = connectFuture;
+            // 建连超时由Bootstrap的CONNECT_TIMEOUT_MILLIS控制，超时同样以失败完成
+            connectFuture.addListener(f -> {
+                if (f.isSuccess()) {
+                    awaitHandshake(connectFuture.channel(), address);
+                } else {
+                    ready.completeExceptionally(new IllegalStateException("连接服务失败: " + address, f.cause()));
+                }
+            });
+        }
+
+        /**
+         * 握手完成后交出连接，首个请求即可按方法ID发送；
+         * 握手超时的连接仍可使用，请求按名称和JSON发送，兼容不响应握手的服务端
+         */
+        private void awaitHandshake(Channel channel, InetSocketAddress address) {
+            RpcClientHandler handler = channel.pipeline().get(RpcClientHandler.class);
+            if (handler == null) {
+                ready.complete(channel);
+                return;
+            }
+            ScheduledFuture<?> handshakeTimeout = channel.eventLoop().schedule(() -> {
+                if (ready.complete(channel)) {
+                    logger.warn("连接握手超时，请求将按名称发送: {}", address);
+                }
+            }, handshakeTimeoutMillis, TimeUnit.MILLISECONDS);
+            handler.handshakeFuture().whenComplete((v, ex) -> {
+                handshakeTimeout.cancel(false);
+                if (ex == null) {
+                    ready.complete(channel);
+                } else {
+                    ready.completeExceptionally(new IllegalStateException("连接服务失败: " + address, ex));
+                }
+            });
+        }
+
+        Channel channel() {
+            return connectFuture.channel();
+        }
+
+        boolean isPending() {
+            return !ready.isDone();
+        }
+
+        boolean isUsable() {
+            return ready.isDone() && !ready.isCompletedExceptionally() && connectFuture.channel().isActive();
+        }
+    }
+
+    /**
+     * 单个服务端地址的连接组
+     */
+    private class Endpoint {
+        private final InetSocketAddress address;
+        private final AtomicReferenceArray<Connection> slots;
+        private volatile long lastAccessMillis = System.currentTimeMillis();
+        private volatile boolean closed;
+
+        Endpoint(InetSocketAddress address) {
+            this.address = address;
+            this.slots = new AtomicReferenceArray<>(connectionsPerEndpoint);
+            // 预热连接异步建立，不阻塞首次调用
+            for (int i = 0; i < warmupConnections; i++) {
+                connect(i);
+            }
+        }
+
+        /**
+         * 从随机槽位开始选择活跃连接，遇到空槽位时顺带异步补齐
+         * @return 活跃连接或正在建立的连接的Future，地址已被回收时返回null
+         */
+        CompletableFuture<Channel> select() {
+            if (closed) {
+                return null;
+            }
+            long now = System.currentTimeMillis();
+            if (now - lastAccessMillis > ACCESS_TIME_RESOLUTION_MILLIS) {
+                lastAccessMillis = now;
+            }
+
+            int size = slots.length();
+            int start = size == 1 ? 0 : ThreadLocalRandom.current().nextInt(size);
+            for (int i = 0; i < size; i++) {
+                int index = start + i < size ? start + i : start + i - size;
+                Connection connection = slots.get(index);
+                if (isUsable(connection)) {
+                    if (i > 0) {
+                        connect(start);
+                    }
+                    return connection.ready;
+                }
+            }
+
+            // 没有任何活跃连接，返回建连并握手的结果，由调用方在连接就绪后继续
+            return connect(start).ready;
+        }
+
+        /**
+         * 确保槽位上存在连接或正在建立的连接
+         */
+        Connection connect(int index) {
+            while (true) {
+                Connection current = slots.get(index);
+                if (current != null && (current.isPending() || current.isUsable())) {
+                    return current;
+                }
+                ChannelFuture connectFuture = bootstrap.connect(address);
+                Connection created = new Connection(connectFuture, address);
+                if (slots.compareAndSet(index, current, created)) {
+                    // 连接关闭后清空槽位，下次选择时懒重建
+                    connectFuture.channel().closeFuture().addListener(f -> slots.compareAndSet(index, created, null));
+                    logger.info("建立连接: {} [{}/{}]", address, index + 1, slots.length());
+                    return created;
+                }
+                connectFuture.channel().close();
+            }
+        }
+
+        boolean hasPendingCalls() {
+            for (int i = 0; i < slots.length(); i++) {
+                Connection connection = slots.get(i);
+                if (isUsable(connection)) {
+                    RpcClientHandler handler = connection.channel().pipeline().get(RpcClientHandler.class);
+                    if (handler != null && handler.pendingCallCount() > 0) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        void close() {
+            closed = true;
+            for (int i = 0; i < slots.length(); i++) {
+                Connection connection = slots.getAndSet(i, null);
+                if (connection != null) {
+                    connection.channel().close();
+                }
+            }
+        }
+    }
+}
@@ -3,20 +3,32 @@ package com.butterfly.framework.core.rpc;
 import com.alibaba.fastjson2.JSON;
 import com.alibaba.fastjson2.JSONReader;
 import com.alibaba.fastjson2.JSONWriter;
+import com.alibaba.fastjson2.filter.Filter;
 import com.alibaba.fastjson2.filter.SimplePropertyPreFilter;
 import com.butterfly.framework.core.exception.SerializationException;
+import com.butterfly.framework.core.rpc.protocol.RpcProtocol;
 
 public class FastJsonSerializer implements Serializer {
 
+    public static final String NAME = "json";
+
+    /**
+     * 反序列化时允许按@type还原的类型白名单：JDK基础类型及框架包下的协议对象。
+     * 不开启SupportAutoType，白名单外的@type被忽略，按目标类型或JSONObject解析，
+     * 业务参数和返回值随后按方法签名转换，避免通过任意@type触发反序列化利用链
+     */
+    static final Filter AUTO_TYPE_FILTER = JSONReader.autoTypeFilter(true, "com.butterfly.framework.");
+
     // 安全配置（生产环境建议通过配置类动态加载）
     private static final JSONWriter.Feature[] SERIALIZE_FEATURES = {
             JSONWriter.Feature.WriteClassName,
+            // HashMap/ArrayList是Map/List的默认实现，写入@type后按Map<String, Integer>等泛型字段读取时会把@type当作普通键
+            JSONWriter.Feature.NotWriteHashMapArrayListClassName,
             JSONWriter.Feature.BrowserCompatible,
             JSONWriter.Feature.IgnoreNoneSerializable
     };
 
     private static final JSONReader.Feature[] DESERIALIZE_FEATURES = {
-            JSONReader.Feature.SupportAutoType,
             JSONReader.Feature.UseNativeObject
     };
 
@@ -45,12 +57,22 @@ public class FastJsonSerializer implements Serializer {
             return null;
         }
         try {
-            return JSON.parseObject(data, clazz, DESERIALIZE_FEATURES);
+            return JSON.parseObject(data, clazz, AUTO_TYPE_FILTER, DESERIALIZE_FEATURES);
         } catch (Exception e) {
             throw new SerializationException("FastJSON2反序列化失败", e);
         }
     }
 
+    @Override
+    public byte getType() {
+        return RpcProtocol.SERIALIZER_JSON;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
     // 安全反序列化方法
     public <T> T safeDeserialize(byte[] data, Class<T> clazz) {
         try {
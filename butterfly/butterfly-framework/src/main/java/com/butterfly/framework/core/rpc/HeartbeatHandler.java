@@ -0,0 +1,99 @@
+package com.butterfly.framework.core.rpc;
+
+import com.butterfly.framework.core.rpc.protocol.RpcMessage;
+import com.butterfly.framework.core.rpc.protocol.RpcProtocol;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.timeout.IdleState;
+import io.netty.handler.timeout.IdleStateEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 连接心跳处理器
+ * 配合IdleStateHandler的读空闲事件使用，需位于编解码器之后、业务处理器之前：
+ * 连接上任何入站数据都视为对端存活，只有读空闲时才发送心跳；连续多次心跳仍未读到数据时关闭连接，
+ * 由连接关闭事件完成待响应请求并让连接池清理失效连接。不发送心跳的一端(服务端)读空闲时直接关闭连接。
+ * 收到心跳请求时立即回复，心跳消息不会传递给业务处理器
+ */
+public class HeartbeatHandler extends ChannelDuplexHandler {
+    private static final Logger logger = LoggerFactory.getLogger(HeartbeatHandler.class);
+    // 存活时间的上报粒度，避免每次读取都写共享注册表
+    private static final long REPORT_INTERVAL_MILLIS = 1000;
+
+    private final int maxMissedHeartbeats;
+    private final ChannelLivenessRegistry livenessRegistry;
+    private int missedHeartbeats;
+    private long heartbeatId;
+    private long lastReportMillis;
+
+    /**
+     * 构造函数
+     * @param maxMissedHeartbeats 读空闲时最多连续发送的心跳数，为0时读空闲即关闭连接
+     * @param livenessRegistry 连接存活状态注册表，可为null
+     */
+    public HeartbeatHandler(int maxMissedHeartbeats, ChannelLivenessRegistry livenessRegistry) {
+        this.maxMissedHeartbeats = Math.max(0, maxMissedHeartbeats);
+        this.livenessRegistry = livenessRegistry;
+    }
+
+    @Override
+    public void channelActive(ChannelHandlerContext ctx) throws Exception {
+        if (livenessRegistry != null) {
+            livenessRegistry.channelOpened(ctx.channel().remoteAddress());
+        }
+        super.channelActive(ctx);
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        // 连接关闭时注销，避免已下线实例的存活状态常驻注册表
+        if (livenessRegistry != null) {
+            livenessRegistry.channelClosed(ctx.channel().remoteAddress());
+        }
+        super.channelInactive(ctx);
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        missedHeartbeats = 0;
+        if (livenessRegistry != null) {
+            long now = System.currentTimeMillis();
+            if (now - lastReportMillis >= REPORT_INTERVAL_MILLIS) {
+                lastReportMillis = now;
+                livenessRegistry.markAlive(ctx.channel().remoteAddress(), now);
+            }
+        }
+        if (msg instanceof RpcMessage) {
+            RpcMessage message = (RpcMessage) msg;
+            if (message.getMessageType() == RpcProtocol.TYPE_HEARTBEAT_REQUEST) {
+                ctx.writeAndFlush(new RpcMessage(RpcProtocol.TYPE_HEARTBEAT_RESPONSE, message.getRequestId(), null));
+                return;
+            }
+            if (message.getMessageType() == RpcProtocol.TYPE_HEARTBEAT_RESPONSE) {
+                return;
+            }
+        }
+        ctx.fireChannelRead(msg);
+    }
+
+    @Override
+    public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+        if (!(evt instanceof IdleStateEvent) || ((IdleStateEvent) evt).state() != IdleState.READER_IDLE) {
+            ctx.fireUserEventTriggered(evt);
+            return;
+        }
+        if (missedHeartbeats < maxMissedHeartbeats) {
+            missedHeartbeats++;
+            ctx.writeAndFlush(new RpcMessage(RpcProtocol.TYPE_HEARTBEAT_REQUEST, ++heartbeatId, null))
+                    .addListener(ChannelFutureListener.CLOSE_ON_FAILURE);
+            return;
+        }
+        logger.warn("连接读空闲超时，关闭连接: {}，已发送心跳: {}", ctx.channel().remoteAddress(), missedHeartbeats);
+        if (livenessRegistry != null) {
+            livenessRegistry.markDead(ctx.channel().remoteAddress());
+        }
+        ctx.close();
+    }
+}
@@ -0,0 +1,119 @@
+package com.butterfly.framework.core.rpc;
+
+import com.butterfly.framework.core.faulttolerance.HedgingPolicy;
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 一次对冲调用
+ * 先发出原始请求，超过对冲延迟仍未完成且预算充足时，向尚未尝试过的服务实例发出相同请求；
+ * 采用最先成功的响应并取消其余请求，全部请求均失败时以最后一个失败结束
+ * @param <T> 返回值类型
+ */
+public class HedgedInvocation<T> {
+    private final HedgingPolicy policy;
+    private final Timer timer;
+    private final Function<Set<InetSocketAddress>, CompletableFuture<T>> attempt;
+    // 已尝试的服务实例，对冲请求会排除这些实例
+    private final Set<InetSocketAddress> triedAddresses = ConcurrentHashMap.newKeySet();
+    private final List<CompletableFuture<T>> attempts = new ArrayList<>();
+    private final CompletableFuture<T> result = new CompletableFuture<>();
+    private final long startNanos = System.nanoTime();
+    private int outstanding;
+    private Timeout hedgeTimeout;
+
+    /**
+     * 构造函数
+     * @param policy 方法的对冲策略
+     * @param timer 用于调度对冲请求的定时器
+     * @param attempt 发起一次请求，参数为需要排除的服务实例集合，请求选中的实例应加入该集合
+     *                应返回请求本身的Future而不是派生阶段，落败请求被取消时才能释放其占用的资源
+     */
+    public HedgedInvocation(HedgingPolicy policy, Timer timer,
+                            Function<Set<InetSocketAddress>, CompletableFuture<T>> attempt) {
+        this.policy = policy;
+        this.timer = timer;
+        this.attempt = attempt;
+    }
+
+    /**
+     * 开始调用
+     * @return 最先成功的结果
+     */
+    public CompletableFuture<T> start() {
+        policy.onRequest();
+        launch();
+        return result;
+    }
+
+    private void launch() {
+        synchronized (this) {
+            if (result.isDone()) {
+                return;
+            }
+            outstanding++;
+        }
+        CompletableFuture<T> future;
+        try {
+            future = attempt.apply(triedAddresses);
+        } catch (RuntimeException e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+        }
+        synchronized (this) {
+            attempts.add(future);
+            if (attempts.size() < policy.getMaxAttempts() && !result.isDone()) {
+                hedgeTimeout = timer.newTimeout(t -> hedge(), policy.getDelayMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+        future.whenComplete((value, ex) -> onAttemptComplete(value, ex));
+    }
+
+    private void hedge() {
+        if (!result.isDone() && policy.tryAcquire()) {
+            launch();
+        }
+    }
+
+    private void onAttemptComplete(T value, Throwable ex) {
+        if (ex == null) {
+            if (result.complete(value)) {
+                policy.recordLatency(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+                cancelOutstanding();
+            }
+            return;
+        }
+        boolean allFailed;
+        synchronized (this) {
+            allFailed = --outstanding == 0;
+        }
+        // 失败不代表慢，不再等待对冲，直接交由重试策略处理
+        if (allFailed && result.completeExceptionally(ex)) {
+            cancelOutstanding();
+        }
+    }
+
+    private void cancelOutstanding() {
+        List<CompletableFuture<T>> pending;
+        synchronized (this) {
+            if (hedgeTimeout != null) {
+                hedgeTimeout.cancel();
+            }
+            pending = new ArrayList<>(attempts);
+        }
+        for (CompletableFuture<T> future : pending) {
+            if (!future.isDone()) {
+                future.cancel(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.butterfly.framework.core.rpc;
+
+import com.alibaba.fastjson2.util.TypeUtils;
+import com.butterfly.framework.core.exception.RpcException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+
+/**
+ * 服务方法调用器
+ * 注册时将服务方法预编译为绑定了服务实例的MethodHandle，调用时不再经过Method.invoke的反射校验与装箱数组拷贝
+ */
+public class MethodInvoker {
+    private final String serviceKey;
+    private final Method method;
+    private final MethodHandle handle;
+    private final Class<?>[] parameterTypes;
+    private final Type[] genericParameterTypes;
+
+    public MethodInvoker(String serviceKey, Object serviceBean, Method method) throws IllegalAccessException {
+        this.serviceKey = serviceKey;
+        this.method = method;
+        this.parameterTypes = method.getParameterTypes();
+        this.genericParameterTypes = method.getGenericParameterTypes();
+        if (!method.isAccessible()) {
+            method.setAccessible(true);
+        }
+        // 统一适配为 (Object[])Object，调用时使用invokeExact避免运行时类型适配
+        this.handle = MethodHandles.lookup().unreflect(method)
+                .bindTo(serviceBean)
+                .asSpreader(Object[].class, parameterTypes.length)
+                .asType(MethodType.methodType(Object.class, Object[].class));
+    }
+
+    /**
+     * 调用服务方法
+     * @param arguments 请求参数，类型与方法签名不一致时(如JSON反序列化得到的Map)按泛型参数类型转换
+     * @return 方法返回值，void方法返回null
+     */
+    public Object invoke(Object[] arguments) throws Throwable {
+        Object[] args;
+        try {
+            args = adaptArguments(arguments);
+        } catch (RuntimeException e) {
+            throw new RpcException(RpcErrorCode.INTERNAL_ERROR, "参数转换失败: " + serviceKey + "#" + method.getName()
+                    + ", " + e.getMessage());
+        }
+        return (Object) handle.invokeExact(args);
+    }
+
+    public String getServiceKey() { return serviceKey; }
+    public Method getMethod() { return method; }
+
+    private Object[] adaptArguments(Object[] arguments) {
+        int count = parameterTypes.length;
+        Object[] args = arguments != null && arguments.length == count ? arguments : new Object[count];
+        for (int i = 0; i < count; i++) {
+            Object arg = args[i];
+            if (arg == null ? parameterTypes[i].isPrimitive() : !isInstance(parameterTypes[i], arg)) {
+                args[i] = TypeUtils.cast(arg, genericParameterTypes[i]);
+            }
+        }
+        return args;
+    }
+
+    private static boolean isInstance(Class<?> type, Object value) {
+        if (type.isPrimitive()) {
+            // 基本类型参数接收的是包装类型，交由TypeUtils完成数值宽化等转换
+            return false;
+        }
+        return type.isInstance(value);
+    }
+}
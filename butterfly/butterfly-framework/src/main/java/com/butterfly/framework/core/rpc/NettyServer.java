@@ -1,19 +1,17 @@
 package com.butterfly.framework.core.rpc;
 
 import com.butterfly.framework.config.NettyServerConfig;
+import com.butterfly.framework.core.rpc.protocol.RpcMessageDecoder;
+import com.butterfly.framework.core.rpc.protocol.RpcMessageEncoder;
 import io.netty.bootstrap.ServerBootstrap;
-import io.netty.channel.ChannelFuture;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollMode;
 import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
-import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
-import io.netty.handler.codec.LengthFieldPrepender;
-import io.netty.handler.codec.string.StringDecoder;
-import io.netty.handler.codec.string.StringEncoder;
-import io.netty.util.CharsetUtil;
+import io.netty.handler.timeout.IdleStateHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,6 +19,9 @@ import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 企业级Netty服务器实现
@@ -33,67 +34,116 @@ public class NettyServer {
     @Autowired
     private NettyServerConfig nettyServerConfig;
 
+    @Autowired
+    private ProviderRegistry providerRegistry;
+
     private EventLoopGroup bossGroup;
     private EventLoopGroup workerGroup;
-    private ChannelFuture serverChannelFuture;
+    private RequestDispatcher requestDispatcher;
+    private AdmissionController admissionController;
+    private final List<Channel> serverChannels = new ArrayList<>();
 
     /**
      * 初始化并启动Netty服务器
-     * 使用Spring的@PostConstruct注解确保在依赖注入完成后执行
+     * 使用Spring的@PostConstruct注解确保在依赖注入完成后执行，绑定端口后立即返回，不阻塞容器启动
      */
     @PostConstruct
     public void start() throws InterruptedException {
+        NettyTransport transport = NettyTransport.select(nettyServerConfig.isNativeTransport());
+
         // 初始化EventLoopGroup
-        bossGroup = new NioEventLoopGroup(nettyServerConfig.getBossThreadCount());
-        workerGroup = new NioEventLoopGroup(nettyServerConfig.getWorkerThreadCount());
+        bossGroup = transport.newEventLoopGroup(nettyServerConfig.getBossThreadCount(), "rpc-server-boss");
+        workerGroup = transport.newEventLoopGroup(nettyServerConfig.getWorkerThreadCount(), "rpc-server-worker");
+
+        requestDispatcher = new RequestDispatcher(nettyServerConfig);
+        admissionController = new AdmissionController(nettyServerConfig);
 
         try {
             // 创建ServerBootstrap
             ServerBootstrap bootstrap = new ServerBootstrap();
             bootstrap.group(bossGroup, workerGroup)
-                    .channel(NioServerSocketChannel.class)
+                    .channel(transport.serverChannelClass())
                     .option(ChannelOption.SO_BACKLOG, nettyServerConfig.getBacklog())
                     .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, nettyServerConfig.getConnectTimeoutMillis())
+                    .childOption(ChannelOption.TCP_NODELAY, true)
                     .childHandler(new ChannelInitializer<SocketChannel>() {
                         @Override
                         protected void initChannel(SocketChannel ch) {
+                            long readerIdleTimeout = nettyServerConfig.getReaderIdleTimeoutMillis();
+                            if (readerIdleTimeout > 0) {
+                                // 客户端空闲时会定期发送心跳，长时间读不到数据说明客户端已失效
+                                ch.pipeline().addLast(new IdleStateHandler(readerIdleTimeout, 0, 0, TimeUnit.MILLISECONDS));
+                            }
+                            if (nettyServerConfig.isWriteBatchingEnabled()) {
+                                // 写合并处理器需位于编码器之前，同一轮读取产生的响应合并为一次flush
+                                ch.pipeline().addLast(new WriteBatchingHandler(
+                                        nettyServerConfig.getWriteBatchMaxMessages(), nettyServerConfig.getWriteBatchMaxBytes()));
+                            }
                             // 配置ChannelPipeline
                             ch.pipeline()
-                                    // 基于长度的帧解码器，解决粘包拆包问题
-                                    .addLast(new LengthFieldBasedFrameDecoder(
-                                            nettyServerConfig.getMaxFrameLength(),
-                                            0, 4, 0, 4))
-                                    // 长度字段编码器
-                                    .addLast(new LengthFieldPrepender(4))
-                                    // 字符串编解码器
-                                    .addLast(new StringDecoder(CharsetUtil.UTF_8))
-                                    .addLast(new StringEncoder(CharsetUtil.UTF_8))
+                                    // 二进制协议解码器，基于协议头中的长度字段拆帧，解决粘包拆包问题
+                                    .addLast(new RpcMessageDecoder(nettyServerConfig.getMaxFrameLength()))
+                                    // 二进制协议编码器
+                                    .addLast(new RpcMessageEncoder());
+                            if (readerIdleTimeout > 0) {
+                                // 回复客户端心跳，读空闲超时关闭连接
+                                ch.pipeline().addLast(new HeartbeatHandler(0, null));
+                            }
+                            ch.pipeline()
                                     // RPC请求处理器
-                                    .addLast(new RpcRequestHandler());
+                                    .addLast(new RpcRequestHandler(requestDispatcher, providerRegistry, admissionController));
                         }
                     });
 
-            // 绑定端口并启动服务器
-            serverChannelFuture = bootstrap.bind(nettyServerConfig.getPort()).sync();
-            logger.info("Netty RPC服务器已启动，监听端口: {}", nettyServerConfig.getPort());
+            int acceptors = 1;
+            if (transport.isEpoll()) {
+                acceptors = configureEpoll(bootstrap);
+            }
 
-            // 等待服务器关闭
-            serverChannelFuture.channel().closeFuture().sync();
-        } finally {
-            // 优雅关闭EventLoopGroup
-            workerGroup.shutdownGracefully();
-            bossGroup.shutdownGracefully();
+            // 绑定端口并启动服务器；启用SO_REUSEPORT时多次绑定同一端口，由内核在多个acceptor间分发连接
+            for (int i = 0; i < acceptors; i++) {
+                serverChannels.add(bootstrap.bind(nettyServerConfig.getPort()).sync().channel());
+            }
+            logger.info("Netty RPC服务器已启动，监听端口: {}，传输: {}，acceptor数: {}",
+                    nettyServerConfig.getPort(), transport, acceptors);
+        } catch (InterruptedException | RuntimeException e) {
+            // 启动失败时优雅关闭EventLoopGroup
+            stop();
+            throw e;
         }
     }
 
+    /**
+     * 配置epoll专有参数
+     * @return acceptor数量
+     */
+    private int configureEpoll(ServerBootstrap bootstrap) {
+        EpollMode epollMode = nettyServerConfig.isEdgeTriggered() ? EpollMode.EDGE_TRIGGERED : EpollMode.LEVEL_TRIGGERED;
+        bootstrap.option(EpollChannelOption.EPOLL_MODE, epollMode)
+                .childOption(EpollChannelOption.EPOLL_MODE, epollMode)
+                .childOption(EpollChannelOption.TCP_QUICKACK, nettyServerConfig.isTcpQuickAck());
+        if (nettyServerConfig.getTcpFastOpen() > 0) {
+            bootstrap.option(ChannelOption.TCP_FASTOPEN, nettyServerConfig.getTcpFastOpen());
+        }
+        if (nettyServerConfig.isReusePort()) {
+            bootstrap.option(EpollChannelOption.SO_REUSEPORT, true);
+            return Math.max(1, nettyServerConfig.getBossThreadCount());
+        }
+        return 1;
+    }
+
     /**
      * 优雅关闭Netty服务器
      * 使用Spring的@PreDestroy注解确保在容器销毁前执行
      */
     @PreDestroy
     public void stop() {
-        if (serverChannelFuture != null) {
-            serverChannelFuture.channel().close();
+        for (Channel serverChannel : serverChannels) {
+            serverChannel.close();
+        }
+        serverChannels.clear();
+        if (requestDispatcher != null) {
+            requestDispatcher.shutdown();
         }
         if (workerGroup != null) {
             workerGroup.shutdownGracefully();
@@ -0,0 +1,64 @@
+package com.butterfly.framework.core.rpc;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Netty传输层选择
+ * 启用原生传输且当前平台可加载epoll本地库时使用epoll，否则自动回退到NIO
+ */
+public enum NettyTransport {
+    EPOLL,
+    NIO;
+
+    private static final Logger logger = LoggerFactory.getLogger(NettyTransport.class);
+
+    /**
+     * 根据配置选择传输实现
+     * @param nativeTransportEnabled 是否启用原生传输
+     * @return 实际使用的传输实现
+     */
+    public static NettyTransport select(boolean nativeTransportEnabled) {
+        if (!nativeTransportEnabled) {
+            return NIO;
+        }
+        if (Epoll.isAvailable()) {
+            return EPOLL;
+        }
+        logger.warn("epoll原生传输不可用，回退到NIO: {}", String.valueOf(Epoll.unavailabilityCause()));
+        return NIO;
+    }
+
+    public boolean isEpoll() {
+        return this == EPOLL;
+    }
+
+    /**
+     * 创建事件循环线程组
+     * @param threads 线程数，0表示使用Netty默认值
+     * @param threadNamePrefix 线程名前缀
+     */
+    public EventLoopGroup newEventLoopGroup(int threads, String threadNamePrefix) {
+        DefaultThreadFactory threadFactory = new DefaultThreadFactory(threadNamePrefix, true);
+        return isEpoll() ? new EpollEventLoopGroup(threads, threadFactory) : new NioEventLoopGroup(threads, threadFactory);
+    }
+
+    public Class<? extends ServerChannel> serverChannelClass() {
+        return isEpoll() ? EpollServerSocketChannel.class : NioServerSocketChannel.class;
+    }
+
+    public Class<? extends SocketChannel> socketChannelClass() {
+        return isEpoll() ? EpollSocketChannel.class : NioSocketChannel.class;
+    }
+}
@@ -0,0 +1,149 @@
+package com.butterfly.framework.core.rpc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 单连接的待响应请求表
+ * 以long请求ID为键的开放寻址(线性探测)哈希表，同时负责分配连接内单调递增的请求ID，
+ * 避免UUID字符串生成与Long装箱；调用方线程登记、IO线程移除，临界区极短，使用对象锁保护
+ */
+public class PendingCallTable {
+    private static final int DEFAULT_CAPACITY = 64;
+    // 空槽位标记，请求ID从1开始分配，0不会作为有效键
+    private static final long EMPTY = 0L;
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+    private long nextRequestId;
+
+    public PendingCallTable() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public PendingCallTable(int initialCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(initialCapacity, 2) - 1) << 1;
+        this.keys = new long[capacity];
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * 分配请求ID并登记待响应的Future
+     * @param future 待完成的异步结果
+     * @return 连接内唯一的请求ID
+     */
+    public synchronized long register(CompletableFuture<RpcResponse> future) {
+        long requestId = ++nextRequestId;
+        if (requestId == EMPTY) {
+            requestId = ++nextRequestId;
+        }
+        if ((size + 1) << 1 > keys.length) {
+            rehash(keys.length << 1);
+        }
+        int index = indexOf(requestId);
+        while (keys[index] != EMPTY) {
+            index = (index + 1) & mask;
+        }
+        keys[index] = requestId;
+        values[index] = future;
+        size++;
+        return requestId;
+    }
+
+    /**
+     * 移除并返回请求ID对应的Future
+     * @param requestId 请求ID
+     * @return 对应的Future，不存在时返回null
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized CompletableFuture<RpcResponse> remove(long requestId) {
+        int index = indexOf(requestId);
+        while (true) {
+            long key = keys[index];
+            if (key == EMPTY) {
+                return null;
+            }
+            if (key == requestId) {
+                Object value = values[index];
+                deleteAt(index);
+                return (CompletableFuture<RpcResponse>) value;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    /**
+     * 移除全部待响应的Future，用于连接断开时统一失败处理
+     * @return 被移除的Future列表
+     */
+    @SuppressWarnings("unchecked")
+    public List<CompletableFuture<RpcResponse>> drain() {
+        List<CompletableFuture<RpcResponse>> drained;
+        synchronized (this) {
+            drained = new ArrayList<>(size);
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != EMPTY) {
+                    drained.add((CompletableFuture<RpcResponse>) values[i]);
+                    keys[i] = EMPTY;
+                    values[i] = null;
+                }
+            }
+            size = 0;
+        }
+        return drained;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private int indexOf(long key) {
+        // Fibonacci散列，打散连续的请求ID
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+
+    /**
+     * 删除槽位并向前回移后续冲突元素，避免使用墓碑标记
+     */
+    private void deleteAt(int index) {
+        keys[index] = EMPTY;
+        values[index] = null;
+        size--;
+        int next = (index + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int ideal = indexOf(keys[next]);
+            // 理想位置不在(index, next]区间内时，可以回移到空出的index
+            if (((next - ideal) & mask) >= ((next - index) & mask)) {
+                keys[index] = keys[next];
+                values[index] = values[next];
+                keys[next] = EMPTY;
+                values[next] = null;
+                index = next;
+            }
+            next = (next + 1) & mask;
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[newCapacity];
+        values = new Object[newCapacity];
+        mask = newCapacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != EMPTY) {
+                int index = indexOf(key);
+                while (keys[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = key;
+                values[index] = oldValues[i];
+            }
+        }
+    }
+}
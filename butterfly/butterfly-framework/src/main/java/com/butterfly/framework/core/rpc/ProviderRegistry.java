@@ -0,0 +1,194 @@
+package com.butterfly.framework.core.rpc;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 服务端本地服务提供者注册表
+ * 按 接口名:版本:分组 维护服务实例的方法调用器，由服务注册自动配置在启动时填充，
+ * 请求处理时只需一次服务键查找和一次方法查找即可直接调用
+ */
+@Component
+public class ProviderRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(ProviderRegistry.class);
+
+    private final Map<String, ServiceProvider> providers = new ConcurrentHashMap<>();
+    // 方法表: 服务键#方法签名 -> 方法ID，握手时下发给客户端
+    private final Map<String, Integer> methodTable = new ConcurrentHashMap<>();
+    // 按方法ID索引的调用器，ID从1开始分配，0表示未使用方法ID
+    private volatile MethodInvoker[] invokersById = new MethodInvoker[16];
+    private int nextMethodId;
+
+    /**
+     * 构建服务键，与注册中心中的服务名称保持一致
+     */
+    public static String buildServiceKey(String interfaceName, String version, String group) {
+        return interfaceName + ":" + version + ":" + group;
+    }
+
+    /**
+     * 构建方法签名，如 sayHello(java.lang.String,int)
+     */
+    public static String buildMethodSignature(String methodName, Class<?>[] parameterTypes) {
+        return buildMethodSignature(methodName, typeNames(parameterTypes));
+    }
+
+    /**
+     * 按参数类型名称构建方法签名，与按Class构建的签名一致
+     */
+    public static String buildMethodSignature(String methodName, String[] parameterTypeNames) {
+        StringBuilder signature = new StringBuilder(methodName).append('(');
+        if (parameterTypeNames != null) {
+            for (int i = 0; i < parameterTypeNames.length; i++) {
+                if (i > 0) {
+                    signature.append(',');
+                }
+                signature.append(parameterTypeNames[i]);
+            }
+        }
+        return signature.append(')').toString();
+    }
+
+    /**
+     * 获取参数类型名称，请求中以名称传递参数类型，服务端无需按名称加载类
+     * @return 类型名称数组，parameterTypes为null时返回null
+     */
+    public static String[] typeNames(Class<?>[] parameterTypes) {
+        if (parameterTypes == null) {
+            return null;
+        }
+        String[] names = new String[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            names[i] = parameterTypes[i].getName();
+        }
+        return names;
+    }
+
+    /**
+     * 构建方法表中的方法键，如 com.example.HelloService:1.0.0:default#sayHello(java.lang.String)
+     */
+    public static String buildMethodKey(String serviceKey, String methodSignature) {
+        return serviceKey + "#" + methodSignature;
+    }
+
+    /**
+     * 注册服务实例
+     * @param interfaceClass 服务接口
+     * @param version 服务版本
+     * @param group 服务分组
+     * @param serviceBean 服务实现实例
+     */
+    public void register(Class<?> interfaceClass, String version, String group, Object serviceBean) {
+        String serviceKey = buildServiceKey(interfaceClass.getName(), version, group);
+        Map<String, MethodInvoker> invokersBySignature = new HashMap<>();
+        Map<String, MethodInvoker> invokersByName = new HashMap<>();
+        Map<String, Integer> nameCounts = new HashMap<>();
+        for (Method method : interfaceClass.getMethods()) {
+            if (Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+            try {
+                MethodInvoker invoker = new MethodInvoker(serviceKey, serviceBean, method);
+                String signature = buildMethodSignature(method.getName(), method.getParameterTypes());
+                invokersBySignature.put(signature, invoker);
+                assignMethodId(buildMethodKey(serviceKey, signature), invoker);
+                invokersByName.put(method.getName(), invoker);
+                nameCounts.merge(method.getName(), 1, Integer::sum);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("无法创建服务方法调用器: " + serviceKey + "#" + method.getName(), e);
+            }
+        }
+        // 重载方法只能按完整签名查找
+        nameCounts.forEach((name, count) -> {
+            if (count > 1) {
+                invokersByName.remove(name);
+            }
+        });
+        providers.put(serviceKey, new ServiceProvider(invokersBySignature, invokersByName));
+        logger.info("本地服务提供者注册成功: {}，方法数: {}", serviceKey, invokersBySignature.size());
+    }
+
+    /**
+     * 注销服务实例
+     * 已分配的方法ID保留，避免客户端持有的旧方法表指向其他方法
+     */
+    public void unregister(Class<?> interfaceClass, String version, String group) {
+        providers.remove(buildServiceKey(interfaceClass.getName(), version, group));
+    }
+
+    /**
+     * 获取方法表快照，供连接握手时下发
+     */
+    public Map<String, Integer> getMethodTable() {
+        return new HashMap<>(methodTable);
+    }
+
+    /**
+     * 按方法ID查找方法调用器
+     * @param methodId 握手下发的方法ID
+     * @return 方法调用器，不存在时返回null
+     */
+    public MethodInvoker lookup(int methodId) {
+        MethodInvoker[] invokers = invokersById;
+        return methodId > 0 && methodId < invokers.length ? invokers[methodId] : null;
+    }
+
+    /**
+     * 查找方法调用器
+     * @param request RPC请求
+     * @return 方法调用器，服务或方法不存在时返回null
+     */
+    public MethodInvoker lookup(RpcRequest request) {
+        ServiceProvider provider = providers.get(
+                buildServiceKey(request.getServiceName(), request.getVersion(), request.getGroup()));
+        if (provider == null) {
+            return null;
+        }
+        MethodInvoker invoker = provider.invokersByName.get(request.getMethodName());
+        if (invoker == null) {
+            invoker = provider.invokersBySignature.get(
+                    buildMethodSignature(request.getMethodName(), request.getParameterTypes()));
+        }
+        return invoker;
+    }
+
+    /**
+     * 为方法分配ID，同一方法重复注册时沿用原ID并替换调用器
+     */
+    private synchronized void assignMethodId(String methodKey, MethodInvoker invoker) {
+        Integer methodId = methodTable.get(methodKey);
+        if (methodId == null) {
+            methodId = ++nextMethodId;
+        }
+        MethodInvoker[] invokers = invokersById;
+        if (methodId >= invokers.length) {
+            invokers = Arrays.copyOf(invokers, Math.max(invokers.length << 1, methodId + 1));
+        } else {
+            invokers = invokers.clone();
+        }
+        invokers[methodId] = invoker;
+        invokersById = invokers;
+        methodTable.put(methodKey, methodId);
+    }
+
+    /**
+     * 单个服务的调用器集合
+     */
+    private static class ServiceProvider {
+        private final Map<String, MethodInvoker> invokersBySignature;
+        private final Map<String, MethodInvoker> invokersByName;
+
+        ServiceProvider(Map<String, MethodInvoker> invokersBySignature, Map<String, MethodInvoker> invokersByName) {
+            this.invokersBySignature = invokersBySignature;
+            this.invokersByName = invokersByName;
+        }
+    }
+}
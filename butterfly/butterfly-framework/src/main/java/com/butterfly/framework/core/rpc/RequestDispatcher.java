@@ -0,0 +1,142 @@
+package com.butterfly.framework.core.rpc;
+
+import com.butterfly.framework.config.NettyServerConfig;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 服务端请求派发器
+ * 决定RPC请求在哪个线程上执行业务方法，支持三种模式：
+ * direct - 直接在IO线程执行，仅适用于耗时极短的方法；
+ * shared - 所有服务共享一个有界业务线程池；
+ * isolated - 每个服务(按服务键区分版本和分组)独占一个有界线程池，慢服务不会拖垮其他服务。
+ * 线程池队列满时立即拒绝，由调用方返回服务繁忙错误，IO线程只负责编解码
+ */
+public class RequestDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(RequestDispatcher.class);
+
+    public static final String MODE_DIRECT = "direct";
+    public static final String MODE_SHARED = "shared";
+    public static final String MODE_ISOLATED = "isolated";
+
+    private static final Executor DIRECT_EXECUTOR = Runnable::run;
+
+    private final NettyServerConfig config;
+    private final String defaultMode;
+    private final Map<String, Executor> serviceExecutors = new ConcurrentHashMap<>();
+    private final Map<String, ExecutorService> isolatedPools = new ConcurrentHashMap<>();
+    private volatile ExecutorService sharedPool;
+
+    public RequestDispatcher(NettyServerConfig config) {
+        this.config = config;
+        this.defaultMode = normalizeMode(config.getDispatchMode());
+        logger.info("请求派发模式: {}", defaultMode);
+    }
+
+    /**
+     * 派发请求处理任务
+     * @param serviceKey 服务提供者注册的服务键(接口名:版本:分组)，继承自父接口的方法同样归属注册的服务
+     * @param task 请求处理任务
+     * @throws RejectedExecutionException 业务线程池已满
+     */
+    public void dispatch(String serviceKey, Runnable task) {
+        Executor executor = serviceExecutors.get(serviceKey);
+        if (executor == null) {
+            executor = serviceExecutors.computeIfAbsent(serviceKey, this::createExecutor);
+        }
+        executor.execute(task);
+    }
+
+    /**
+     * 关闭所有业务线程池
+     */
+    public void shutdown() {
+        if (sharedPool != null) {
+            sharedPool.shutdown();
+        }
+        for (ExecutorService pool : isolatedPools.values()) {
+            pool.shutdown();
+        }
+        isolatedPools.clear();
+        serviceExecutors.clear();
+    }
+
+    private Executor createExecutor(String serviceKey) {
+        String mode = defaultMode;
+        String serviceMode = lookupServiceMode(serviceKey);
+        if (serviceMode != null) {
+            mode = normalizeMode(serviceMode);
+        }
+        switch (mode) {
+            case MODE_DIRECT:
+                return DIRECT_EXECUTOR;
+            case MODE_ISOLATED:
+                return isolatedPools.computeIfAbsent(serviceKey, name -> newBoundedPool(
+                        "rpc-biz-" + name, config.getIsolatedThreads(), config.getIsolatedQueueSize()));
+            default:
+                return getSharedPool();
+        }
+    }
+
+    /**
+     * 查找服务的派发模式，按服务键精确配置优先，其次按接口名配置，对该接口的所有版本和分组生效
+     */
+    private String lookupServiceMode(String serviceKey) {
+        Map<String, String> serviceModes = config.getServiceDispatchModes();
+        String serviceMode = serviceModes.get(serviceKey);
+        if (serviceMode == null) {
+            int separator = serviceKey.indexOf(':');
+            if (separator > 0) {
+                serviceMode = serviceModes.get(serviceKey.substring(0, separator));
+            }
+        }
+        return serviceMode;
+    }
+
+    private ExecutorService getSharedPool() {
+        ExecutorService pool = sharedPool;
+        if (pool == null) {
+            synchronized (this) {
+                pool = sharedPool;
+                if (pool == null) {
+                    pool = newBoundedPool("rpc-biz", config.getBusinessThreads(), config.getBusinessQueueSize());
+                    sharedPool = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
+    private static ExecutorService newBoundedPool(String name, int threads, int queueSize) {
+        int poolSize = Math.max(1, threads);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueSize)), new DefaultThreadFactory(name),
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        logger.info("创建业务线程池: {}，线程数: {}，队列长度: {}", name, poolSize, queueSize);
+        return executor;
+    }
+
+    private static String normalizeMode(String mode) {
+        if (MODE_DIRECT.equalsIgnoreCase(mode)) {
+            return MODE_DIRECT;
+        }
+        if (MODE_ISOLATED.equalsIgnoreCase(mode)) {
+            return MODE_ISOLATED;
+        }
+        if (mode != null && !MODE_SHARED.equalsIgnoreCase(mode)) {
+            logger.warn("未知的请求派发模式: {}，使用shared模式", mode);
+        }
+        return MODE_SHARED;
+    }
+}
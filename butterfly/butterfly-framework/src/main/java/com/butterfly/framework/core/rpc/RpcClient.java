@@ -1,30 +1,42 @@
 package com.butterfly.framework.core.rpc;
 
-import com.alibaba.fastjson2.JSON;
 import io.netty.bootstrap.Bootstrap;
-import io.netty.channel.ChannelFuture;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollMode;
 import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioSocketChannel;
-import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
-import io.netty.handler.codec.LengthFieldPrepender;
-import io.netty.handler.codec.string.StringDecoder;
-import io.netty.handler.codec.string.StringEncoder;
-import io.netty.util.CharsetUtil;
+import io.netty.handler.timeout.IdleStateHandler;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import io.netty.util.concurrent.DefaultThreadFactory;
 import com.butterfly.framework.config.NettyClientConfig;
+import com.butterfly.framework.core.config.ConcurrencyLimitProperties;
+import com.butterfly.framework.core.exception.RpcException;
+import com.butterfly.framework.core.faulttolerance.AdaptiveConcurrencyLimiter;
+import com.butterfly.framework.core.rpc.protocol.RpcMessage;
+import com.butterfly.framework.core.rpc.protocol.RpcMessageDecoder;
+import com.butterfly.framework.core.rpc.protocol.RpcMessageEncoder;
+import com.butterfly.framework.core.rpc.protocol.RpcProtocol;
+import com.butterfly.framework.core.loadbalance.Invocation;
+import com.butterfly.framework.core.loadbalance.RpcStatus;
 import com.butterfly.framework.core.registry.ServiceDiscovery;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.net.InetSocketAddress;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.beans.factory.annotation.Value;
 
+import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
-import java.util.UUID;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.concurrent.*;
 
 /**
@@ -37,11 +49,14 @@ public class RpcClient {
     @Value("${rpc.client.timeout:3000}")
     private int defaultTimeout;
 
-    private final EventLoopGroup eventLoopGroup;
-    private final Bootstrap bootstrap;
-    private ChannelFuture channelFuture;
-    private final ConcurrentHashMap<String, CompletableFuture<RpcResponse>> requestFutureMap;
-    private final ConcurrentHashMap<String, InetSocketAddress> serviceAddressCache;
+    private EventLoopGroup eventLoopGroup;
+    private ConnectionPool connectionPool;
+    // 所有待响应请求共享的超时时间轮，避免在IO线程的定时任务堆上频繁插入和取消
+    private HashedWheelTimer timeoutTimer;
+    // 异步重试等定时任务的调度线程池，与IO线程隔离，重试的选址和序列化不占用IO线程
+    private ScheduledThreadPoolExecutor retryScheduler;
+    // 按 服务 x 服务实例 的自适应并发限制器，未启用时为null
+    private ConcurrencyLimiterRegistry concurrencyLimiterRegistry;
 
     @Autowired
     private NettyClientConfig nettyClientConfig;
@@ -49,72 +64,77 @@ public class RpcClient {
     @Autowired
     private ServiceDiscovery serviceDiscovery;
 
-    public RpcClient() {
-        this.eventLoopGroup = new NioEventLoopGroup();
-        this.bootstrap = new Bootstrap();
-        this.requestFutureMap = new ConcurrentHashMap<>();
-        this.serviceAddressCache = new ConcurrentHashMap<>();
-        initClient();
-    }
+    @Autowired
+    private ConcurrencyLimitProperties concurrencyLimitProperties;
+
+    @Autowired
+    private ChannelLivenessRegistry channelLivenessRegistry;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistryProvider;
 
     /**
      * 初始化Netty客户端
+     * 依赖注入完成后执行，确保客户端配置已可用
      */
-    private void initClient() {
-        try {
-            bootstrap.group(eventLoopGroup)
-                    .channel(NioSocketChannel.class)
-                    .option(ChannelOption.TCP_NODELAY, true)
-                    .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, nettyClientConfig.getConnectTimeoutMillis())
-                    .handler(new ChannelInitializer<SocketChannel>() {
-                        @Override
-                        protected void initChannel(SocketChannel ch) {
-                            ch.pipeline()
-                                    .addLast(new LengthFieldBasedFrameDecoder(
-                                            nettyClientConfig.getMaxFrameLength(),
-                                            0, 4, 0, 4))
-                                    .addLast(new LengthFieldPrepender(4))
-                                    .addLast(new StringDecoder(CharsetUtil.UTF_8))
-                                    .addLast(new StringEncoder(CharsetUtil.UTF_8))
-                                    .addLast(new RpcClientHandler(RpcClient.this, requestFutureMap));
+    @PostConstruct
+    public void initClient() {
+        NettyTransport transport = NettyTransport.select(nettyClientConfig.isNativeTransport());
+        eventLoopGroup = transport.newEventLoopGroup(nettyClientConfig.getIoThreadCount(), "rpc-client-io");
+        timeoutTimer = new HashedWheelTimer(new DefaultThreadFactory("rpc-client-timeout", true),
+                nettyClientConfig.getTimeoutTickMillis(), TimeUnit.MILLISECONDS, nettyClientConfig.getTimeoutTicksPerWheel());
+        retryScheduler = new ScheduledThreadPoolExecutor(Math.max(2, Runtime.getRuntime().availableProcessors()),
+                new DefaultThreadFactory("rpc-client-retry", true));
+        retryScheduler.setRemoveOnCancelPolicy(true);
+        Bootstrap bootstrap = new Bootstrap();
+        bootstrap.group(eventLoopGroup)
+                .channel(transport.socketChannelClass())
+                .option(ChannelOption.TCP_NODELAY, true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, nettyClientConfig.getConnectTimeoutMillis())
+                .handler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel ch) {
+                        long heartbeatInterval = nettyClientConfig.getHeartbeatIntervalMillis();
+                        if (heartbeatInterval > 0) {
+                            // 读空闲检测位于pipeline头部，任何入站数据都会重置计时
+                            ch.pipeline().addLast(new IdleStateHandler(heartbeatInterval, 0, 0, TimeUnit.MILLISECONDS));
+                        }
+                        if (nettyClientConfig.isWriteBatchingEnabled()) {
+                            // 写合并处理器需位于编码器之前，统计编码后的字节数
+                            ch.pipeline().addLast(new WriteBatchingHandler(
+                                    nettyClientConfig.getWriteBatchMaxMessages(), nettyClientConfig.getWriteBatchMaxBytes()));
                         }
-                    });
+                        ch.pipeline()
+                                .addLast(new RpcMessageDecoder(nettyClientConfig.getMaxFrameLength()))
+                                .addLast(new RpcMessageEncoder());
+                        if (heartbeatInterval > 0) {
+                            ch.pipeline().addLast(new HeartbeatHandler(
+                                    nettyClientConfig.getHeartbeatMaxMissed(), channelLivenessRegistry));
+                        }
+                        ch.pipeline()
+                                .addLast(new RpcClientHandler(
+                                        SerializerFactory.getSerializer(nettyClientConfig.getSerialization())));
+                    }
+                });
 
-            logger.info("Netty RPC客户端初始化完成");
-        } catch (Exception e) {
-            logger.error("Netty RPC客户端初始化失败", e);
-            Thread.currentThread().interrupt();
+        if (transport.isEpoll()) {
+            bootstrap.option(EpollChannelOption.EPOLL_MODE,
+                            nettyClientConfig.isEdgeTriggered() ? EpollMode.EDGE_TRIGGERED : EpollMode.LEVEL_TRIGGERED)
+                    .option(EpollChannelOption.TCP_QUICKACK, nettyClientConfig.isTcpQuickAck())
+                    .option(ChannelOption.TCP_FASTOPEN_CONNECT, nettyClientConfig.isTcpFastOpenConnect());
         }
-    }
 
-    /**
-     * 获取服务地址并建立连接
-     */
-    private ChannelFuture getChannelFuture(String serviceName) throws InterruptedException {
-        // 从缓存获取服务地址
-        InetSocketAddress serviceAddress = serviceAddressCache.get(serviceName);
-
-        // 如果缓存中没有地址或连接已关闭，重新发现服务
-        if (serviceAddress == null || (channelFuture != null && !channelFuture.channel().isActive())) {
-            // 使用服务发现获取服务地址
-            serviceAddress = serviceDiscovery.discoverService(serviceName);
-            if (serviceAddress == null) {
-                throw new IllegalStateException("无法发现服务: " + serviceName);
-            }
-
-            logger.info("发现服务地址: {} -> {}", serviceName, serviceAddress);
-            serviceAddressCache.put(serviceName, serviceAddress);
-
-            // 建立新连接
-            if (channelFuture != null) {
-                channelFuture.channel().close();
-            }
-            channelFuture = bootstrap.connect(serviceAddress.getHostString(), serviceAddress.getPort()).sync();
-            logger.info("已连接到服务: {} -> {}:{}",
-                    serviceName, serviceAddress.getHostString(), serviceAddress.getPort());
+        connectionPool = new ConnectionPool(bootstrap, eventLoopGroup,
+                nettyClientConfig.getConnectionsPerEndpoint(),
+                nettyClientConfig.getWarmupConnections(),
+                nettyClientConfig.getIdleTimeoutMillis(),
+                nettyClientConfig.getConnectTimeoutMillis());
+        if (concurrencyLimitProperties.isEnabled()) {
+            concurrencyLimiterRegistry = new ConcurrencyLimiterRegistry(
+                    concurrencyLimitProperties, meterRegistryProvider.getIfAvailable());
         }
-
-        return channelFuture;
+        logger.info("Netty RPC客户端初始化完成，传输: {}，每个服务端地址连接数: {}",
+                transport, nettyClientConfig.getConnectionsPerEndpoint());
     }
 
     /**
@@ -125,51 +145,152 @@ public class RpcClient {
      * @param parameters 参数值
      * @return 异步结果
      */
-    public CompletableFuture<RpcResponse> sendRequest(String serviceName, String methodName, 
+    public CompletableFuture<RpcResponse> sendRequest(String serviceName, String methodName,
                                                      Class<?>[] parameterTypes, Object[] parameters) {
-        // 生成唯一请求ID
-        String requestId = UUID.randomUUID().toString();
+        return sendRequest(serviceName, methodName, parameterTypes, parameters, null);
+    }
 
-        // 创建请求对象
+    /**
+     * 发送RPC请求
+     * @param serviceName 服务名称
+     * @param methodName 方法名称
+     * @param parameterTypes 参数类型
+     * @param parameters 参数值
+     * @param serialization 服务指定的序列化方式，为空时使用连接协商的默认序列化方式
+     * @return 异步结果
+     */
+    public CompletableFuture<RpcResponse> sendRequest(String serviceName, String methodName,
+                                                     Class<?>[] parameterTypes, Object[] parameters,
+                                                     String serialization) {
+        // 创建请求对象，使用默认版本和分组
         RpcRequest request = new RpcRequest();
-        request.setRequestId(requestId);
         request.setServiceName(serviceName);
         request.setMethodName(methodName);
-        request.setParameterTypes(parameterTypes);
+        request.setParameterTypes(ProviderRegistry.typeNames(parameterTypes));
         request.setParameters(parameters);
+        return sendRequest(request, serialization);
+    }
+
+    /**
+     * 发送RPC请求
+     * @param request 请求对象，按 服务名:版本:分组 发现服务实例
+     * @param serialization 服务指定的序列化方式，为空时使用连接协商的默认序列化方式
+     * @return 异步结果
+     */
+    public CompletableFuture<RpcResponse> sendRequest(RpcRequest request, String serialization) {
+        return sendRequest(request, serialization, defaultTimeout);
+    }
+
+    /**
+     * 发送RPC请求
+     * @param request 请求对象，按 服务名:版本:分组 发现服务实例
+     * @param serialization 服务指定的序列化方式，为空时使用连接协商的默认序列化方式
+     * @param timeoutMillis 调用超时时间(毫秒)，小于等于0时使用rpc.client.timeout
+     * @return 异步结果，超时后以TimeoutException失败
+     */
+    public CompletableFuture<RpcResponse> sendRequest(RpcRequest request, String serialization, long timeoutMillis) {
+        return sendRequest(request, serialization, timeoutMillis, null);
+    }
+
+    /**
+     * 发送RPC请求
+     * @param request 请求对象，按 服务名:版本:分组 发现服务实例
+     * @param serialization 服务指定的序列化方式，为空时使用连接协商的默认序列化方式
+     * @param timeoutMillis 调用超时时间(毫秒)，小于等于0时使用rpc.client.timeout
+     * @param excludedAddresses 需要排除的服务实例，非空时选中的实例会加入该集合，供对冲请求换实例重发
+     * @return 异步结果，超时后以TimeoutException失败
+     */
+    public CompletableFuture<RpcResponse> sendRequest(RpcRequest request, String serialization, long timeoutMillis,
+                                                     Set<InetSocketAddress> excludedAddresses) {
+        return sendRequest(request, serialization, timeoutMillis, excludedAddresses, false);
+    }
+
+    /**
+     * 发送RPC请求
+     * @param request 请求对象，按 服务名:版本:分组 发现服务实例
+     * @param serialization 服务指定的序列化方式，为空时使用连接协商的默认序列化方式
+     * @param timeoutMillis 调用超时时间(毫秒)，小于等于0时使用rpc.client.timeout
+     * @param excludedAddresses 需要排除的服务实例，非空时选中的实例会加入该集合，供对冲请求换实例重发
+     * @param critical 是否为关键请求，在关键请求上下文中发起的下游调用自动视为关键请求
+     * @return 异步结果，超时后以TimeoutException失败
+     */
+    public CompletableFuture<RpcResponse> sendRequest(RpcRequest request, String serialization, long timeoutMillis,
+                                                     Set<InetSocketAddress> excludedAddresses, boolean critical) {
+        return sendRequest(request, serialization, timeoutMillis, excludedAddresses, critical, null);
+    }
+
+    /**
+     * 发送RPC请求
+     * @param request 请求对象，按 服务名:版本:分组 发现服务实例
+     * @param serialization 服务指定的序列化方式，为空时使用连接协商的默认序列化方式
+     * @param timeoutMillis 调用超时时间(毫秒)，小于等于0时使用rpc.client.timeout
+     * @param excludedAddresses 需要排除的服务实例，非空时选中的实例会加入该集合，供对冲请求换实例重发
+     * @param critical 是否为关键请求，在关键请求上下文中发起的下游调用自动视为关键请求
+     * @param invocation 调用的路由信息(负载均衡策略、路由键)，为null时使用默认负载均衡策略
+     * @return 异步结果，超时后以TimeoutException失败
+     */
+    public CompletableFuture<RpcResponse> sendRequest(RpcRequest request, String serialization, long timeoutMillis,
+                                                     Set<InetSocketAddress> excludedAddresses, boolean critical,
+                                                     Invocation invocation) {
+        String serviceName = ProviderRegistry.buildServiceKey(
+                request.getServiceName(), request.getVersion(), request.getGroup());
 
         // 创建异步结果对象
         CompletableFuture<RpcResponse> future = new CompletableFuture<>();
-        requestFutureMap.put(requestId, future);
+
+        // 在服务端请求上下文中发起的下游调用，超时不超过上游请求的剩余时间
+        long remaining = RpcContext.getRemainingMillis();
+        if (remaining <= 0) {
+            future.completeExceptionally(new TimeoutException("上游请求已超过截止时间: " + serviceName));
+            return future;
+        }
+        long timeout = Math.min(timeoutMillis > 0 ? timeoutMillis : defaultTimeout, remaining);
 
         try {
-            // 1. 获取通道并发送请求
-            ChannelFuture channelFuture = getChannelFuture(serviceName);
-            channelFuture.channel().writeAndFlush(JSON.toJSONString(request));
-            logger.info("已发送RPC请求: {} -> {}", requestId, serviceName);
-
-            // 2. 设置超时和完成回调
-            CompletableFuture<RpcResponse> timeoutFuture = new CompletableFuture<>();
-            ScheduledFuture<?> timeoutTask = eventLoopGroup.next().schedule(() -> {
-                if (!future.isDone()) {
-                    requestFutureMap.remove(requestId);
-                    timeoutFuture.completeExceptionally(new TimeoutException("RPC请求超时"));
-                    logger.warn("RPC请求超时: {}", requestId);
+            // 1. 选择服务实例并获取并发许可
+            InetSocketAddress serviceAddress = serviceDiscovery.discoverService(serviceName, excludedAddresses, invocation);
+            if (serviceAddress == null) {
+                throw new IllegalStateException("无法发现服务: " + serviceName);
+            }
+            if (concurrencyLimiterRegistry != null) {
+                serviceAddress = acquirePermit(serviceName, serviceAddress, excludedAddresses, invocation, future);
+            }
+            if (excludedAddresses != null) {
+                excludedAddresses.add(serviceAddress);
+            }
+            reportResultOnComplete(future, serviceName, serviceAddress, invocation);
+
+            // 2. 在共享时间轮上登记超时，超时覆盖建连和等待响应，超时后以超时异常完成调用方的Future
+            Timeout timeoutTask = timeoutTimer.newTimeout(t -> {
+                if (future.completeExceptionally(new TimeoutException(
+                        "RPC请求超时(" + timeout + "ms): " + serviceName + "#" + request.getMethodName()))) {
+                    logger.warn("RPC请求超时: {}#{}", serviceName, request.getMethodName());
                 }
-            }, defaultTimeout, TimeUnit.MILLISECONDS);
+            }, timeout, TimeUnit.MILLISECONDS);
+            // 取消超时检查，时间轮取消只做标记，开销为常数
+            future.whenComplete((response, ex) -> timeoutTask.cancel());
 
-            // 3. 正常完成处理
-            future.whenComplete((response, ex) -> {
-                timeoutTask.cancel(true); // 取消超时检查
-                requestFutureMap.remove(requestId);
+            // 3. 从连接池异步获取通道，连接就绪后在该连接上登记请求并发送，调用线程不等待建连；
+            //    关键标记和截止时间在调用线程上确定，连接就绪回调可能运行在IO线程
+            InetSocketAddress address = serviceAddress;
+            boolean criticalRequest = critical || RpcContext.isCritical();
+            long deadline = System.currentTimeMillis() + timeout;
+            connectionPool.acquire(serviceAddress).whenComplete((channel, ex) -> {
                 if (ex != null) {
-                    logger.error("RPC请求失败: {}", requestId, ex);
+                    logger.warn("获取RPC连接失败: {}, 原因: {}", address, ex.getMessage());
+                    future.completeExceptionally(ex);
+                } else {
+                    writeRequest(channel, future, request, serialization, serviceName, address, deadline, criticalRequest);
                 }
             });
 
+            return future;
+        } catch (RpcException e) {
+            // 并发限制的快速拒绝属于预期的过载保护，不按错误记录
+            logger.debug("RPC请求被拒绝: {}", e.getMessage());
+            future.completeExceptionally(e);
             return future;
         } catch (Exception e) {
-            requestFutureMap.remove(requestId);
             logger.error("发送RPC请求失败", e);
             future.completeExceptionally(e);
             return future;
@@ -177,20 +298,168 @@ public class RpcClient {
     }
 
     /**
-     * 重新连接所有服务
+     * 在连接上登记请求并发送，调用已结束(超时或取消)时不再发送
+     * 调用结束时移除待响应请求，避免超时或取消的请求占用连接的请求表
      */
-    public void reconnect() throws InterruptedException {
-        logger.info("开始重新连接所有服务...");
-        serviceAddressCache.clear();
-        if (channelFuture != null) {
-            channelFuture.channel().close().sync();
+    private void writeRequest(Channel channel, CompletableFuture<RpcResponse> future, RpcRequest request,
+                              String serialization, String serviceName, InetSocketAddress serviceAddress,
+                              long deadline, boolean critical) {
+        if (future.isDone()) {
+            return;
+        }
+        RpcClientHandler handler = channel.pipeline().get(RpcClientHandler.class);
+        if (handler == null) {
+            future.completeExceptionally(new IllegalStateException("RPC连接尚未初始化完成: " + serviceName));
+            return;
         }
-        // 尝试重新连接第一个服务
-        if (!serviceAddressCache.isEmpty()) {
-            String firstService = serviceAddressCache.keySet().iterator().next();
-            getChannelFuture(firstService);
+        long requestId = handler.registerCall(future);
+        future.whenComplete((response, ex) -> {
+            if (ex != null) {
+                handler.removeCall(requestId);
+                if (!(ex instanceof CancellationException)) {
+                    logger.error("RPC请求失败: {}", requestId, ex);
+                }
+            }
+        });
+        RpcMessage message = new RpcMessage(RpcProtocol.TYPE_REQUEST, requestId, compactRequest(request, serviceName, handler));
+        message.setSerializerType(handler.selectSerializerType(serialization));
+        message.setDeadline(deadline);
+        if (critical) {
+            message.setFlags(RpcProtocol.FLAG_CRITICAL);
         }
-        logger.info("服务重新连接完成");
+        channel.writeAndFlush(message).addListener(writeFuture -> {
+            if (!writeFuture.isSuccess() && handler.removeCall(requestId) != null) {
+                future.completeExceptionally(writeFuture.cause());
+            }
+        });
+        logger.debug("已发送RPC请求: {} -> {} ({})", requestId, serviceName, serviceAddress);
+    }
+
+    /**
+     * 获取目标服务实例的并发许可，许可在调用结束时按结果释放并反馈给限制器
+     * 选中实例已达限制时，允许改投的情况下排除该实例重新选择一次；仍无许可时立即拒绝而不排队
+     * @return 实际获得许可的服务实例
+     */
+    private InetSocketAddress acquirePermit(String serviceName, InetSocketAddress serviceAddress,
+                                            Set<InetSocketAddress> excludedAddresses, Invocation invocation,
+                                            CompletableFuture<RpcResponse> future) {
+        AdaptiveConcurrencyLimiter limiter = concurrencyLimiterRegistry.get(serviceName, serviceAddress);
+        if (!limiter.tryAcquire()) {
+            InetSocketAddress rejected = serviceAddress;
+            serviceAddress = null;
+            if (concurrencyLimitProperties.isRerouteEnabled()) {
+                Set<InetSocketAddress> excluded = excludedAddresses == null
+                        ? new HashSet<>() : new HashSet<>(excludedAddresses);
+                excluded.add(rejected);
+                InetSocketAddress alternative = discoverAlternative(serviceName, excluded, invocation);
+                if (alternative != null) {
+                    limiter = concurrencyLimiterRegistry.get(serviceName, alternative);
+                    if (limiter.tryAcquire()) {
+                        serviceAddress = alternative;
+                    }
+                }
+            }
+            if (serviceAddress == null) {
+                throw new RpcException(RpcErrorCode.CLIENT_LIMIT_EXCEEDED,
+                        "服务实例并发已达限制(" + limiter.getLimit() + "): " + serviceName + " (" + rejected + ")");
+            }
+        }
+
+        AdaptiveConcurrencyLimiter acquired = limiter;
+        long startNanos = System.nanoTime();
+        future.whenComplete((response, ex) -> {
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            if (cause == null) {
+                acquired.onSuccess(System.nanoTime() - startNanos);
+            } else if (cause instanceof TimeoutException || isOverloadRejection(cause)) {
+                // 超时和服务端过载拒绝说明限制偏高，乘性收缩
+                acquired.onDropped();
+            } else if (cause instanceof RpcException
+                    && ((RpcException) cause).getErrorCode() == RpcErrorCode.BUSINESS_EXCEPTION) {
+                // 业务异常同样经历了完整的服务端处理，其RTT仍可反映负载
+                acquired.onSuccess(System.nanoTime() - startNanos);
+            } else {
+                // 取消(对冲请求已有结果)、连接失败、服务端内部错误等与服务端负载无关，只释放许可
+                acquired.onIgnore();
+            }
+        });
+        return serviceAddress;
+    }
+
+    /**
+     * 按原调用的路由信息选择排除集合之外的实例，没有其他实例时返回null
+     */
+    private InetSocketAddress discoverAlternative(String serviceName, Set<InetSocketAddress> excluded,
+                                                  Invocation invocation) {
+        try {
+            return serviceDiscovery.discoverService(serviceName, excluded, invocation);
+        } catch (IllegalStateException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 调用前后增减实例在途数，并向服务发现上报调用开始、结果和响应时间，供负载均衡和异常实例检测使用
+     * 取消的调用(对冲请求已有结果)单独上报；业务异常说明实例正常处理了请求，按成功上报。
+     * 上报给选中该实例的负载均衡策略(服务指定的策略或默认策略)
+     */
+    private void reportResultOnComplete(CompletableFuture<RpcResponse> future, String serviceName,
+                                        InetSocketAddress serviceAddress, Invocation invocation) {
+        RpcStatus.beginCount(serviceName, serviceAddress);
+        serviceDiscovery.notifyStart(serviceName, serviceAddress, invocation);
+        long startNanos = System.nanoTime();
+        future.whenComplete((response, ex) -> {
+            RpcStatus.endCount(serviceName, serviceAddress);
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            if (cause instanceof CancellationException) {
+                serviceDiscovery.notifyCancelled(serviceName, serviceAddress, System.nanoTime() - startNanos, invocation);
+                return;
+            }
+            boolean success = cause == null || (cause instanceof RpcException
+                    && ((RpcException) cause).getErrorCode() == RpcErrorCode.BUSINESS_EXCEPTION);
+            serviceDiscovery.notifyResult(serviceName, serviceAddress, success, System.nanoTime() - startNanos, invocation);
+        });
+    }
+
+    private static boolean isOverloadRejection(Throwable cause) {
+        if (!(cause instanceof RpcException)) {
+            return false;
+        }
+        int errorCode = ((RpcException) cause).getErrorCode();
+        return errorCode == RpcErrorCode.SERVER_BUSY || errorCode == RpcErrorCode.SERVER_OVERLOADED;
+    }
+
+    /**
+     * 连接握手已下发该方法的ID时，只发送方法ID和参数；否则按名称发送，兼容未下发方法表的服务端
+     * 方法ID仅在所属连接内有效，因此不修改调用方传入的请求对象
+     */
+    private RpcRequest compactRequest(RpcRequest request, String serviceKey, RpcClientHandler handler) {
+        int methodId = handler.getMethodId(ProviderRegistry.buildMethodKey(serviceKey,
+                ProviderRegistry.buildMethodSignature(request.getMethodName(), request.getParameterTypes())));
+        if (methodId <= 0) {
+            return request;
+        }
+        RpcRequest compact = new RpcRequest();
+        compact.setMethodId(methodId);
+        compact.setVersion(null);
+        compact.setGroup(null);
+        compact.setParameters(request.getParameters());
+        return compact;
+    }
+
+    /**
+     * 获取客户端共享的时间轮定时器，适用于对冲等大量短延迟且常被取消的定时任务
+     */
+    public Timer getTimer() {
+        return timeoutTimer;
+    }
+
+    /**
+     * 获取客户端定时调度器，用于异步重试等定时任务
+     * 使用独立线程池而不是客户端IO线程组，重试的选址和序列化不占用IO线程
+     */
+    public ScheduledExecutorService getScheduler() {
+        return retryScheduler;
     }
 
     /**
@@ -198,6 +467,15 @@ public class RpcClient {
      */
     @PreDestroy
     public void close() {
+        if (connectionPool != null) {
+            connectionPool.close();
+        }
+        if (timeoutTimer != null) {
+            timeoutTimer.stop();
+        }
+        if (retryScheduler != null) {
+            retryScheduler.shutdownNow();
+        }
         if (eventLoopGroup != null) {
             eventLoopGroup.shutdownGracefully();
         }
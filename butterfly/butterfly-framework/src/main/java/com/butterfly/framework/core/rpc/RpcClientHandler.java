@@ -1,49 +1,138 @@
 package com.butterfly.framework.core.rpc;
 
 
-import com.alibaba.fastjson2.JSON;
+import com.butterfly.framework.core.exception.RpcException;
+import com.butterfly.framework.core.rpc.protocol.HandshakeRequest;
+import com.butterfly.framework.core.rpc.protocol.HandshakeResponse;
+import com.butterfly.framework.core.rpc.protocol.RpcMessage;
+import com.butterfly.framework.core.rpc.protocol.RpcProtocol;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 企业级RPC客户端处理器
  * 负责接收服务端响应并完成对应的异步请求
  */
-public class RpcClientHandler extends SimpleChannelInboundHandler<String> {
+public class RpcClientHandler extends SimpleChannelInboundHandler<RpcMessage> {
     private static final Logger logger = LoggerFactory.getLogger(RpcClientHandler.class);
-    private static final int MAX_RECONNECT_ATTEMPTS = 5;
-    private static final long INITIAL_RECONNECT_DELAY = 1000;
-    private static final double RECONNECT_DELAY_MULTIPLIER = 2.0;
-    private final AtomicInteger reconnectAttempts = new AtomicInteger(0);
-    private final RpcClient rpcClient;
-    private final Map<String, CompletableFuture<RpcResponse>> requestFutureMap;
-
-    public RpcClientHandler(RpcClient rpcClient, Map<String, CompletableFuture<RpcResponse>> requestFutureMap) {
-        this.rpcClient = rpcClient;
-        this.requestFutureMap = requestFutureMap;
+    // 本连接的待响应请求表，同时负责分配连接内的请求ID
+    private final PendingCallTable pendingCalls = new PendingCallTable();
+    // 客户端首选的序列化方式
+    private final Serializer preferredSerializer;
+    // 握手协商出的连接默认序列化方式，握手完成前使用所有服务端都支持的JSON
+    private volatile byte serializerType = RpcProtocol.SERIALIZER_JSON;
+    // 服务端支持的序列化方式
+    private volatile byte[] serverSerializerTypes = {RpcProtocol.SERIALIZER_JSON};
+    // 握手下发的方法表，握手完成前为空，请求按名称发送
+    private volatile Map<String, Integer> methodTable = Collections.emptyMap();
+    // 握手完成时完成，连接池在握手完成后才交出连接，首个请求即可使用协商出的序列化方式和方法ID
+    private final CompletableFuture<Void> handshakeFuture = new CompletableFuture<>();
+
+    public RpcClientHandler(Serializer preferredSerializer) {
+        this.preferredSerializer = preferredSerializer;
+    }
+
+    /**
+     * 登记待响应请求
+     * @param future 待完成的异步结果
+     * @return 连接内单调递增的请求ID
+     */
+    public long registerCall(CompletableFuture<RpcResponse> future) {
+        return pendingCalls.register(future);
+    }
+
+    /**
+     * 移除待响应请求 (超时或发送失败时调用)
+     * @param requestId 请求ID
+     * @return 对应的Future，不存在时返回null
+     */
+    public CompletableFuture<RpcResponse> removeCall(long requestId) {
+        return pendingCalls.remove(requestId);
+    }
+
+    /**
+     * 获取握手结果
+     * @return 握手完成时完成，连接在握手前断开时以异常完成
+     */
+    public CompletableFuture<Void> handshakeFuture() {
+        return handshakeFuture;
+    }
+
+    /**
+     * 获取本连接上等待响应的请求数
+     */
+    public int pendingCallCount() {
+        return pendingCalls.size();
+    }
+
+    /**
+     * 为请求选择序列化方式
+     * 服务指定的序列化方式需服务端支持，否则使用连接协商出的默认序列化方式
+     * @param serialization 服务指定的序列化方式名称，可为空
+     * @return 序列化方式标识
+     */
+    public byte selectSerializerType(String serialization) {
+        Serializer serializer = SerializerFactory.getSerializer(serialization);
+        if (serializer != null) {
+            for (byte type : serverSerializerTypes) {
+                if (type == serializer.getType()) {
+                    return type;
+                }
+            }
+        }
+        return serializerType;
+    }
+
+    /**
+     * 查询方法ID
+     * @param methodKey 服务键#方法签名
+     * @return 方法ID，服务端未下发该方法时返回0，此时按名称发送请求
+     */
+    public int getMethodId(String methodKey) {
+        Integer methodId = methodTable.get(methodKey);
+        return methodId != null ? methodId : 0;
+    }
+
+    @Override
+    public void channelActive(ChannelHandlerContext ctx) throws Exception {
+        // 连接建立后发起握手，协商连接默认序列化方式
+        byte[] offered = preferredSerializer == null || preferredSerializer.getType() == RpcProtocol.SERIALIZER_JSON
+                ? new byte[]{RpcProtocol.SERIALIZER_JSON}
+                : new byte[]{preferredSerializer.getType(), RpcProtocol.SERIALIZER_JSON};
+        ctx.writeAndFlush(new RpcMessage(RpcProtocol.TYPE_HANDSHAKE_REQUEST, 0, new HandshakeRequest(offered)));
+        super.channelActive(ctx);
     }
 
     @Override
-    protected void channelRead0(ChannelHandlerContext ctx, String responseJson) {
+    protected void channelRead0(ChannelHandlerContext ctx, RpcMessage message) {
+        if (message.getMessageType() == RpcProtocol.TYPE_HANDSHAKE_RESPONSE) {
+            onHandshake((HandshakeResponse) message.getBody());
+            return;
+        }
         try {
-            logger.info("收到RPC响应: {}", responseJson);
-            RpcResponse response = JSON.parseObject(responseJson, RpcResponse.class);
-            String requestId = response.getRequestId();
+            logger.debug("收到RPC响应: {}", message.getRequestId());
+            RpcResponse response = (RpcResponse) message.getBody();
+            long requestId = message.getRequestId();
 
-            // 从请求映射中获取对应的Future并完成
-            CompletableFuture<RpcResponse> future = requestFutureMap.get(requestId);
+            // 从待响应请求表中取出对应的Future并完成
+            CompletableFuture<RpcResponse> future = pendingCalls.remove(requestId);
             if (future != null) {
-                if (response.isSuccess()) {
+                if (message.getDecodeError() != null) {
+                    // 响应消息体无法解析时只失败对应的请求，连接保持可用
+                    future.completeExceptionally(new RpcException(RpcErrorCode.INTERNAL_ERROR,
+                            "响应消息体反序列化失败: " + message.getDecodeError().getMessage(), message.getDecodeError()));
+                } else if (response.isSuccess()) {
                     future.complete(response);
                 } else {
-                    future.completeExceptionally(new RuntimeException(
-                        String.format("RPC调用失败 [code=%d]: %s", 
+                    // 保留错误码，调用方据此区分服务端过载拒绝与业务异常
+                    future.completeExceptionally(new RpcException(response.getErrorCode(),
+                        String.format("RPC调用失败 [code=%d]: %s",
                         response.getErrorCode(), response.getErrorMessage())));
                 }
             } else {
@@ -54,42 +143,41 @@ public class RpcClientHandler extends SimpleChannelInboundHandler<String> {
         }
     }
 
+    private void onHandshake(HandshakeResponse handshake) {
+        if (handshake.getSupportedSerializerTypes() != null) {
+            serverSerializerTypes = handshake.getSupportedSerializerTypes();
+        }
+        if (handshake.getMethodTable() != null) {
+            methodTable = handshake.getMethodTable();
+        }
+        if (SerializerFactory.isSupported(handshake.getSerializerType())) {
+            serializerType = handshake.getSerializerType();
+        }
+        logger.info("连接握手完成，默认序列化方式: {}，方法数: {}",
+                SerializerFactory.getSerializer(serializerType).getName(), methodTable.size());
+        handshakeFuture.complete(null);
+    }
+
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
         logger.error("RPC客户端处理器异常", cause);
-        // 异常时完成所有未完成的Future
-        requestFutureMap.values().forEach(future ->
-            future.completeExceptionally(new RuntimeException("RPC连接异常", cause)));
-        requestFutureMap.clear();
+        // 异常时完成本连接上所有未完成的Future
+        failPendingCalls(new RuntimeException("RPC连接异常", cause));
         ctx.close();
     }
 
     @Override
-public void channelInactive(ChannelHandlerContext ctx) throws Exception {
-    logger.warn("RPC连接已断开，尝试重连...");
-    int attempt = reconnectAttempts.incrementAndGet();
-    if (attempt <= MAX_RECONNECT_ATTEMPTS) {
-        long delay = (long) (INITIAL_RECONNECT_DELAY * Math.pow(RECONNECT_DELAY_MULTIPLIER, attempt - 1));
-        logger.info("第{}次重连尝试，延迟{}ms...", attempt, delay);
-        ctx.channel().eventLoop().schedule(() -> {
-            try {
-                // 调用RpcClient的重新连接方法
-                rpcClient.reconnect();
-                reconnectAttempts.set(0); // 重置重连计数器
-            } catch (Exception e) {
-                logger.error("重连失败", e);
-                if (reconnectAttempts.get() >= MAX_RECONNECT_ATTEMPTS) {
-                    logger.error("达到最大重连次数{}，停止尝试", MAX_RECONNECT_ATTEMPTS);
-                    // 通知所有等待中的请求
-                    requestFutureMap.values().forEach(future ->
-                        future.completeExceptionally(new RuntimeException("RPC连接已断开且重连失败")));
-                    requestFutureMap.clear();
-                }
-            }
-        }, delay, TimeUnit.MILLISECONDS);
-    } else {
-        logger.error("达到最大重连次数{}，停止尝试", MAX_RECONNECT_ATTEMPTS);
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        // 请求ID仅在本连接内有效，断开后等待中的请求不会再收到响应；连接池会在下次选择时懒重建连接
+        logger.warn("RPC连接已断开: {}", ctx.channel().remoteAddress());
+        failPendingCalls(new RuntimeException("RPC连接已断开"));
+        handshakeFuture.completeExceptionally(new IllegalStateException("RPC连接在握手完成前断开"));
+        super.channelInactive(ctx);
+    }
+
+    private void failPendingCalls(Throwable cause) {
+        for (CompletableFuture<RpcResponse> future : pendingCalls.drain()) {
+            future.completeExceptionally(cause);
+        }
     }
-    super.channelInactive(ctx);
-}
 }
\ No newline at end of file
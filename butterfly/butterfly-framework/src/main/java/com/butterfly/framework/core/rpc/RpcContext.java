@@ -0,0 +1,71 @@
+package com.butterfly.framework.core.rpc;
+
+/**
+ * RPC调用上下文
+ * 服务端执行服务方法期间，通过线程本地变量向业务代码暴露当前请求的截止时间；
+ * 业务代码在同一线程内发起的下游调用会自动以剩余时间作为超时预算，实现截止时间的逐跳传递；
+ * 关键请求标记同样随下游调用传递，避免关键链路在下游过载时被丢弃
+ */
+public final class RpcContext {
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> CRITICAL = new ThreadLocal<>();
+
+    private RpcContext() {
+    }
+
+    /**
+     * 获取当前请求的绝对截止时间
+     * @return 毫秒时间戳，不在RPC请求上下文中或请求未设置截止时间时返回0
+     */
+    public static long getDeadline() {
+        Long deadline = DEADLINE.get();
+        return deadline != null ? deadline : 0;
+    }
+
+    /**
+     * 获取当前请求的剩余时间
+     * @return 剩余毫秒数，未设置截止时间时返回Long.MAX_VALUE，已过期时返回小于等于0的值
+     */
+    public static long getRemainingMillis() {
+        long deadline = getDeadline();
+        return deadline > 0 ? deadline - System.currentTimeMillis() : Long.MAX_VALUE;
+    }
+
+    /**
+     * 设置当前线程的截止时间，由服务端请求处理器在调用服务方法前设置
+     */
+    static void setDeadline(long deadline) {
+        if (deadline > 0) {
+            DEADLINE.set(deadline);
+        } else {
+            DEADLINE.remove();
+        }
+    }
+
+    /**
+     * 当前请求是否为关键请求
+     * @return 不在RPC请求上下文中时返回false
+     */
+    public static boolean isCritical() {
+        return CRITICAL.get() != null;
+    }
+
+    /**
+     * 设置当前线程的关键请求标记，由服务端请求处理器在调用服务方法前设置
+     */
+    static void setCritical(boolean critical) {
+        if (critical) {
+            CRITICAL.set(Boolean.TRUE);
+        } else {
+            CRITICAL.remove();
+        }
+    }
+
+    /**
+     * 清理当前线程的上下文，避免线程池复用线程时泄漏到下一个请求
+     */
+    static void clear() {
+        DEADLINE.remove();
+        CRITICAL.remove();
+    }
+}
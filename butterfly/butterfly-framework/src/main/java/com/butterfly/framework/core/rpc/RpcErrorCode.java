@@ -0,0 +1,29 @@
+package com.butterfly.framework.core.rpc;
+
+/**
+ * RPC错误码定义
+ * 写入RpcResponse.errorCode，客户端据此区分可重试的服务端拒绝与业务异常
+ */
+public final class RpcErrorCode {
+    /** 调用成功 */
+    public static final int SUCCESS = 0;
+    /** 请求消息体无法反序列化，仅该请求失败，连接上的其他请求不受影响 */
+    public static final int BAD_REQUEST = 400;
+    /** 服务或方法不存在 */
+    public static final int SERVICE_NOT_FOUND = 404;
+    /** 客户端到该服务实例的在途请求数已达并发限制，请求未发出 */
+    public static final int CLIENT_LIMIT_EXCEEDED = 429;
+    /** 服务端内部错误(参数转换失败、JVM错误等)，说明该实例处理异常 */
+    public static final int INTERNAL_ERROR = 500;
+    /** 服务端业务线程池已满，请求被快速拒绝 */
+    public static final int SERVER_BUSY = 503;
+
+    /** 服务端排队时延超过目标，请求在执行前被准入控制丢弃，可立即改投其他实例 */
+    public static final int SERVER_OVERLOADED = 529;
+
+    /** 服务方法抛出的业务异常，实例已正常完成处理，不计入实例故障 */
+    public static final int BUSINESS_EXCEPTION = 600;
+
+    private RpcErrorCode() {
+    }
+}
@@ -0,0 +1,148 @@
+package com.butterfly.framework.core.rpc;
+
+import com.butterfly.framework.annotation.RpcMethod;
+import com.butterfly.framework.annotation.RpcService;
+import com.butterfly.framework.core.config.HedgingProperties;
+import com.butterfly.framework.core.faulttolerance.HedgingPolicy;
+import com.butterfly.framework.core.loadbalance.ArgumentHashKeyExtractor;
+import com.butterfly.framework.core.loadbalance.HashKeyExtractor;
+import com.butterfly.framework.core.loadbalance.Invocation;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 代理方法的调用元数据
+ * 在方法首次调用时从@RpcService和@RpcMethod解析一次并缓存，调用热路径上不再反射读取注解
+ */
+public class RpcMethodMetadata {
+    /** 服务接口名称 */
+    private final String serviceName;
+    /** 服务版本号 */
+    private final String version;
+    /** 服务分组 */
+    private final String group;
+    /** 服务指定的序列化方式 */
+    private final String serialization;
+    /** 方法名称 */
+    private final String methodName;
+    /** 参数类型列表 */
+    private final Class<?>[] parameterTypes;
+    /** 参数类型名称列表，写入按名称调用的请求 */
+    private final String[] parameterTypeNames;
+    /** 是否为返回CompletableFuture的异步方法 */
+    private final boolean async;
+    /** 结果的目标类型，异步方法为CompletableFuture的泛型参数 */
+    private final Type resultType;
+    /** 调用超时时间(毫秒)，方法级配置优先于服务级配置，小于等于0表示使用客户端默认值 */
+    private final long timeoutMillis;
+    /** 对冲策略，未启用对冲时为null */
+    private final HedgingPolicy hedgingPolicy;
+    /** 是否为关键请求 */
+    private final boolean critical;
+    /** 服务指定的负载均衡策略，为空时使用默认策略 */
+    private final String loadBalance;
+    /** 一致性哈希路由键提取器 */
+    private final HashKeyExtractor hashKeyExtractor;
+
+    public RpcMethodMetadata(Method method, HedgingProperties hedgingProperties) {
+        Class<?> serviceInterface = method.getDeclaringClass();
+        RpcService rpcService = serviceInterface.getAnnotation(RpcService.class);
+        RpcMethod rpcMethod = method.getAnnotation(RpcMethod.class);
+
+        this.serviceName = serviceInterface.getName();
+        this.version = rpcService != null ? rpcService.version() : "1.0.0";
+        this.group = rpcService != null ? rpcService.group() : "default";
+        this.serialization = rpcService != null ? rpcService.serialization() : null;
+        this.methodName = method.getName();
+        this.parameterTypes = method.getParameterTypes();
+        this.parameterTypeNames = ProviderRegistry.typeNames(parameterTypes);
+        this.async = method.getReturnType() == CompletableFuture.class;
+        this.resultType = async ? futureResultType(method) : method.getGenericReturnType();
+        if (rpcMethod != null && rpcMethod.timeout() > 0) {
+            this.timeoutMillis = rpcMethod.timeout();
+        } else {
+            this.timeoutMillis = rpcService != null ? rpcService.timeout() : 0;
+        }
+        this.hedgingPolicy = createHedgingPolicy(method, rpcMethod, hedgingProperties);
+        this.critical = rpcMethod != null && rpcMethod.critical();
+        this.loadBalance = rpcService != null && !rpcService.loadBalance().isEmpty() ? rpcService.loadBalance() : null;
+        this.hashKeyExtractor = createHashKeyExtractor(method, rpcMethod);
+    }
+
+    private static HashKeyExtractor createHashKeyExtractor(Method method, RpcMethod rpcMethod) {
+        if (rpcMethod == null) {
+            return new ArgumentHashKeyExtractor(0);
+        }
+        Class<? extends HashKeyExtractor> extractorClass = rpcMethod.hashKeyExtractor();
+        if (extractorClass == HashKeyExtractor.class) {
+            return rpcMethod.hashArgument() >= 0 ? new ArgumentHashKeyExtractor(rpcMethod.hashArgument()) : null;
+        }
+        try {
+            return extractorClass.newInstance();
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new IllegalStateException("无法创建路由键提取器: " + extractorClass.getName()
+                    + " (" + method.getDeclaringClass().getName() + "#" + method.getName() + ")", e);
+        }
+    }
+
+    private static HedgingPolicy createHedgingPolicy(Method method, RpcMethod rpcMethod, HedgingProperties properties) {
+        if (properties == null || !properties.isEnabled()) {
+            return null;
+        }
+        boolean configured = properties.getMethods().contains(method.getDeclaringClass().getName() + "." + method.getName());
+        if (!configured && (rpcMethod == null || !rpcMethod.hedging())) {
+            return null;
+        }
+        int delay = rpcMethod != null ? rpcMethod.hedgingDelay() : 0;
+        int maxAttempts = rpcMethod != null ? rpcMethod.maxHedgedAttempts() : 2;
+        return new HedgingPolicy(delay, properties.getDefaultDelayMillis(), properties.getMinSamples(), maxAttempts,
+                properties.getBudgetRatio(), properties.getBudgetMaxTokens());
+    }
+
+    /**
+     * 按元数据构建一次调用的请求对象
+     */
+    public RpcRequest newRequest(Object[] parameters) {
+        RpcRequest request = new RpcRequest();
+        request.setServiceName(serviceName);
+        request.setVersion(version);
+        request.setGroup(group);
+        request.setMethodName(methodName);
+        request.setParameterTypes(parameterTypeNames);
+        request.setParameters(parameters);
+        return request;
+    }
+
+    /**
+     * 按元数据构建一次调用的路由信息
+     */
+    public Invocation newInvocation(Object[] parameters) {
+        return new Invocation(methodName, parameters, loadBalance, hashKeyExtractor);
+    }
+
+    private static Type futureResultType(Method method) {
+        Type returnType = method.getGenericReturnType();
+        if (returnType instanceof ParameterizedType) {
+            return ((ParameterizedType) returnType).getActualTypeArguments()[0];
+        }
+        return Object.class;
+    }
+
+    // Getters
+    public String getServiceName() { return serviceName; }
+    public String getVersion() { return version; }
+    public String getGroup() { return group; }
+    public String getSerialization() { return serialization; }
+    public String getMethodName() { return methodName; }
+    public Class<?>[] getParameterTypes() { return parameterTypes; }
+    public boolean isAsync() { return async; }
+    public Type getResultType() { return resultType; }
+    public long getTimeoutMillis() { return timeoutMillis; }
+    public HedgingPolicy getHedgingPolicy() { return hedgingPolicy; }
+    public boolean isCritical() { return critical; }
+    public String getLoadBalance() { return loadBalance; }
+    public HashKeyExtractor getHashKeyExtractor() { return hashKeyExtractor; }
+}
@@ -1,7 +1,7 @@
 package com.butterfly.framework.core.rpc;
 
 
-import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.util.TypeUtils;
 import com.butterfly.framework.annotation.RpcService;
 import com.butterfly.framework.core.faulttolerance.CircuitBreaker;
 import com.butterfly.framework.core.faulttolerance.DefaultCircuitBreaker;
@@ -9,6 +9,8 @@ import com.butterfly.framework.core.faulttolerance.ExponentialBackoffRetryPolicy
 import com.butterfly.framework.core.faulttolerance.RetryPolicy;
 import com.butterfly.framework.core.config.RetryPolicyProperties;
 import com.butterfly.framework.core.config.CircuitBreakerProperties;
+import com.butterfly.framework.core.config.HedgingProperties;
+import com.butterfly.framework.core.faulttolerance.HedgingPolicy;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.config.BeanPostProcessor;
@@ -17,12 +19,16 @@ import org.springframework.stereotype.Component;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.net.InetSocketAddress;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * RPC服务代理工厂，用于创建带有熔断和重试机制的服务代理
+ * 返回CompletableFuture的接口方法生成异步代理，其余方法阻塞等待结果
  */
 @Component
 public class RpcProxyFactory implements BeanPostProcessor {
@@ -31,13 +37,18 @@ public class RpcProxyFactory implements BeanPostProcessor {
     private final RpcClient rpcClient;
     private final RetryPolicy retryPolicy;
     private final CircuitBreakerProperties circuitBreakerProperties;
+    private final HedgingProperties hedgingProperties;
     private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+    // 方法调用元数据缓存
+    private final Map<Method, RpcMethodMetadata> methodMetadata = new ConcurrentHashMap<>();
 
     @Autowired
-    public RpcProxyFactory(RpcClient rpcClient, RetryPolicyProperties retryPolicyProperties, CircuitBreakerProperties circuitBreakerProperties) {
+    public RpcProxyFactory(RpcClient rpcClient, RetryPolicyProperties retryPolicyProperties, CircuitBreakerProperties circuitBreakerProperties,
+                           HedgingProperties hedgingProperties) {
         this.rpcClient = rpcClient;
         this.retryPolicy = new ExponentialBackoffRetryPolicy(retryPolicyProperties);
         this.circuitBreakerProperties = circuitBreakerProperties;
+        this.hedgingProperties = hedgingProperties;
     }
 
     @Override
@@ -45,7 +56,7 @@ public class RpcProxyFactory implements BeanPostProcessor {
         Class<?> beanClass = bean.getClass();
         // 只为标记了@RpcService注解的接口创建代理
         if (beanClass.isAnnotationPresent(RpcService.class)) {
-            return createProxy(beanClass);
+            return createProxy(bean);
         }
         return bean;
     }
@@ -53,28 +64,65 @@ public class RpcProxyFactory implements BeanPostProcessor {
     /**
      * 创建JDK动态代理
      */
-    private Object createProxy(Class<?> targetClass) {
+    private Object createProxy(Object bean) {
+        Class<?> targetClass = bean.getClass();
         Class<?>[] interfaces = targetClass.getInterfaces();
         return Proxy.newProxyInstance(
                 targetClass.getClassLoader(),
                 interfaces,
-                new RpcInvocationHandler()
+                new RpcInvocationHandler(bean)
         );
     }
 
+    /**
+     * 获取代理背后的本地服务实现
+     * 服务端注册本地服务提供者时需要调用真实实现，而不是再次发起远程调用
+     * @param bean Spring容器中的Bean
+     * @return 本地服务实现，非RPC代理时原样返回
+     */
+    public static Object getTargetBean(Object bean) {
+        if (Proxy.isProxyClass(bean.getClass())) {
+            InvocationHandler handler = Proxy.getInvocationHandler(bean);
+            if (handler instanceof RpcInvocationHandler) {
+                return ((RpcInvocationHandler) handler).target;
+            }
+        }
+        return bean;
+    }
+
     /**
      * RPC调用处理器，实现熔断和重试逻辑
      */
     private class RpcInvocationHandler implements InvocationHandler {
+        // 被代理的本地服务实现
+        private final Object target;
+
+        RpcInvocationHandler(Object target) {
+            this.target = target;
+        }
 
         @Override
         public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
             String methodKey = method.getDeclaringClass().getName() + "." + method.getName();
             CircuitBreaker circuitBreaker = getOrCreateCircuitBreaker(methodKey);
 
+            RpcMethodMetadata metadata = methodMetadata.get(method);
+            if (metadata == null) {
+                metadata = methodMetadata.computeIfAbsent(method, m -> new RpcMethodMetadata(m, hedgingProperties));
+            }
+
+            if (metadata.isAsync()) {
+                // 返回CompletableFuture的方法：重试、熔断均以异步方式组合，调用线程不等待结果
+                RpcMethodMetadata asyncMetadata = metadata;
+                return retryPolicy.executeAsync(
+                        () -> circuitBreaker.executeAsync(() -> sendRequest(asyncMetadata, args)),
+                        rpcClient.getScheduler());
+            }
+
             try {
                 // 执行重试逻辑，重试逻辑内部包含熔断逻辑
-                CircuitBreaker.CircuitBreakerMethod<Object> task = () -> executeWithCircuitBreaker(circuitBreaker, method, args);
+                RpcMethodMetadata syncMetadata = metadata;
+                CircuitBreaker.CircuitBreakerMethod<Object> task = () -> executeWithCircuitBreaker(circuitBreaker, syncMetadata, args);
                     return retryPolicy.<Object>execute(task);
             } catch (CompletionException e) {
                 throw e.getCause();
@@ -101,23 +149,50 @@ public class RpcProxyFactory implements BeanPostProcessor {
         /**
          * 执行带熔断机制的RPC调用
          */
-        private Object executeWithCircuitBreaker(CircuitBreaker circuitBreaker, Method method, Object[] args) throws Exception {
+        private Object executeWithCircuitBreaker(CircuitBreaker circuitBreaker, RpcMethodMetadata metadata, Object[] args) throws Exception {
             return circuitBreaker.execute(() -> {
                 try {
                     // 执行实际的RPC调用
-                    return rpcClient.sendRequest(method.getDeclaringClass().getName(), method.getName(), method.getParameterTypes(), args)
-                        .thenApply(rpcResponse -> {
-                            if (rpcResponse.isSuccess()) {
-                                return JSON.parseObject((byte[]) rpcResponse.getResult(), method.getReturnType());
-                            } else {
-                                throw new RuntimeException(rpcResponse.getErrorMessage());
-                            }
-                        }).join();
+                    return sendRequest(metadata, args).join();
                 } catch (Exception e) {
                     log.error("RPC调用异常，触发熔断计数", e);
                     throw e;
                 }
             });
         }
+
+        /**
+         * 发起一次RPC调用，超时时间取自方法元数据；方法启用对冲时以对冲方式发起
+         * 对冲直接作用于RpcClient返回的原始Future，落败的请求被取消时立即释放待响应登记和并发许可
+         */
+        private CompletableFuture<Object> sendRequest(RpcMethodMetadata metadata, Object[] args) {
+            HedgingPolicy hedgingPolicy = metadata.getHedgingPolicy();
+            CompletableFuture<RpcResponse> responseFuture;
+            if (hedgingPolicy == null) {
+                responseFuture = sendRequest(metadata, args, metadata.getTimeoutMillis(), null);
+            } else {
+                // 对冲请求与原始请求共享同一个超时预算
+                long start = System.currentTimeMillis();
+                long timeout = metadata.getTimeoutMillis();
+                responseFuture = new HedgedInvocation<RpcResponse>(hedgingPolicy, rpcClient.getTimer(), excludedAddresses -> {
+                    long remaining = timeout > 0 ? Math.max(1, timeout - (System.currentTimeMillis() - start)) : 0;
+                    return sendRequest(metadata, args, remaining, excludedAddresses);
+                }).start();
+            }
+            return responseFuture.thenApply(rpcResponse -> {
+                if (rpcResponse.isSuccess()) {
+                    // 结果已由协议层按帧内序列化方式解码，这里只做类型适配
+                    return TypeUtils.cast(rpcResponse.getResult(), metadata.getResultType());
+                } else {
+                    throw new RuntimeException(rpcResponse.getErrorMessage());
+                }
+            });
+        }
+
+        private CompletableFuture<RpcResponse> sendRequest(RpcMethodMetadata metadata, Object[] args, long timeoutMillis,
+                                                           Set<InetSocketAddress> excludedAddresses) {
+            return rpcClient.sendRequest(metadata.newRequest(args), metadata.getSerialization(), timeoutMillis,
+                    excludedAddresses, metadata.isCritical(), metadata.newInvocation(args));
+        }
     }
 }
\ No newline at end of file
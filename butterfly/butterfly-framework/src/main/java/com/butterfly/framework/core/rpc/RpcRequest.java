@@ -9,26 +9,34 @@ import java.io.Serializable;
 public class RpcRequest implements Serializable {
     private static final long serialVersionUID = 1L;
 
-    /** 请求唯一标识，用于异步通信时关联请求与响应 */
-    private String requestId;
+    /** 握手下发的方法ID，大于0时服务端按ID查找方法，服务名、方法名和参数类型可省略 */
+    private int methodId;
     /** 服务接口名称 (全限定类名) */
     private String serviceName;
+    /** 服务版本号 */
+    private String version = "1.0.0";
+    /** 服务分组 */
+    private String group = "default";
     /** 方法名称 */
     private String methodName;
-    /** 参数类型列表 */
-    private Class<?>[] parameterTypes;
+    /** 参数类型名称列表(Class.getName()，如 int、[Ljava.lang.String;)，服务端按服务接口的方法签名匹配，不加载类 */
+    private String[] parameterTypes;
     /** 参数值列表 */
     private Object[] parameters;
 
     // Getters and Setters
-    public String getRequestId() { return requestId; }
-    public void setRequestId(String requestId) { this.requestId = requestId; }
+    public int getMethodId() { return methodId; }
+    public void setMethodId(int methodId) { this.methodId = methodId; }
     public String getServiceName() { return serviceName; }
     public void setServiceName(String serviceName) { this.serviceName = serviceName; }
+    public String getVersion() { return version; }
+    public void setVersion(String version) { this.version = version; }
+    public String getGroup() { return group; }
+    public void setGroup(String group) { this.group = group; }
     public String getMethodName() { return methodName; }
     public void setMethodName(String methodName) { this.methodName = methodName; }
-    public Class<?>[] getParameterTypes() { return parameterTypes; }
-    public void setParameterTypes(Class<?>[] parameterTypes) { this.parameterTypes = parameterTypes; }
+    public String[] getParameterTypes() { return parameterTypes; }
+    public void setParameterTypes(String[] parameterTypes) { this.parameterTypes = parameterTypes; }
     public Object[] getParameters() { return parameters; }
     public void setParameters(Object[] parameters) { this.parameters = parameters; }
 }
\ No newline at end of file
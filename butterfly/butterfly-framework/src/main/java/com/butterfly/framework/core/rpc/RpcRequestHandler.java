@@ -1,63 +1,233 @@
 package com.butterfly.framework.core.rpc;
 
 
-import com.alibaba.fastjson2.JSON;
+import com.butterfly.framework.core.exception.RpcException;
+import com.butterfly.framework.core.rpc.protocol.HandshakeRequest;
+import com.butterfly.framework.core.rpc.protocol.HandshakeResponse;
+import com.butterfly.framework.core.rpc.protocol.RpcMessage;
+import com.butterfly.framework.core.rpc.protocol.RpcProtocol;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
 /**
  * 企业级RPC请求处理器
  * 负责解析RPC请求、执行相应服务方法并返回结果
  */
-public class RpcRequestHandler extends SimpleChannelInboundHandler<String> {
+public class RpcRequestHandler extends SimpleChannelInboundHandler<RpcMessage> {
     private static final Logger logger = LoggerFactory.getLogger(RpcRequestHandler.class);
 
+    private final RequestDispatcher dispatcher;
+    private final ProviderRegistry providerRegistry;
+    private final AdmissionController admissionController;
+
+    public RpcRequestHandler(RequestDispatcher dispatcher, ProviderRegistry providerRegistry,
+                             AdmissionController admissionController) {
+        this.dispatcher = dispatcher;
+        this.providerRegistry = providerRegistry;
+        this.admissionController = admissionController;
+    }
+
     @Override
-    protected void channelRead0(ChannelHandlerContext ctx, String requestJson) throws Exception {
+    protected void channelRead0(ChannelHandlerContext ctx, RpcMessage message) throws Exception {
+        if (message.getMessageType() == RpcProtocol.TYPE_HANDSHAKE_REQUEST) {
+            handleHandshake(ctx, (HandshakeRequest) message.getBody());
+            return;
+        }
+        if (message.getDecodeError() != null) {
+            // 单个请求的消息体无法解析时只向该请求ID返回错误，连接上复用的其他请求继续处理
+            writeError(ctx, message, new RpcException(RpcErrorCode.BAD_REQUEST,
+                    "请求消息体反序列化失败: " + message.getDecodeError().getMessage()));
+            return;
+        }
+        RpcRequest request = (RpcRequest) message.getBody();
+        // 在IO线程查找调用器：按ID发送的请求不携带服务名，需由调用器确定所属服务
+        MethodInvoker invoker;
+        try {
+            invoker = lookupInvoker(request);
+        } catch (RpcException e) {
+            writeError(ctx, message, e);
+            return;
+        }
+
+        boolean critical = (message.getFlags() & RpcProtocol.FLAG_CRITICAL) != 0;
+        AdmissionController.ServiceLoad load = admissionController.getLoad(invoker.getServiceKey());
+        if (load != null && !admissionController.tryAdmit(load, critical)) {
+            writeOverloaded(ctx, message, invoker, "在途请求数已达上限");
+            return;
+        }
+        long receivedNanos = System.nanoTime();
+        try {
+            // IO线程只负责编解码，业务方法按派发模式执行
+            dispatcher.dispatch(invoker.getServiceKey(),
+                    () -> handleRequest(ctx, message, invoker, load, receivedNanos, critical));
+        } catch (RejectedExecutionException e) {
+            if (load != null) {
+                admissionController.release(load);
+            }
+            logger.warn("业务线程池已满，拒绝请求: {}", invoker.getServiceKey());
+            ctx.writeAndFlush(newResponseMessage(message,
+                    errorResponse(RpcErrorCode.SERVER_BUSY, "服务端繁忙: " + invoker.getServiceKey())));
+        }
+    }
+
+    /**
+     * 执行服务调用并写回响应
+     */
+    private void handleRequest(ChannelHandlerContext ctx, RpcMessage message, MethodInvoker invoker,
+                               AdmissionController.ServiceLoad load, long receivedNanos, boolean critical) {
+        if (message.getDeadline() > 0 && System.currentTimeMillis() >= message.getDeadline()) {
+            // 排队期间已超过截止时间，调用方已放弃等待，直接丢弃不再执行
+            logger.debug("请求已超过截止时间，丢弃: {}", message.getRequestId());
+            if (load != null) {
+                admissionController.release(load);
+            }
+            return;
+        }
+        if (load != null && !admissionController.onDequeue(load, System.nanoTime() - receivedNanos, critical)) {
+            // 排队时延超标，执行前丢弃，避免在调用方即将超时的请求上浪费业务线程
+            admissionController.release(load);
+            writeOverloaded(ctx, message, invoker, "排队时延超过目标");
+            return;
+        }
+        boolean completed = true;
         try {
-            logger.info("收到RPC请求: {}", requestJson);
+            logger.debug("收到RPC请求: {}", message.getRequestId());
 
-            // 反序列化请求
-            RpcRequest request = JSON.parseObject(requestJson, RpcRequest.class);
+            // 执行服务调用，截止时间通过RpcContext传递给服务方法及其发起的下游调用
+            RpcContext.setDeadline(message.getDeadline());
+            RpcContext.setCritical(critical);
+            Object result = invoker.invoke(((RpcRequest) message.getBody()).getParameters());
+            if (result instanceof CompletableFuture) {
+                // 异步服务方法：结果完成后再写回响应，不占用业务线程等待
+                completed = false;
+                ((CompletableFuture<?>) result).whenComplete((value, ex) -> {
+                    if (load != null) {
+                        admissionController.release(load);
+                    }
+                    if (ex == null) {
+                        writeResult(ctx, message, value);
+                    } else {
+                        writeError(ctx, message, ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex);
+                    }
+                });
+                return;
+            }
+            writeResult(ctx, message, result);
+        } catch (Throwable e) {
+            writeError(ctx, message, e);
+        } finally {
+            RpcContext.clear();
+            if (completed && load != null) {
+                admissionController.release(load);
+            }
+        }
+    }
 
-            // 执行服务调用 (实际实现中应使用服务注册表和反射调用)
-            Object result = invokeService(request);
+    private void writeOverloaded(ChannelHandlerContext ctx, RpcMessage message, MethodInvoker invoker, String reason) {
+        logger.debug("服务端过载，拒绝请求: {} ({})", invoker.getServiceKey(), reason);
+        ctx.writeAndFlush(newResponseMessage(message,
+                errorResponse(RpcErrorCode.SERVER_OVERLOADED, "服务端过载: " + invoker.getServiceKey() + ", " + reason)));
+    }
 
-            // 构建响应
-            RpcResponse response = new RpcResponse();
-            response.setRequestId(request.getRequestId());
-            response.setResult(result);
-            response.setSuccess(true);
+    private void writeResult(ChannelHandlerContext ctx, RpcMessage message, Object result) {
+        // 构建响应
+        RpcResponse response = new RpcResponse();
+        response.setResult(result);
+        response.setSuccess(true);
+
+        // 发送响应，沿用请求帧的序列化方式
+        ctx.writeAndFlush(newResponseMessage(message, response));
+    }
 
-            // 发送响应
-            ctx.writeAndFlush(JSON.toJSONString(response));
-        } catch (Exception e) {
+    /**
+     * 写回错误响应
+     * 框架抛出的RpcException沿用其错误码；服务方法抛出的异常为业务异常，单独使用BUSINESS_EXCEPTION，
+     * 使调用方能区分实例故障与正常完成处理的业务失败；Error(内存溢出、类加载失败等)属于实例故障
+     */
+    private void writeError(ChannelHandlerContext ctx, RpcMessage message, Throwable e) {
+        if (e instanceof RpcException) {
+            logger.warn("RPC请求处理失败: {}", e.getMessage());
+            ctx.writeAndFlush(newResponseMessage(message, errorResponse(((RpcException) e).getErrorCode(), e.getMessage())));
+        } else if (e instanceof Error) {
             logger.error("处理RPC请求异常", e);
-            RpcResponse errorResponse = new RpcResponse();
-            errorResponse.setSuccess(false);
-            errorResponse.setErrorMessage(e.getMessage());
-            ctx.writeAndFlush(JSON.toJSONString(errorResponse));
+            ctx.writeAndFlush(newResponseMessage(message, errorResponse(RpcErrorCode.INTERNAL_ERROR, String.valueOf(e.getMessage()))));
+        } else {
+            logger.warn("服务方法抛出业务异常: {}", e.toString());
+            ctx.writeAndFlush(newResponseMessage(message, errorResponse(RpcErrorCode.BUSINESS_EXCEPTION, String.valueOf(e.getMessage()))));
+        }
+    }
+
+    private RpcResponse errorResponse(int errorCode, String errorMessage) {
+        RpcResponse errorResponse = new RpcResponse();
+        errorResponse.setSuccess(false);
+        errorResponse.setErrorCode(errorCode);
+        errorResponse.setErrorMessage(errorMessage);
+        return errorResponse;
+    }
+
+    private RpcMessage newResponseMessage(RpcMessage requestMessage, RpcResponse response) {
+        RpcMessage responseMessage = new RpcMessage(RpcProtocol.TYPE_RESPONSE, requestMessage.getRequestId(), response);
+        responseMessage.setSerializerType(requestMessage.getSerializerType());
+        return responseMessage;
+    }
+
+    /**
+     * 处理连接握手，按客户端给出的优先级选择第一个服务端支持的序列化方式
+     */
+    private void handleHandshake(ChannelHandlerContext ctx, HandshakeRequest handshake) {
+        byte selected = RpcProtocol.SERIALIZER_JSON;
+        if (handshake != null && handshake.getSerializerTypes() != null) {
+            for (byte type : handshake.getSerializerTypes()) {
+                if (SerializerFactory.isSupported(type)) {
+                    selected = type;
+                    break;
+                }
+            }
         }
+        HandshakeResponse response = new HandshakeResponse();
+        response.setSerializerType(selected);
+        response.setSupportedSerializerTypes(SerializerFactory.getSupportedTypes());
+        response.setMethodTable(providerRegistry.getMethodTable());
+        ctx.writeAndFlush(new RpcMessage(RpcProtocol.TYPE_HANDSHAKE_RESPONSE, 0, response));
+        logger.info("连接握手完成: {}, 序列化方式: {}", ctx.channel().remoteAddress(),
+                SerializerFactory.getSerializer(selected).getName());
     }
 
     /**
-     * 服务调用实现
-     * 企业级实现中应包含服务发现、负载均衡和反射调用逻辑
+     * 查找服务方法调用器
+     * 从本地服务提供者注册表查找预编译的方法调用器，请求携带方法ID时按ID查找，否则按名称查找
      */
-    private Object invokeService(RpcRequest request) {
-        // 此处为简化实现，实际企业级代码应:
-        // 1. 从服务注册表获取服务实例
-        // 2. 根据负载均衡策略选择具体服务节点
-        // 3. 使用反射机制调用目标方法
-        // 4. 处理方法调用异常
-        return "模拟调用服务: " + request.getServiceName() + ", 方法: " + request.getMethodName();
+    private MethodInvoker lookupInvoker(RpcRequest request) {
+        MethodInvoker invoker = request.getMethodId() > 0
+                ? providerRegistry.lookup(request.getMethodId())
+                : providerRegistry.lookup(request);
+        if (invoker == null) {
+            if (request.getMethodId() > 0) {
+                throw new RpcException(RpcErrorCode.SERVICE_NOT_FOUND, "方法ID不存在: " + request.getMethodId());
+            }
+            throw new RpcException(RpcErrorCode.SERVICE_NOT_FOUND, "服务或方法不存在: "
+                    + ProviderRegistry.buildServiceKey(request.getServiceName(), request.getVersion(), request.getGroup())
+                    + "#" + ProviderRegistry.buildMethodSignature(request.getMethodName(), request.getParameterTypes()));
+        }
+        return invoker;
     }
 
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
-        logger.error("RPC请求处理异常", cause);
+        if (cause instanceof IOException) {
+            // 对端重置或断开连接(如客户端进程退出)属于正常的连接生命周期，不记录堆栈
+            logger.debug("连接异常关闭: {}, 原因: {}", ctx.channel().remoteAddress(), cause.getMessage());
+        } else {
+            logger.error("RPC请求处理异常", cause);
+        }
+        // 消息体解析失败已在解码器中按请求处理，到达这里的是传输异常或帧头损坏，连接无法继续使用
         ctx.close();
     }
 }
\ No newline at end of file
@@ -9,8 +9,6 @@ import java.io.Serializable;
 public class RpcResponse implements Serializable {
     private static final long serialVersionUID = 1L;
 
-    /** 关联的请求ID，用于请求-响应匹配 */
-    private String requestId;
     /** 调用结果数据 */
     private Object result;
     /** 调用是否成功 */
@@ -23,8 +21,6 @@ public class RpcResponse implements Serializable {
     private long timestamp = System.currentTimeMillis();
 
     // Getters and Setters
-    public String getRequestId() { return requestId; }
-    public void setRequestId(String requestId) { this.requestId = requestId; }
     public Object getResult() { return result; }
     public void setResult(Object result) { this.result = result; }
     public boolean isSuccess() { return success; }
@@ -1,5 +1,7 @@
 package com.butterfly.framework.core.rpc;
 
+import com.butterfly.framework.core.rpc.protocol.RpcProtocol;
+
 /**
  * 序列化接口，定义对象与字节数组之间的转换规范
  */
@@ -21,4 +23,21 @@ public interface Serializer {
      */
     <T> T deserialize(byte[] data, Class<T> clazz);
 
+    /**
+     * 获取序列化方式标识，写入协议头的serializer字段
+     * 早期的自定义实现未声明标识时返回SERIALIZER_UNASSIGNED，此类序列化器不参与协议协商
+     * @return 序列化方式标识
+     */
+    default byte getType() {
+        return RpcProtocol.SERIALIZER_UNASSIGNED;
+    }
+
+    /**
+     * 获取序列化方式名称，用于配置和@RpcService注解中指定序列化方式
+     * @return 序列化方式名称，默认为实现类的全限定名
+     */
+    default String getName() {
+        return getClass().getName();
+    }
+
 }
\ No newline at end of file
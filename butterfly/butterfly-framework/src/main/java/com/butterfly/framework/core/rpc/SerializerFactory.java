@@ -0,0 +1,107 @@
+package com.butterfly.framework.core.rpc;
+
+import com.butterfly.framework.core.rpc.protocol.RpcProtocol;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 序列化器工厂
+ * 按协议头中的序列化标识或配置名称查找序列化器，支持通过SPI扩展
+ */
+public final class SerializerFactory {
+    private static final Logger logger = LoggerFactory.getLogger(SerializerFactory.class);
+
+    // 按协议标识索引，解码热路径上直接数组寻址
+    private static final Serializer[] SERIALIZERS_BY_TYPE = new Serializer[256];
+    private static final Map<String, Serializer> SERIALIZERS_BY_NAME = new ConcurrentHashMap<>();
+
+    static {
+        register(new FastJsonSerializer());
+        register(new JsonbSerializer());
+        loadSpiSerializers();
+    }
+
+    private SerializerFactory() {
+    }
+
+    /**
+     * 根据协议头中的序列化标识获取序列化器
+     * @param type 序列化标识
+     * @return 序列化器，不支持时返回null
+     */
+    public static Serializer getSerializer(byte type) {
+        return SERIALIZERS_BY_TYPE[type & 0xFF];
+    }
+
+    /**
+     * 根据名称获取序列化器
+     * @param name 序列化方式名称
+     * @return 序列化器，不支持时返回null
+     */
+    public static Serializer getSerializer(String name) {
+        if (name == null || name.trim().isEmpty()) {
+            return null;
+        }
+        return SERIALIZERS_BY_NAME.get(name.trim().toLowerCase());
+    }
+
+    /**
+     * 是否支持指定的序列化标识
+     */
+    public static boolean isSupported(byte type) {
+        return getSerializer(type) != null;
+    }
+
+    /**
+     * 获取所有已注册的序列化标识
+     * @return 序列化标识数组
+     */
+    public static byte[] getSupportedTypes() {
+        byte[] buffer = new byte[SERIALIZERS_BY_TYPE.length];
+        int count = 0;
+        for (int type = 0; type < SERIALIZERS_BY_TYPE.length; type++) {
+            if (SERIALIZERS_BY_TYPE[type] != null) {
+                buffer[count++] = (byte) type;
+            }
+        }
+        return Arrays.copyOf(buffer, count);
+    }
+
+    /**
+     * 注册序列化器
+     * @param serializer 序列化器
+     */
+    public static synchronized void register(Serializer serializer) {
+        if (serializer.getType() == RpcProtocol.SERIALIZER_UNASSIGNED) {
+            logger.warn("序列化器未声明序列化标识(getType)，无法用于协议协商，忽略: {}", serializer.getClass().getName());
+            return;
+        }
+        Serializer existing = SERIALIZERS_BY_TYPE[serializer.getType() & 0xFF];
+        if (existing != null && existing.getClass() != serializer.getClass()) {
+            logger.warn("序列化标识{}已被{}占用，忽略: {}",
+                    serializer.getType(), existing.getClass().getName(), serializer.getClass().getName());
+            return;
+        }
+        SERIALIZERS_BY_TYPE[serializer.getType() & 0xFF] = serializer;
+        SERIALIZERS_BY_NAME.put(serializer.getName().toLowerCase(), serializer);
+    }
+
+    /**
+     * 通过SPI加载自定义序列化器
+     */
+    private static void loadSpiSerializers() {
+        try {
+            for (Serializer serializer : ServiceLoader.load(Serializer.class)) {
+                register(serializer);
+                logger.info("通过SPI加载自定义序列化器: {}", serializer.getName());
+            }
+        } catch (Exception e) {
+            logger.warn("加载SPI序列化器失败", e);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.butterfly.framework.core.rpc;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.EventLoop;
+import io.netty.channel.SingleThreadEventLoop;
+
+/**
+ * 写合并处理器
+ * 拦截上层的flush，将同一轮事件循环内的多次写出合并为一次flush，减少系统调用次数；
+ * 待刷出的消息数或字节数达到阈值、连接不可写或关闭时立即flush。
+ * 需放在编码器之前(靠近pipeline头部)，以便统计编码后的字节数。所有状态只在IO线程访问，不可共享
+ */
+public class WriteBatchingHandler extends ChannelDuplexHandler {
+    private final int maxPendingMessages;
+    private final int maxPendingBytes;
+    private final Runnable flushTask = this::runScheduledFlush;
+
+    private ChannelHandlerContext ctx;
+    private int pendingMessages;
+    private long pendingBytes;
+    private boolean flushScheduled;
+
+    /**
+     * 构造函数
+     * @param maxPendingMessages 累积多少条消息后立即flush
+     * @param maxPendingBytes 累积多少字节后立即flush
+     */
+    public WriteBatchingHandler(int maxPendingMessages, int maxPendingBytes) {
+        this.maxPendingMessages = Math.max(1, maxPendingMessages);
+        this.maxPendingBytes = Math.max(1, maxPendingBytes);
+    }
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) {
+        this.ctx = ctx;
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+        if (msg instanceof ByteBuf) {
+            pendingBytes += ((ByteBuf) msg).readableBytes();
+        }
+        pendingMessages++;
+        ctx.write(msg, promise);
+        if (pendingMessages >= maxPendingMessages || pendingBytes >= maxPendingBytes) {
+            flushNow(ctx);
+        }
+    }
+
+    @Override
+    public void flush(ChannelHandlerContext ctx) {
+        if (pendingMessages == 0) {
+            // 阈值触发时已经刷出，无需再次flush
+            return;
+        }
+        if (!ctx.channel().isWritable()) {
+            // 出站缓冲已超过高水位，延迟flush只会继续堆积
+            flushNow(ctx);
+            return;
+        }
+        if (!flushScheduled) {
+            flushScheduled = true;
+            scheduleFlush(ctx.channel().eventLoop());
+        }
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) {
+        if (!ctx.channel().isWritable() && pendingMessages > 0) {
+            flushNow(ctx);
+        }
+        ctx.fireChannelWritabilityChanged();
+    }
+
+    @Override
+    public void close(ChannelHandlerContext ctx, ChannelPromise promise) {
+        if (pendingMessages > 0) {
+            flushNow(ctx);
+        }
+        ctx.close(promise);
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) {
+        if (pendingMessages > 0) {
+            flushNow(ctx);
+        }
+    }
+
+    /**
+     * 在本轮事件循环的所有任务(包括调用方线程提交的写任务)执行完之后再flush
+     */
+    private void scheduleFlush(EventLoop eventLoop) {
+        if (eventLoop instanceof SingleThreadEventLoop) {
+            ((SingleThreadEventLoop) eventLoop).executeAfterEventLoopIteration(flushTask);
+        } else {
+            eventLoop.execute(flushTask);
+        }
+    }
+
+    private void runScheduledFlush() {
+        flushScheduled = false;
+        if (pendingMessages > 0) {
+            flushNow(ctx);
+        }
+    }
+
+    private void flushNow(ChannelHandlerContext ctx) {
+        pendingMessages = 0;
+        pendingBytes = 0;
+        ctx.flush();
+    }
+}
@@ -5,8 +5,10 @@ import com.butterfly.framework.core.faulttolerance.CircuitBreaker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 /**
  * 默认熔断器实现
@@ -51,6 +53,33 @@ public <T> T execute(CircuitBreakerMethod<T> method) throws Exception {
         }
     }
 
+    @Override
+    public <T> CompletableFuture<T> executeAsync(Supplier<CompletableFuture<T>> method) {
+        checkStateTransition();
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        if (state == CircuitState.OPEN) {
+            result.completeExceptionally(new CircuitBreakerOpenException("Circuit breaker is open for service: " + serviceName));
+            return result;
+        }
+
+        try {
+            method.get().whenComplete((value, ex) -> {
+                if (ex == null) {
+                    onSuccess();
+                    result.complete(value);
+                } else {
+                    onFailure();
+                    result.completeExceptionally(ex);
+                }
+            });
+        } catch (RuntimeException e) {
+            onFailure();
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
     @Override
     public CircuitBreakerState getState() {
         return null;
@@ -0,0 +1,25 @@
+package com.butterfly.framework.core.rpc.protocol;
+
+import java.io.Serializable;
+
+/**
+ * 连接握手请求
+ * 客户端建立连接后发送，按优先级列出客户端可接受的序列化方式
+ */
+public class HandshakeRequest implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /** 客户端支持的序列化方式标识，按优先级从高到低排列 */
+    private byte[] serializerTypes;
+
+    public HandshakeRequest() {
+    }
+
+    public HandshakeRequest(byte[] serializerTypes) {
+        this.serializerTypes = serializerTypes;
+    }
+
+    // Getters and Setters
+    public byte[] getSerializerTypes() { return serializerTypes; }
+    public void setSerializerTypes(byte[] serializerTypes) { this.serializerTypes = serializerTypes; }
+}
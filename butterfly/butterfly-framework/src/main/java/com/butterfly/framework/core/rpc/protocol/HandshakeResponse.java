@@ -0,0 +1,27 @@
+package com.butterfly.framework.core.rpc.protocol;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * 连接握手响应
+ * 服务端返回协商出的连接默认序列化方式、服务端支持的全部序列化方式以及方法表
+ */
+public class HandshakeResponse implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /** 协商出的连接默认序列化方式 */
+    private byte serializerType;
+    /** 服务端支持的序列化方式，客户端可据此为单个服务选用其他序列化方式 */
+    private byte[] supportedSerializerTypes;
+    /** 方法表: 服务键#方法签名 -> 方法ID，客户端后续请求只需携带方法ID */
+    private Map<String, Integer> methodTable;
+
+    // Getters and Setters
+    public byte getSerializerType() { return serializerType; }
+    public void setSerializerType(byte serializerType) { this.serializerType = serializerType; }
+    public byte[] getSupportedSerializerTypes() { return supportedSerializerTypes; }
+    public void setSupportedSerializerTypes(byte[] supportedSerializerTypes) { this.supportedSerializerTypes = supportedSerializerTypes; }
+    public Map<String, Integer> getMethodTable() { return methodTable; }
+    public void setMethodTable(Map<String, Integer> methodTable) { this.methodTable = methodTable; }
+}
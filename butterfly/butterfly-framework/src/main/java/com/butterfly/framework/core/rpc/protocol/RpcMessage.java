@@ -0,0 +1,48 @@
+package com.butterfly.framework.core.rpc.protocol;
+
+/**
+ * RPC协议消息
+ * 对应一个完整的协议帧，包含协议头字段和消息体对象
+ */
+public class RpcMessage {
+
+    /** 消息类型，取值见{@link RpcProtocol}中的TYPE_*常量 */
+    private byte messageType;
+    /** 消息体的序列化方式，取值见{@link RpcProtocol}中的SERIALIZER_*常量 */
+    private byte serializerType = RpcProtocol.SERIALIZER_JSON;
+    /** 标志位 */
+    private byte flags = RpcProtocol.FLAG_NONE;
+    /** 协议头中的请求ID */
+    private long requestId;
+    /** 本地时钟下的绝对截止时间(毫秒时间戳)，0表示不限 */
+    private long deadline;
+    /** 消息体 (RpcRequest或RpcResponse) */
+    private Object body;
+    /** 消息体反序列化失败的原因，非空时body为空，仅影响本帧对应的请求 */
+    private Throwable decodeError;
+
+    public RpcMessage() {
+    }
+
+    public RpcMessage(byte messageType, long requestId, Object body) {
+        this.messageType = messageType;
+        this.requestId = requestId;
+        this.body = body;
+    }
+
+    // Getters and Setters
+    public byte getMessageType() { return messageType; }
+    public void setMessageType(byte messageType) { this.messageType = messageType; }
+    public byte getSerializerType() { return serializerType; }
+    public void setSerializerType(byte serializerType) { this.serializerType = serializerType; }
+    public byte getFlags() { return flags; }
+    public void setFlags(byte flags) { this.flags = flags; }
+    public long getRequestId() { return requestId; }
+    public void setRequestId(long requestId) { this.requestId = requestId; }
+    public long getDeadline() { return deadline; }
+    public void setDeadline(long deadline) { this.deadline = deadline; }
+    public Object getBody() { return body; }
+    public void setBody(Object body) { this.body = body; }
+    public Throwable getDecodeError() { return decodeError; }
+    public void setDecodeError(Throwable decodeError) { this.decodeError = decodeError; }
+}
@@ -0,0 +1,98 @@
+package com.butterfly.framework.core.rpc.protocol;
+
+import com.butterfly.framework.core.rpc.RpcRequest;
+import com.butterfly.framework.core.rpc.RpcResponse;
+import com.butterfly.framework.core.rpc.Serializer;
+import com.butterfly.framework.core.rpc.SerializerFactory;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+
+/**
+ * RPC协议解码器
+ * 基于协议头中的消息体长度字段拆帧，校验魔数和版本后直接从ByteBuf反序列化消息体
+ * 协议头非法时抛出{@link CorruptedFrameException}由处理器关闭连接；请求或响应的消息体反序列化失败时
+ * 帧边界仍然完整，只在消息上记录失败原因，由处理器针对该请求ID单独处理，不影响连接上的其他请求
+ */
+public class RpcMessageDecoder extends LengthFieldBasedFrameDecoder {
+
+    public RpcMessageDecoder(int maxFrameLength) {
+        super(maxFrameLength, RpcProtocol.LENGTH_FIELD_OFFSET, RpcProtocol.LENGTH_FIELD_LENGTH, 0, 0);
+    }
+
+    @Override
+    protected Object decode(ChannelHandlerContext ctx, ByteBuf in) throws Exception {
+        ByteBuf frame = (ByteBuf) super.decode(ctx, in);
+        if (frame == null) {
+            return null;
+        }
+        try {
+            return decodeFrame(frame);
+        } finally {
+            frame.release();
+        }
+    }
+
+    private RpcMessage decodeFrame(ByteBuf frame) {
+        short magic = frame.readShort();
+        if (magic != RpcProtocol.MAGIC) {
+            throw new CorruptedFrameException("非法的协议魔数: " + Integer.toHexString(magic & 0xFFFF));
+        }
+        byte version = frame.readByte();
+        if (version != RpcProtocol.VERSION) {
+            throw new CorruptedFrameException("不支持的协议版本: " + version);
+        }
+
+        RpcMessage message = new RpcMessage();
+        message.setMessageType(frame.readByte());
+        message.setSerializerType(frame.readByte());
+        message.setFlags(frame.readByte());
+        message.setRequestId(frame.readLong());
+        int bodyLength = frame.readInt();
+        if ((message.getFlags() & RpcProtocol.FLAG_DEADLINE) != 0) {
+            if (bodyLength < 4) {
+                throw new CorruptedFrameException("携带截止时间的帧长度不足: " + bodyLength);
+            }
+            // 剩余时间预算换算为本地绝对截止时间，预算为0时同样视为已过期
+            message.setDeadline(System.currentTimeMillis() + frame.readInt());
+            bodyLength -= 4;
+        }
+
+        Serializer serializer = SerializerFactory.getSerializer(message.getSerializerType());
+        if (serializer == null) {
+            throw new CorruptedFrameException("不支持的序列化方式: " + message.getSerializerType());
+        }
+        if (bodyLength > 0) {
+            // 堆内存且恰好覆盖整个数组时直接复用底层数组，否则只拷贝一次
+            byte[] body = ByteBufUtil.getBytes(frame, frame.readerIndex(), bodyLength, false);
+            Class<?> bodyType = bodyType(message.getMessageType());
+            try {
+                message.setBody(serializer.deserialize(body, bodyType));
+            } catch (RuntimeException e) {
+                if (bodyType != RpcRequest.class && bodyType != RpcResponse.class) {
+                    // 握手消息无法解析时连接无法继续协商，按帧损坏处理
+                    throw e;
+                }
+                message.setDecodeError(e);
+            }
+        }
+        return message;
+    }
+
+    private Class<?> bodyType(byte messageType) {
+        switch (messageType) {
+            case RpcProtocol.TYPE_REQUEST:
+                return RpcRequest.class;
+            case RpcProtocol.TYPE_RESPONSE:
+                return RpcResponse.class;
+            case RpcProtocol.TYPE_HANDSHAKE_REQUEST:
+                return HandshakeRequest.class;
+            case RpcProtocol.TYPE_HANDSHAKE_RESPONSE:
+                return HandshakeResponse.class;
+            default:
+                throw new CorruptedFrameException("未知的消息类型: " + messageType);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.butterfly.framework.core.rpc.protocol;
+
+import com.butterfly.framework.core.rpc.Serializer;
+import com.butterfly.framework.core.rpc.SerializerFactory;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.EncoderException;
+import io.netty.handler.codec.MessageToByteEncoder;
+
+/**
+ * RPC协议编码器
+ * 将RpcMessage直接编码为二进制帧写入ByteBuf，不再经过String中转
+ */
+public class RpcMessageEncoder extends MessageToByteEncoder<RpcMessage> {
+
+    @Override
+    protected void encode(ChannelHandlerContext ctx, RpcMessage msg, ByteBuf out) {
+        Serializer serializer = SerializerFactory.getSerializer(msg.getSerializerType());
+        if (serializer == null) {
+            throw new EncoderException("不支持的序列化方式: " + msg.getSerializerType());
+        }
+        out.writeShort(RpcProtocol.MAGIC);
+        out.writeByte(RpcProtocol.VERSION);
+        out.writeByte(msg.getMessageType());
+        out.writeByte(msg.getSerializerType());
+        byte flags = msg.getFlags();
+        if (msg.getDeadline() > 0) {
+            flags |= RpcProtocol.FLAG_DEADLINE;
+        }
+        out.writeByte(flags);
+        out.writeLong(msg.getRequestId());
+
+        // 先占位消息体长度，写完扩展字段和消息体后回填
+        int lengthIndex = out.writerIndex();
+        out.writeInt(0);
+        if ((flags & RpcProtocol.FLAG_DEADLINE) != 0) {
+            long remaining = msg.getDeadline() - System.currentTimeMillis();
+            out.writeInt((int) Math.max(0, Math.min(Integer.MAX_VALUE, remaining)));
+        }
+        if (msg.getBody() != null) {
+            out.writeBytes(serializer.serialize(msg.getBody()));
+        }
+        out.setInt(lengthIndex, out.writerIndex() - lengthIndex - RpcProtocol.LENGTH_FIELD_LENGTH);
+    }
+}
@@ -0,0 +1,67 @@
+package com.butterfly.framework.core.rpc.protocol;
+
+/**
+ * 二进制RPC协议常量定义
+ * 协议头为定长18字节，格式如下:
+ * <pre>
+ * +-------+---------+------+------------+-------+-----------+-------------+
+ * | magic | version | type | serializer | flags | requestId | bodyLength  |
+ * |  2B   |   1B    |  1B  |     1B     |  1B   |    8B     |     4B      |
+ * +-------+---------+------+------------+-------+-----------+-------------+
+ * </pre>
+ * 协议头之后紧跟bodyLength字节的数据：先是按标志位出现的扩展字段，再是消息体。
+ * 扩展字段按标志位从低到高依次排列:
+ * <pre>
+ * FLAG_DEADLINE - 剩余时间预算(毫秒) 4B
+ * </pre>
+ */
+public final class RpcProtocol {
+
+    /** 魔数，用于快速识别非法连接 */
+    public static final short MAGIC = (short) 0xBF01;
+    /** 协议版本号 */
+    public static final byte VERSION = 1;
+
+    /** 协议头长度 */
+    public static final int HEADER_LENGTH = 18;
+    /** 消息体长度字段在协议头中的偏移量 */
+    public static final int LENGTH_FIELD_OFFSET = 14;
+    /** 消息体长度字段的字节数 */
+    public static final int LENGTH_FIELD_LENGTH = 4;
+
+    /** 消息类型: RPC请求 */
+    public static final byte TYPE_REQUEST = 1;
+    /** 消息类型: RPC响应 */
+    public static final byte TYPE_RESPONSE = 2;
+    /** 消息类型: 连接握手请求 (消息体固定使用JSON序列化) */
+    public static final byte TYPE_HANDSHAKE_REQUEST = 3;
+    /** 消息类型: 连接握手响应 (消息体固定使用JSON序列化) */
+    public static final byte TYPE_HANDSHAKE_RESPONSE = 4;
+    /** 消息类型: 心跳请求 (无消息体，连接读空闲时由客户端发送) */
+    public static final byte TYPE_HEARTBEAT_REQUEST = 5;
+    /** 消息类型: 心跳响应 (无消息体，requestId与心跳请求一致) */
+    public static final byte TYPE_HEARTBEAT_RESPONSE = 6;
+
+    /** 序列化方式: 未声明标识的自定义序列化器，不能写入协议头 */
+    public static final byte SERIALIZER_UNASSIGNED = 0;
+    /** 序列化方式: FastJSON2文本JSON */
+    public static final byte SERIALIZER_JSON = 1;
+    /** 序列化方式: FastJSON2 JSONB二进制格式 */
+    public static final byte SERIALIZER_JSONB = 2;
+
+    /** 标志位: 无 */
+    public static final byte FLAG_NONE = 0;
+    /**
+     * 标志位: 携带调用截止时间
+     * 线上传输的是发送时刻的剩余时间预算，接收方据此换算为本地的绝对截止时间，不受两端时钟偏差影响
+     */
+    public static final byte FLAG_DEADLINE = 0x01;
+    /**
+     * 标志位: 关键请求
+     * 服务端过载时准入控制优先丢弃非关键请求，关键请求仍受业务线程池容量限制；不携带扩展字段
+     */
+    public static final byte FLAG_CRITICAL = 0x02;
+
+    private RpcProtocol() {
+    }
+}
@@ -2,7 +2,10 @@ package com.butterfly.framework.starter;
 
 import com.butterfly.framework.annotation.RpcService;
 import com.butterfly.framework.config.NettyServerConfig;
+import com.butterfly.framework.core.config.LocalityProperties;
 import com.butterfly.framework.core.registry.ServiceRegistry;
+import com.butterfly.framework.core.rpc.ProviderRegistry;
+import com.butterfly.framework.core.rpc.RpcProxyFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeansException;
@@ -32,13 +35,18 @@ public class ServiceRegistrationAutoConfiguration implements ApplicationContextA
 
     private final ServiceRegistry serviceRegistry;
     private final NettyServerConfig nettyServerConfig;
+    private final ProviderRegistry providerRegistry;
+    private final LocalityProperties localityProperties;
     private ApplicationContext applicationContext;
     private final AtomicBoolean isRunning = new AtomicBoolean(false);
 
     @Autowired
-    public ServiceRegistrationAutoConfiguration(ServiceRegistry serviceRegistry, NettyServerConfig nettyServerConfig) {
+    public ServiceRegistrationAutoConfiguration(ServiceRegistry serviceRegistry, NettyServerConfig nettyServerConfig,
+                                                ProviderRegistry providerRegistry, LocalityProperties localityProperties) {
         this.serviceRegistry = serviceRegistry;
         this.nettyServerConfig = nettyServerConfig;
+        this.providerRegistry = providerRegistry;
+        this.localityProperties = localityProperties;
     }
 
     @Override
@@ -87,7 +95,7 @@ public class ServiceRegistrationAutoConfiguration implements ApplicationContextA
         // 处理直接注解在类上的情况
         if (rpcService != null) {
             Class<?> interfaceClass = rpcService.interfaceClass() == void.class ? interfaces[0] : rpcService.interfaceClass();
-            registerService(interfaceClass, rpcService, serviceAddress);
+            registerService(interfaceClass, rpcService, serviceBean, serviceAddress);
             return;
         }
 
@@ -95,7 +103,7 @@ public class ServiceRegistrationAutoConfiguration implements ApplicationContextA
         for (Class<?> iface : interfaces) {
             rpcService = iface.getAnnotation(RpcService.class);
             if (rpcService != null) {
-                registerService(iface, rpcService, serviceAddress);
+                registerService(iface, rpcService, serviceBean, serviceAddress);
             }
         }
     }
@@ -103,11 +111,13 @@ public class ServiceRegistrationAutoConfiguration implements ApplicationContextA
     /**
      * 执行服务注册
      */
-    private void registerService(Class<?> interfaceClass, RpcService rpcService, InetSocketAddress serviceAddress) {
-        String serviceName = String.format("%s:%s:%s",
-                interfaceClass.getName(),
-                rpcService.version(),
-                rpcService.group());
+    private void registerService(Class<?> interfaceClass, RpcService rpcService, Object serviceBean,
+                                 InetSocketAddress serviceAddress) {
+        String serviceName = buildServiceName(interfaceClass, rpcService);
+
+        // 先注册本地服务提供者，保证服务对外可见时已能处理请求
+        providerRegistry.register(interfaceClass, rpcService.version(), rpcService.group(),
+                RpcProxyFactory.getTargetBean(serviceBean));
 
         // 构建服务元数据
         Map<String, String> metadata = new HashMap<>();
@@ -116,6 +126,12 @@ public class ServiceRegistrationAutoConfiguration implements ApplicationContextA
         metadata.put("timeout", String.valueOf(rpcService.timeout()));
         metadata.put("ip", serviceAddress.getHostString());
         metadata.put("port", String.valueOf(serviceAddress.getPort()));
+        metadata.put(ServiceRegistry.METADATA_WEIGHT, String.valueOf(nettyServerConfig.getWeight()));
+        metadata.put(ServiceRegistry.METADATA_START_TIME, String.valueOf(System.currentTimeMillis()));
+        String zone = localityProperties.getZone();
+        if (zone != null && !zone.trim().isEmpty()) {
+            metadata.put(ServiceRegistry.METADATA_ZONE, zone.trim());
+        }
 
         // 注册服务
         serviceRegistry.register(serviceName, serviceAddress, metadata);
@@ -175,10 +191,7 @@ public class ServiceRegistrationAutoConfiguration implements ApplicationContextA
      * 构建服务名称
      */
     private String buildServiceName(Class<?> interfaceClass, RpcService rpcService) {
-        return String.format("%s:%s:%s",
-                interfaceClass.getName(),
-                rpcService.version(),
-                rpcService.group());
+        return ProviderRegistry.buildServiceKey(interfaceClass.getName(), rpcService.version(), rpcService.group());
     }
 
     @Override
@@ -0,0 +1,84 @@
+package com.butterfly.framework.core.faulttolerance;
+
+import com.butterfly.framework.core.config.OutlierDetectionProperties;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * 被动异常实例检测器测试
+ */
+public class OutlierDetectorTest {
+    private static final String SERVICE = "com.example.OrderService:1.0.0:default";
+
+    private static final InetSocketAddress A = InetSocketAddress.createUnresolved("10.0.0.1", 8090);
+    private static final InetSocketAddress B = InetSocketAddress.createUnresolved("10.0.0.2", 8090);
+    private static final InetSocketAddress C = InetSocketAddress.createUnresolved("10.0.0.3", 8090);
+
+    private OutlierDetector detector;
+
+    @Before
+    public void setUp() {
+        OutlierDetectionProperties properties = new OutlierDetectionProperties();
+        properties.setConsecutiveErrors(1);
+        properties.setBaseEjectionMillis(200);
+        properties.setMaxEjectionPercent(50);
+        // 周期分析不参与本测试
+        properties.setIntervalMillis(60000);
+        detector = new OutlierDetector(properties);
+    }
+
+    @After
+    public void tearDown() {
+        detector.close();
+    }
+
+    @Test
+    public void filteredViewIsReusedWhileEjectionsAreUnchanged() {
+        List<InetSocketAddress> addresses = Collections.unmodifiableList(Arrays.asList(A, B, C));
+        assertSame(addresses, detector.filter(SERVICE, addresses));
+
+        detector.onResult(SERVICE, B, false, 0);
+        List<InetSocketAddress> filtered = detector.filter(SERVICE, addresses);
+        assertEquals(Arrays.asList(A, C), filtered);
+        // 同一地址列表且摘除状态不变时复用同一结果，不再分配新列表
+        assertSame(filtered, detector.filter(SERVICE, addresses));
+
+        // 地址列表变更后重新过滤
+        List<InetSocketAddress> changed = new ArrayList<>(addresses);
+        List<InetSocketAddress> refiltered = detector.filter(SERVICE, changed);
+        assertNotSame(filtered, refiltered);
+        assertEquals(Arrays.asList(A, C), refiltered);
+    }
+
+    @Test
+    public void newEjectionInvalidatesFilteredView() {
+        List<InetSocketAddress> addresses = Collections.unmodifiableList(Arrays.asList(A, B, C, A, B, C));
+        detector.onResult(SERVICE, B, false, 0);
+        assertEquals(Arrays.asList(A, C, A, C), detector.filter(SERVICE, addresses));
+
+        detector.onResult(SERVICE, C, false, 0);
+        assertEquals(Arrays.asList(A, A, C), detector.filter(SERVICE, addresses));
+    }
+
+    @Test
+    public void expiredEjectionInvalidatesFilteredView() throws InterruptedException {
+        List<InetSocketAddress> addresses = Collections.unmodifiableList(Arrays.asList(A, B, C));
+        detector.onResult(SERVICE, B, false, 0);
+        assertEquals(Arrays.asList(A, C), detector.filter(SERVICE, addresses));
+
+        Thread.sleep(300);
+        // 摘除到期后实例重新可用，缓存的过滤结果随之失效
+        assertSame(addresses, detector.filter(SERVICE, addresses));
+    }
+}
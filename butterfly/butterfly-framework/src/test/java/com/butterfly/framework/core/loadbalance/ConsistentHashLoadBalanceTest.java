@@ -0,0 +1,142 @@
+package com.butterfly.framework.core.loadbalance;
+
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 一致性哈希负载均衡测试
+ */
+public class ConsistentHashLoadBalanceTest {
+    private static final String SERVICE = "com.example.CacheService:1.0.0:default";
+
+    private static List<InetSocketAddress> addresses(int count) {
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            addresses.add(InetSocketAddress.createUnresolved("10.0.0." + (i + 1), 8090));
+        }
+        return Collections.unmodifiableList(addresses);
+    }
+
+    private static Invocation invocation(String key) {
+        return new Invocation("get", new Object[]{key}, "consistentHash", new ArgumentHashKeyExtractor(0));
+    }
+
+    @Test
+    public void ringPointsAreInUnsignedAscendingOrder() {
+        ConsistentHashLoadBalance.HashRing ring = new ConsistentHashLoadBalance.HashRing(addresses(8), 160);
+        long[] points = ring.points;
+        assertEquals(8 * 160, points.length);
+        boolean high = false;
+        for (int i = 0; i < points.length; i++) {
+            assertTrue("哈希值应为32位无符号数", points[i] >= 0 && points[i] <= 0xFFFFFFFFL);
+            if (i > 0) {
+                assertTrue("虚拟节点未按升序排列: " + i, points[i - 1] <= points[i]);
+            }
+            high |= points[i] >= 0x80000000L;
+        }
+        assertTrue("环上应包含高位为1的哈希值", high);
+    }
+
+    @Test
+    public void locateMatchesLinearScan() {
+        ConsistentHashLoadBalance.HashRing ring = new ConsistentHashLoadBalance.HashRing(addresses(5), 40);
+        Random random = new Random(42);
+        for (int i = 0; i < 10000; i++) {
+            long hash = random.nextLong() & 0xFFFFFFFFL;
+            // 顺时针第一个不小于hash的虚拟节点，没有则回绕到最小的虚拟节点
+            int expected = -1;
+            int smallest = 0;
+            for (int j = 0; j < ring.points.length; j++) {
+                if (ring.points[j] >= hash && (expected < 0 || ring.points[j] < ring.points[expected])) {
+                    expected = j;
+                }
+                if (ring.points[j] < ring.points[smallest]) {
+                    smallest = j;
+                }
+            }
+            InetSocketAddress expectedNode = ring.nodes[expected >= 0 ? expected : smallest];
+            assertEquals(expectedNode, ring.locate(hash, null));
+        }
+    }
+
+    @Test
+    public void sameKeyAlwaysMapsToSameInstance() {
+        ConsistentHashLoadBalance loadBalance = new ConsistentHashLoadBalance();
+        List<InetSocketAddress> addresses = addresses(6);
+        for (int i = 0; i < 200; i++) {
+            String key = "user-" + i;
+            InetSocketAddress first = loadBalance.select(addresses, SERVICE, invocation(key));
+            for (int round = 0; round < 5; round++) {
+                assertEquals(first, loadBalance.select(addresses, SERVICE, invocation(key)));
+            }
+            // 内容相同的新列表对象同样映射到同一实例
+            assertEquals(first, loadBalance.select(new ArrayList<>(addresses), SERVICE, invocation(key)));
+        }
+    }
+
+    @Test
+    public void removingInstanceOnlyMovesItsOwnKeys() {
+        ConsistentHashLoadBalance loadBalance = new ConsistentHashLoadBalance();
+        List<InetSocketAddress> addresses = addresses(6);
+        InetSocketAddress removed = addresses.get(2);
+        List<InetSocketAddress> remaining = new ArrayList<>(addresses);
+        remaining.remove(removed);
+
+        int moved = 0;
+        for (int i = 0; i < 2000; i++) {
+            String key = "order-" + i;
+            InetSocketAddress before = loadBalance.select(addresses, SERVICE, invocation(key));
+            InetSocketAddress after = loadBalance.select(remaining, SERVICE, invocation(key));
+            if (!before.equals(removed)) {
+                assertEquals("未被移除实例上的路由键不应迁移", before, after);
+            } else {
+                moved++;
+            }
+        }
+        assertTrue("被移除实例应承担部分路由键", moved > 0);
+    }
+
+    @Test
+    public void keysSpreadAcrossInstances() {
+        ConsistentHashLoadBalance loadBalance = new ConsistentHashLoadBalance();
+        List<InetSocketAddress> addresses = addresses(4);
+        int[] counts = new int[addresses.size()];
+        int keys = 20000;
+        for (int i = 0; i < keys; i++) {
+            counts[addresses.indexOf(loadBalance.select(addresses, SERVICE, invocation("k" + i)))]++;
+        }
+        for (int count : counts) {
+            // 160个虚拟节点时各实例分到的路由键偏差应在平均值的±30%以内
+            assertTrue("路由键分布不均: " + count, Math.abs(count - keys / 4) < keys / 4 * 0.3);
+        }
+    }
+
+    @Test
+    public void excludedInstanceFallsToNextNodeOnRing() {
+        ConsistentHashLoadBalance loadBalance = new ConsistentHashLoadBalance();
+        List<InetSocketAddress> addresses = addresses(6);
+        for (int i = 0; i < 500; i++) {
+            String key = "order-" + i;
+            InetSocketAddress primary = loadBalance.select(addresses, SERVICE, invocation(key));
+            Set<InetSocketAddress> excluded = Collections.singleton(primary);
+            List<InetSocketAddress> remaining = new ArrayList<>(addresses);
+            remaining.remove(primary);
+
+            InetSocketAddress hedged = loadBalance.select(addresses, SERVICE, invocation(key), excluded);
+            assertEquals("排除后应与按剩余实例建环的结果一致", loadBalance.select(remaining, SERVICE, invocation(key)), hedged);
+            assertEquals(primary, loadBalance.select(addresses, SERVICE, invocation(key)));
+        }
+        assertNull(loadBalance.select(addresses(1), SERVICE, invocation("k"), new HashSet<>(addresses(1))));
+    }
+}
@@ -0,0 +1,105 @@
+package com.butterfly.framework.core.loadbalance;
+
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Peak-EWMA负载均衡测试
+ * 以离散事件模拟固定速率到达的请求，比较一个实例变慢时Peak-EWMA与轮询的流量分配和平均延迟
+ */
+public class PeakEwmaLoadBalanceTest {
+    private static final String SERVICE = "com.example.QueryService:1.0.0:default";
+    private static final int REQUESTS = 20000;
+    // 请求到达间隔与各实例的响应延迟(模拟时间，毫秒)
+    private static final long ARRIVAL_INTERVAL_MILLIS = 1;
+    private static final long FAST_LATENCY_MILLIS = 5;
+    private static final long SLOW_LATENCY_MILLIS = 50;
+
+    private static List<InetSocketAddress> addresses(int count) {
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            addresses.add(InetSocketAddress.createUnresolved("10.0.0." + (i + 1), 8090));
+        }
+        return Collections.unmodifiableList(addresses);
+    }
+
+    /**
+     * 模拟结果：慢实例承担的请求比例与全部请求的平均延迟
+     */
+    private static final class SimulationResult {
+        private final double slowShare;
+        private final double meanLatencyMillis;
+
+        SimulationResult(double slowShare, double meanLatencyMillis) {
+            this.slowShare = slowShare;
+            this.meanLatencyMillis = meanLatencyMillis;
+        }
+    }
+
+    private static SimulationResult simulate(LoadBalance loadBalance, List<InetSocketAddress> addresses,
+                                             InetSocketAddress slow) {
+        loadBalance.init(null, null);
+        // 按完成时间排序的在途请求: [完成时间, 实例下标, 延迟]
+        PriorityQueue<long[]> inflight = new PriorityQueue<>((x, y) -> Long.compare(x[0], y[0]));
+        Map<InetSocketAddress, Integer> counts = new HashMap<>();
+        long totalLatency = 0;
+        for (int i = 0; i < REQUESTS; i++) {
+            long now = i * ARRIVAL_INTERVAL_MILLIS;
+            while (!inflight.isEmpty() && inflight.peek()[0] <= now) {
+                long[] done = inflight.poll();
+                loadBalance.notifyResult(addresses.get((int) done[1]), SERVICE, true, done[2]);
+            }
+            InetSocketAddress selected = loadBalance.select(addresses, SERVICE);
+            counts.merge(selected, 1, Integer::sum);
+            long latency = selected.equals(slow) ? SLOW_LATENCY_MILLIS : FAST_LATENCY_MILLIS;
+            totalLatency += latency;
+            loadBalance.notifyStart(selected, SERVICE);
+            inflight.add(new long[]{now + latency, addresses.indexOf(selected), latency});
+        }
+        int slowCount = counts.getOrDefault(slow, 0);
+        return new SimulationResult((double) slowCount / REQUESTS, (double) totalLatency / REQUESTS);
+    }
+
+    @Test
+    public void peakEwmaAvoidsSlowInstanceComparedToRoundRobin() {
+        List<InetSocketAddress> addresses = addresses(5);
+        InetSocketAddress slow = addresses.get(2);
+
+        SimulationResult roundRobin = simulate(new RoundRobinLoadBalance(), addresses, slow);
+        SimulationResult peakEwma = simulate(new PeakEwmaLoadBalance(), addresses, slow);
+
+        // 轮询不感知延迟，慢实例固定承担1/5的请求
+        assertEquals(0.2, roundRobin.slowShare, 0.01);
+        assertTrue("Peak-EWMA应将绝大部分流量避开慢实例: " + peakEwma.slowShare, peakEwma.slowShare < 0.02);
+        assertTrue("Peak-EWMA平均延迟应明显低于轮询: " + peakEwma.meanLatencyMillis + " / " + roundRobin.meanLatencyMillis,
+                peakEwma.meanLatencyMillis < roundRobin.meanLatencyMillis * 0.6);
+    }
+
+    @Test
+    public void instanceWithoutSamplesTakesOneRequestUntilFirstResponse() {
+        List<InetSocketAddress> addresses = addresses(2);
+        PeakEwmaLoadBalance loadBalance = new PeakEwmaLoadBalance();
+        loadBalance.init(null, null);
+        InetSocketAddress known = addresses.get(0);
+        InetSocketAddress fresh = addresses.get(1);
+        loadBalance.notifyStart(known, SERVICE);
+        loadBalance.notifyResult(known, SERVICE, true, FAST_LATENCY_MILLIS);
+
+        // 新实例代价为0，首次必然胜出；在首个响应返回前，其代价高于任何有样本的实例
+        assertEquals(fresh, loadBalance.select(addresses, SERVICE));
+        loadBalance.notifyStart(fresh, SERVICE);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(known, loadBalance.select(addresses, SERVICE));
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.butterfly.framework.core.loadbalance;
+
+import com.butterfly.framework.core.registry.ServiceRegistry;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * 平滑加权轮询负载均衡测试
+ */
+public class WeightedRoundRobinLoadBalanceTest {
+    private static final String SERVICE = "com.example.OrderService:1.0.0:default";
+
+    private static final InetSocketAddress A = InetSocketAddress.createUnresolved("10.0.0.1", 8090);
+    private static final InetSocketAddress B = InetSocketAddress.createUnresolved("10.0.0.2", 8090);
+    private static final InetSocketAddress C = InetSocketAddress.createUnresolved("10.0.0.3", 8090);
+
+    private static WeightedRoundRobinLoadBalance loadBalance(Map<InetSocketAddress, Integer> weights) {
+        WeightedRoundRobinLoadBalance loadBalance = new WeightedRoundRobinLoadBalance();
+        loadBalance.init(null, (serviceName, address) -> {
+            Integer weight = weights.get(address);
+            return weight != null
+                    ? Collections.singletonMap(ServiceRegistry.METADATA_WEIGHT, String.valueOf(weight))
+                    : Collections.emptyMap();
+        });
+        return loadBalance;
+    }
+
+    private static Map<InetSocketAddress, Integer> weights(int a, int b, int c) {
+        Map<InetSocketAddress, Integer> weights = new HashMap<>();
+        weights.put(A, a);
+        weights.put(B, b);
+        weights.put(C, c);
+        return weights;
+    }
+
+    private static InetSocketAddress[] select(WeightedRoundRobinLoadBalance loadBalance,
+                                              List<InetSocketAddress> addresses, int count) {
+        InetSocketAddress[] selected = new InetSocketAddress[count];
+        for (int i = 0; i < count; i++) {
+            selected[i] = loadBalance.select(addresses, SERVICE);
+        }
+        return selected;
+    }
+
+    @Test
+    public void producesSmoothNginxSequence() {
+        WeightedRoundRobinLoadBalance loadBalance = loadBalance(weights(5, 1, 1));
+        List<InetSocketAddress> addresses = Collections.unmodifiableList(Arrays.asList(A, B, C));
+
+        InetSocketAddress[] expected = {A, A, B, A, C, A, A};
+        assertArrayEquals(expected, select(loadBalance, addresses, 7));
+        // 下一个周期重复同一序列
+        assertArrayEquals(expected, select(loadBalance, addresses, 7));
+    }
+
+    @Test
+    public void selectionCountsAreProportionalToWeights() {
+        WeightedRoundRobinLoadBalance loadBalance = loadBalance(weights(300, 200, 100));
+        List<InetSocketAddress> addresses = Collections.unmodifiableList(Arrays.asList(A, B, C));
+
+        Map<InetSocketAddress, Integer> counts = new HashMap<>();
+        for (InetSocketAddress address : select(loadBalance, addresses, 600)) {
+            counts.merge(address, 1, Integer::sum);
+        }
+        assertEquals(300, (int) counts.get(A));
+        assertEquals(200, (int) counts.get(B));
+        assertEquals(100, (int) counts.get(C));
+    }
+
+    @Test
+    public void zeroWeightInstanceReceivesNoTraffic() {
+        WeightedRoundRobinLoadBalance loadBalance = loadBalance(weights(1, 0, 1));
+        List<InetSocketAddress> addresses = Collections.unmodifiableList(Arrays.asList(A, B, C));
+
+        for (InetSocketAddress address : select(loadBalance, addresses, 100)) {
+            assertFalse(address.equals(B));
+        }
+    }
+
+    @Test
+    public void addressChangeRebuildsSequence() {
+        WeightedRoundRobinLoadBalance loadBalance = loadBalance(weights(5, 1, 1));
+        select(loadBalance, Collections.unmodifiableList(Arrays.asList(A, B, C)), 3);
+
+        List<InetSocketAddress> reduced = new ArrayList<>(Arrays.asList(B, C));
+        for (InetSocketAddress address : select(loadBalance, reduced, 10)) {
+            assertFalse("已下线实例不应再被选中", address.equals(A));
+        }
+    }
+
+    @Test
+    public void exclusionKeepsSequencePosition() {
+        WeightedRoundRobinLoadBalance loadBalance = loadBalance(weights(5, 1, 1));
+        List<InetSocketAddress> addresses = Collections.unmodifiableList(Arrays.asList(A, B, C));
+        assertArrayEquals(new InetSocketAddress[]{A, A}, select(loadBalance, addresses, 2));
+
+        // 排除A时跳过序列中的A，序列不因排除重建，后续选择从原位置继续
+        assertEquals(B, loadBalance.select(addresses, SERVICE, null, Collections.singleton(A)));
+        assertArrayEquals(new InetSocketAddress[]{A, C, A, A}, select(loadBalance, addresses, 4));
+    }
+}
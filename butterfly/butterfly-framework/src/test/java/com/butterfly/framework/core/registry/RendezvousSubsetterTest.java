@@ -0,0 +1,127 @@
+package com.butterfly.framework.core.registry;
+
+import com.butterfly.framework.core.config.SubsetProperties;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Rendezvous哈希客户端子集测试
+ */
+public class RendezvousSubsetterTest {
+
+    private static RendezvousSubsetter subsetter(String clientId, int size) {
+        SubsetProperties properties = new SubsetProperties();
+        properties.setEnabled(true);
+        properties.setSize(size);
+        properties.setClientId(clientId);
+        return new RendezvousSubsetter(properties);
+    }
+
+    private static List<InetSocketAddress> addresses(int count) {
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            addresses.add(InetSocketAddress.createUnresolved("10.0." + (i / 250) + "." + (i % 250 + 1), 8090));
+        }
+        return addresses;
+    }
+
+    private static int difference(Set<InetSocketAddress> before, Set<InetSocketAddress> after) {
+        Set<InetSocketAddress> removed = new HashSet<>(before);
+        removed.removeAll(after);
+        return removed.size();
+    }
+
+    @Test
+    public void disabledOrSmallListIsReturnedAsIs() {
+        SubsetProperties properties = new SubsetProperties();
+        properties.setSize(3);
+        List<InetSocketAddress> addresses = addresses(10);
+        assertSame(addresses, new RendezvousSubsetter(properties).select(addresses));
+
+        List<InetSocketAddress> small = addresses(3);
+        assertSame(small, subsetter("client-1", 3).select(small));
+    }
+
+    @Test
+    public void subsetIsIndependentOfInputOrder() {
+        RendezvousSubsetter subsetter = subsetter("client-1", 10);
+        List<InetSocketAddress> addresses = addresses(50);
+        Set<InetSocketAddress> expected = new HashSet<>(subsetter.select(addresses));
+        assertEquals(10, expected.size());
+
+        Random random = new Random(1);
+        for (int i = 0; i < 20; i++) {
+            List<InetSocketAddress> shuffled = new ArrayList<>(addresses);
+            Collections.shuffle(shuffled, random);
+            assertEquals(expected, new HashSet<>(subsetter.select(shuffled)));
+        }
+    }
+
+    @Test
+    public void removingInstanceChangesAtMostOneMember() {
+        RendezvousSubsetter subsetter = subsetter("client-1", 10);
+        List<InetSocketAddress> addresses = addresses(50);
+        Set<InetSocketAddress> before = new HashSet<>(subsetter.select(addresses));
+
+        for (InetSocketAddress removed : addresses) {
+            List<InetSocketAddress> remaining = new ArrayList<>(addresses);
+            remaining.remove(removed);
+            Set<InetSocketAddress> after = new HashSet<>(subsetter.select(remaining));
+            assertEquals(10, after.size());
+            if (before.contains(removed)) {
+                assertEquals("只有下线的成员被替换", 1, difference(before, after));
+                assertFalse(after.contains(removed));
+            } else {
+                assertEquals("子集外实例下线不影响子集", before, after);
+            }
+        }
+    }
+
+    @Test
+    public void addingInstanceChangesAtMostOneMember() {
+        RendezvousSubsetter subsetter = subsetter("client-1", 10);
+        List<InetSocketAddress> all = addresses(60);
+        List<InetSocketAddress> addresses = new ArrayList<>(all.subList(0, 50));
+        Set<InetSocketAddress> before = new HashSet<>(subsetter.select(addresses));
+
+        for (InetSocketAddress added : all.subList(50, 60)) {
+            List<InetSocketAddress> grown = new ArrayList<>(addresses);
+            grown.add(added);
+            Set<InetSocketAddress> after = new HashSet<>(subsetter.select(grown));
+            int changed = difference(before, after);
+            assertTrue(changed <= 1);
+            assertEquals(changed == 1, after.contains(added));
+        }
+    }
+
+    @Test
+    public void instancesAreSpreadEvenlyAcrossClients() {
+        List<InetSocketAddress> addresses = addresses(50);
+        Map<InetSocketAddress, Integer> counts = new HashMap<>();
+        int clients = 1000;
+        for (int i = 0; i < clients; i++) {
+            for (InetSocketAddress address : subsetter("client-" + i, 10).select(addresses)) {
+                counts.merge(address, 1, Integer::sum);
+            }
+        }
+        // 每个实例期望被 1000 * 10 / 50 = 200 个客户端选中
+        assertEquals(50, counts.size());
+        for (int count : counts.values()) {
+            assertTrue("实例被选中的客户端数偏离期望过多: " + count, count > 130 && count < 270);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.butterfly.framework.core.rpc;
+
+import com.butterfly.framework.config.NettyClientConfig;
+import com.butterfly.framework.core.config.ConcurrencyLimitProperties;
+import com.butterfly.framework.core.config.LoadBalanceProperties;
+import com.butterfly.framework.core.config.LocalityProperties;
+import com.butterfly.framework.core.config.OutlierDetectionProperties;
+import com.butterfly.framework.core.config.SubsetProperties;
+import com.butterfly.framework.core.faulttolerance.OutlierDetector;
+import com.butterfly.framework.core.loadbalance.LoadBalanceFactory;
+import com.butterfly.framework.core.registry.ServiceDiscovery;
+import com.butterfly.framework.core.registry.ServiceRegistry;
+import com.butterfly.framework.core.rpc.protocol.HandshakeResponse;
+import com.butterfly.framework.core.rpc.protocol.RpcMessage;
+import com.butterfly.framework.core.rpc.protocol.RpcMessageDecoder;
+import com.butterfly.framework.core.rpc.protocol.RpcMessageEncoder;
+import com.butterfly.framework.core.rpc.protocol.RpcProtocol;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.lang.reflect.Field;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 本机回环RPC测试环境
+ * 启动只实现协议握手的最小服务端，并手工装配RpcClient，用于验证请求在真实连接上的资源释放等行为
+ */
+class LoopbackRpcFixture implements AutoCloseable {
+    static final String SERVICE_NAME = "com.example.EchoService";
+    static final String SERVICE_KEY = ProviderRegistry.buildServiceKey(SERVICE_NAME, "1.0.0", "default");
+
+    private final NettyTransport transport;
+    private final EventLoopGroup serverGroup;
+    private final List<Channel> servers = new ArrayList<>();
+    private final List<InetSocketAddress> addresses = new ArrayList<>();
+    private RpcClient client;
+    // 服务端握手下发的方法表与握手响应延迟
+    private volatile Map<String, Integer> methodTable;
+    private volatile long handshakeDelayMillis;
+    private boolean concurrencyLimitEnabled = true;
+    private long heartbeatIntervalMillis;
+
+    LoopbackRpcFixture() {
+        this(NettyTransport.NIO);
+    }
+
+    /**
+     * @param transport 服务端和客户端使用的传输实现
+     */
+    LoopbackRpcFixture(NettyTransport transport) {
+        this.transport = transport;
+        this.serverGroup = transport.newEventLoopGroup(1, "loopback-server");
+    }
+
+    void setMethodTable(Map<String, Integer> methodTable) {
+        this.methodTable = methodTable;
+    }
+
+    void setConcurrencyLimitEnabled(boolean concurrencyLimitEnabled) {
+        this.concurrencyLimitEnabled = concurrencyLimitEnabled;
+    }
+
+    void setHeartbeatIntervalMillis(long heartbeatIntervalMillis) {
+        this.heartbeatIntervalMillis = heartbeatIntervalMillis;
+    }
+
+    void setHandshakeDelayMillis(long handshakeDelayMillis) {
+        this.handshakeDelayMillis = handshakeDelayMillis;
+    }
+
+    /**
+     * 启动一个服务端
+     * @param responder 根据请求生成响应，返回null时不响应该请求
+     * @return 服务端监听地址
+     */
+    InetSocketAddress startServer(Function<RpcRequest, RpcResponse> responder) throws InterruptedException {
+        Channel server = new ServerBootstrap()
+                .group(serverGroup)
+                .channel(transport.serverChannelClass())
+                .childHandler(new ChannelInitializer<Channel>() {
+                    @Override
+                    protected void initChannel(Channel ch) {
+                        ch.pipeline()
+                                .addLast(new RpcMessageDecoder(1024 * 1024))
+                                .addLast(new RpcMessageEncoder())
+                                .addLast(new ServerHandler(responder));
+                    }
+                })
+                .bind(new InetSocketAddress("127.0.0.1", 0)).sync().channel();
+        servers.add(server);
+        InetSocketAddress address = (InetSocketAddress) server.localAddress();
+        addresses.add(address);
+        return address;
+    }
+
+    /**
+     * 创建连接已启动服务端的客户端，使用与服务端相同的传输实现，每个地址一条连接，默认关闭心跳并启用并发限制
+     */
+    RpcClient newClient() throws Exception {
+        NettyClientConfig config = new NettyClientConfig();
+        config.setNativeTransport(transport.isEpoll());
+        config.setConnectionsPerEndpoint(1);
+        config.setWarmupConnections(0);
+        config.setHeartbeatIntervalMillis(heartbeatIntervalMillis);
+        ConcurrencyLimitProperties concurrencyLimitProperties = new ConcurrencyLimitProperties();
+        concurrencyLimitProperties.setEnabled(concurrencyLimitEnabled);
+        OutlierDetectionProperties outlierDetectionProperties = new OutlierDetectionProperties();
+        outlierDetectionProperties.setEnabled(false);
+
+        List<InetSocketAddress> registered = Collections.unmodifiableList(new ArrayList<>(addresses));
+        ServiceDiscovery serviceDiscovery = new ServiceDiscovery(new StaticServiceRegistry(registered),
+                new LoadBalanceFactory(new LoadBalanceProperties()), new LoadBalanceProperties(),
+                new OutlierDetector(outlierDetectionProperties), new SubsetProperties(), new LocalityProperties());
+
+        client = new RpcClient();
+        setField(client, "defaultTimeout", 3000);
+        setField(client, "nettyClientConfig", config);
+        setField(client, "serviceDiscovery", serviceDiscovery);
+        setField(client, "concurrencyLimitProperties", concurrencyLimitProperties);
+        setField(client, "channelLivenessRegistry", new ChannelLivenessRegistry());
+        setField(client, "meterRegistryProvider", new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        client.initClient();
+        return client;
+    }
+
+    static RpcRequest newRequest(String methodName) {
+        RpcRequest request = new RpcRequest();
+        request.setServiceName(SERVICE_NAME);
+        request.setVersion("1.0.0");
+        request.setGroup("default");
+        request.setMethodName(methodName);
+        request.setParameterTypes(new String[0]);
+        request.setParameters(new Object[0]);
+        return request;
+    }
+
+    static RpcResponse successResponse(Object result) {
+        RpcResponse response = new RpcResponse();
+        response.setSuccess(true);
+        response.setResult(result);
+        return response;
+    }
+
+    static Object getField(Object target, String name) throws ReflectiveOperationException {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(target);
+    }
+
+    private static void setField(Object target, String name, Object value) throws ReflectiveOperationException {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    @Override
+    public void close() {
+        if (client != null) {
+            client.close();
+        }
+        for (Channel server : servers) {
+            server.close().syncUninterruptibly();
+        }
+        serverGroup.shutdownGracefully(0, 0, TimeUnit.MILLISECONDS).syncUninterruptibly();
+    }
+
+    /**
+     * 最小服务端处理器：以JSON完成握手并下发配置的方法表，请求交给响应函数处理
+     */
+    private class ServerHandler extends SimpleChannelInboundHandler<RpcMessage> {
+        private final Function<RpcRequest, RpcResponse> responder;
+
+        ServerHandler(Function<RpcRequest, RpcResponse> responder) {
+            this.responder = responder;
+        }
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, RpcMessage message) {
+            if (message.getMessageType() == RpcProtocol.TYPE_HANDSHAKE_REQUEST) {
+                HandshakeResponse handshake = new HandshakeResponse();
+                handshake.setSerializerType(RpcProtocol.SERIALIZER_JSON);
+                handshake.setSupportedSerializerTypes(new byte[]{RpcProtocol.SERIALIZER_JSON});
+                handshake.setMethodTable(methodTable);
+                RpcMessage reply = new RpcMessage(RpcProtocol.TYPE_HANDSHAKE_RESPONSE, message.getRequestId(), handshake);
+                ctx.executor().schedule(() -> ctx.writeAndFlush(reply), handshakeDelayMillis, TimeUnit.MILLISECONDS);
+            } else if (message.getMessageType() == RpcProtocol.TYPE_REQUEST) {
+                RpcResponse response = responder.apply((RpcRequest) message.getBody());
+                if (response != null) {
+                    ctx.writeAndFlush(new RpcMessage(RpcProtocol.TYPE_RESPONSE, message.getRequestId(), response));
+                }
+            }
+        }
+    }
+
+    /**
+     * 固定实例列表的服务注册中心
+     */
+    private static class StaticServiceRegistry implements ServiceRegistry {
+        private final List<InetSocketAddress> addresses;
+
+        StaticServiceRegistry(List<InetSocketAddress> addresses) {
+            this.addresses = addresses;
+        }
+
+        @Override
+        public void register(String serviceName, InetSocketAddress serviceAddress, Map<String, String> metadata) {
+        }
+
+        @Override
+        public void unregister(String serviceName, InetSocketAddress serviceAddress) {
+        }
+
+        @Override
+        public List<InetSocketAddress> discover(String serviceName) {
+            return addresses;
+        }
+
+        @Override
+        public void subscribe(String serviceName, ServiceChangeListener listener) {
+        }
+
+        @Override
+        public void unsubscribe(String serviceName, ServiceChangeListener listener) {
+        }
+
+        @Override
+        public Map<String, String> getServiceMetadata(String serviceName, InetSocketAddress address) {
+            return Collections.emptyMap();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.butterfly.framework.core.rpc;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 待响应请求表测试
+ */
+public class PendingCallTableTest {
+
+    @Test
+    public void registerAssignsIncreasingIdsAndRemoveReturnsFuture() {
+        PendingCallTable table = new PendingCallTable();
+        CompletableFuture<RpcResponse> first = new CompletableFuture<>();
+        CompletableFuture<RpcResponse> second = new CompletableFuture<>();
+        long firstId = table.register(first);
+        long secondId = table.register(second);
+
+        assertEquals(1, firstId);
+        assertEquals(2, secondId);
+        assertEquals(2, table.size());
+        assertSame(second, table.remove(secondId));
+        assertSame(first, table.remove(firstId));
+        assertNull("重复移除应返回null", table.remove(firstId));
+        assertEquals(0, table.size());
+    }
+
+    @Test
+    public void removeUnknownIdReturnsNull() {
+        PendingCallTable table = new PendingCallTable();
+        table.register(new CompletableFuture<>());
+        assertNull(table.remove(42));
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    public void rehashKeepsAllEntries() {
+        PendingCallTable table = new PendingCallTable(2);
+        Map<Long, CompletableFuture<RpcResponse>> expected = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            CompletableFuture<RpcResponse> future = new CompletableFuture<>();
+            expected.put(table.register(future), future);
+        }
+
+        assertEquals(1000, table.size());
+        for (Map.Entry<Long, CompletableFuture<RpcResponse>> entry : expected.entrySet()) {
+            assertSame(entry.getValue(), table.remove(entry.getKey()));
+        }
+        assertEquals(0, table.size());
+    }
+
+    @Test
+    public void randomRemovalKeepsRemainingEntriesReachable() {
+        // 容量固定为64，登记与移除交替进行，频繁触发冲突链上的回移
+        PendingCallTable table = new PendingCallTable(64);
+        Map<Long, CompletableFuture<RpcResponse>> live = new HashMap<>();
+        List<Long> ids = new ArrayList<>();
+        Random random = new Random(7);
+        for (int round = 0; round < 20000; round++) {
+            if (ids.size() < 24 && (ids.isEmpty() || random.nextBoolean())) {
+                CompletableFuture<RpcResponse> future = new CompletableFuture<>();
+                long id = table.register(future);
+                live.put(id, future);
+                ids.add(id);
+            } else {
+                long id = ids.remove(random.nextInt(ids.size()));
+                assertSame(live.remove(id), table.remove(id));
+                assertNull(table.remove(id));
+            }
+            assertEquals(live.size(), table.size());
+        }
+        for (Map.Entry<Long, CompletableFuture<RpcResponse>> entry : live.entrySet()) {
+            assertSame(entry.getValue(), table.remove(entry.getKey()));
+        }
+    }
+
+    @Test
+    public void drainRemovesEverything() {
+        PendingCallTable table = new PendingCallTable();
+        Set<CompletableFuture<RpcResponse>> registered = new HashSet<>();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            CompletableFuture<RpcResponse> future = new CompletableFuture<>();
+            registered.add(future);
+            ids.add(table.register(future));
+        }
+
+        List<CompletableFuture<RpcResponse>> drained = table.drain();
+        assertEquals(100, drained.size());
+        assertTrue(registered.containsAll(drained));
+        assertEquals(0, table.size());
+        for (long id : ids) {
+            assertNull(table.remove(id));
+        }
+        assertEquals(101, table.register(new CompletableFuture<>()));
+    }
+}
@@ -0,0 +1,96 @@
+package com.butterfly.framework.core.rpc;
+
+import com.butterfly.framework.config.NettyServerConfig;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 服务端请求派发器测试
+ */
+public class RequestDispatcherTest {
+    private static final String V1 = "com.example.OrderService:1.0.0:default";
+    private static final String V2 = "com.example.OrderService:2.0.0:default";
+
+    public interface BaseService {
+        String ping();
+    }
+
+    public interface OrderService extends BaseService {
+        String query(String orderId);
+    }
+
+    public static class OrderServiceImpl implements OrderService {
+        @Override
+        public String ping() {
+            return "pong";
+        }
+
+        @Override
+        public String query(String orderId) {
+            return orderId;
+        }
+    }
+
+    private static String threadName(RequestDispatcher dispatcher, String serviceKey) throws Exception {
+        CompletableFuture<String> name = new CompletableFuture<>();
+        dispatcher.dispatch(serviceKey, () -> name.complete(Thread.currentThread().getName()));
+        return name.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void isolatedPoolsAreKeyedByVersion() throws Exception {
+        NettyServerConfig config = new NettyServerConfig();
+        config.setDispatchMode(RequestDispatcher.MODE_ISOLATED);
+        RequestDispatcher dispatcher = new RequestDispatcher(config);
+        try {
+            // 不同版本使用各自的线程池
+            assertTrue(threadName(dispatcher, V1).startsWith("rpc-biz-" + V1 + "-"));
+            assertTrue(threadName(dispatcher, V2).startsWith("rpc-biz-" + V2 + "-"));
+        } finally {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    public void serviceModeMatchesServiceKeyThenInterfaceName() throws Exception {
+        NettyServerConfig config = new NettyServerConfig();
+        config.setDispatchMode(RequestDispatcher.MODE_ISOLATED);
+        config.getServiceDispatchModes().put("com.example.OrderService", RequestDispatcher.MODE_DIRECT);
+        config.getServiceDispatchModes().put(V2, RequestDispatcher.MODE_SHARED);
+        RequestDispatcher dispatcher = new RequestDispatcher(config);
+        try {
+            // 按接口名配置对未单独配置的版本生效，按服务键的配置优先
+            assertEquals(Thread.currentThread().getName(), threadName(dispatcher, V1));
+            String v2Thread = threadName(dispatcher, V2);
+            assertTrue(v2Thread.startsWith("rpc-biz-"));
+            assertFalse(v2Thread.startsWith("rpc-biz-" + V2));
+        } finally {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    public void inheritedMethodBelongsToRegisteredService() throws Exception {
+        ProviderRegistry registry = new ProviderRegistry();
+        registry.register(OrderService.class, "1.0.0", "default", new OrderServiceImpl());
+
+        RpcRequest request = new RpcRequest();
+        request.setServiceName(OrderService.class.getName());
+        request.setVersion("1.0.0");
+        request.setGroup("default");
+        request.setMethodName("ping");
+        request.setParameterTypes(new String[0]);
+        MethodInvoker invoker = registry.lookup(request);
+        assertNotNull(invoker);
+        // 方法声明在父接口上，派发仍归属注册的服务
+        assertEquals(ProviderRegistry.buildServiceKey(OrderService.class.getName(), "1.0.0", "default"),
+                invoker.getServiceKey());
+    }
+}
@@ -0,0 +1,161 @@
+package com.butterfly.framework.core.rpc;
+
+import com.butterfly.framework.core.faulttolerance.AdaptiveConcurrencyLimiter;
+import com.butterfly.framework.core.faulttolerance.HedgingPolicy;
+import com.butterfly.framework.core.loadbalance.RpcStatus;
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollSocketChannel;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * RpcClient在本机回环连接上的行为测试
+ */
+public class RpcClientLoopbackTest {
+    private static final long TIMEOUT_MILLIS = 10000;
+
+    private static void awaitTrue(String message, BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError(message);
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    public void cancelledHedgeLoserReleasesPermitAndPendingCall() throws Exception {
+        try (LoopbackRpcFixture fixture = new LoopbackRpcFixture()) {
+            // 第一个到达任一服务端的请求不响应，之后的请求立即响应：原始请求必然落败，对冲请求胜出
+            AtomicInteger received = new AtomicInteger();
+            AtomicReference<InetSocketAddress> slow = new AtomicReference<>();
+            List<InetSocketAddress> servers = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                int index = i;
+                servers.add(fixture.startServer(request -> {
+                    if (received.getAndIncrement() == 0) {
+                        slow.set(servers.get(index));
+                        return null;
+                    }
+                    return LoopbackRpcFixture.successResponse("ok");
+                }));
+            }
+            RpcClient client = fixture.newClient();
+
+            HedgingPolicy policy = new HedgingPolicy(50, 50, 1, 2, 1.0, 10);
+            CompletableFuture<RpcResponse> result = new HedgedInvocation<RpcResponse>(policy, client.getTimer(),
+                    excluded -> client.sendRequest(LoopbackRpcFixture.newRequest("echo"), null, TIMEOUT_MILLIS,
+                            excluded, false, null)).start();
+            assertEquals("ok", result.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS).getResult());
+
+            // 落败请求在超时前即释放待响应登记、并发许可和在途计数
+            InetSocketAddress loser = slow.get();
+            ConnectionPool pool = (ConnectionPool) LoopbackRpcFixture.getField(client, "connectionPool");
+            Channel channel = pool.acquire(loser).get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            RpcClientHandler handler = channel.pipeline().get(RpcClientHandler.class);
+            ConcurrencyLimiterRegistry limiters =
+                    (ConcurrencyLimiterRegistry) LoopbackRpcFixture.getField(client, "concurrencyLimiterRegistry");
+            AdaptiveConcurrencyLimiter limiter = limiters.get(LoopbackRpcFixture.SERVICE_KEY, loser);
+            awaitTrue("落败请求的待响应登记未释放", () -> handler.pendingCallCount() == 0);
+            awaitTrue("落败请求的并发许可未释放", () -> limiter.getInflight() == 0);
+            awaitTrue("落败请求的在途计数未释放", () -> RpcStatus.getActive(LoopbackRpcFixture.SERVICE_KEY, loser) == 0);
+            assertTrue(channel.isActive());
+        }
+    }
+
+    @Test
+    public void firstRequestFromEventLoopDoesNotBlockOnConnect() throws Exception {
+        try (LoopbackRpcFixture fixture = new LoopbackRpcFixture()) {
+            fixture.startServer(request -> LoopbackRpcFixture.successResponse("ok"));
+            RpcClient client = fixture.newClient();
+            EventLoopGroup ioGroup = (EventLoopGroup) LoopbackRpcFixture.getField(client, "eventLoopGroup");
+
+            // 在客户端IO线程上发起首个请求：连接尚未建立，发送不能等待建连
+            CompletableFuture<RpcResponse> result = ioGroup.next().submit(
+                    () -> client.sendRequest(LoopbackRpcFixture.newRequest("echo"), null, TIMEOUT_MILLIS, null, false, null))
+                    .get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            assertEquals("ok", result.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS).getResult());
+        }
+    }
+
+    @Test
+    public void firstRequestWaitsForHandshakeAndUsesMethodId() throws Exception {
+        try (LoopbackRpcFixture fixture = new LoopbackRpcFixture()) {
+            String methodKey = ProviderRegistry.buildMethodKey(LoopbackRpcFixture.SERVICE_KEY,
+                    ProviderRegistry.buildMethodSignature("echo", new String[0]));
+            Map<String, Integer> methodTable = new HashMap<>();
+            methodTable.put(methodKey, 7);
+            fixture.setMethodTable(methodTable);
+            fixture.setHandshakeDelayMillis(100);
+            List<Integer> methodIds = new CopyOnWriteArrayList<>();
+            fixture.startServer(request -> {
+                methodIds.add(request.getMethodId());
+                return LoopbackRpcFixture.successResponse("ok");
+            });
+            RpcClient client = fixture.newClient();
+
+            // 握手响应晚于建连到达，首个请求仍应等到握手完成后按方法ID发送
+            RpcResponse response = client.sendRequest(LoopbackRpcFixture.newRequest("echo"), null, TIMEOUT_MILLIS,
+                    null, false, null).get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            assertEquals("ok", response.getResult());
+            assertEquals(Collections.singletonList(7), methodIds);
+        }
+    }
+
+    @Test
+    public void closedConnectionsAreRemovedFromLivenessRegistry() throws Exception {
+        try (LoopbackRpcFixture fixture = new LoopbackRpcFixture()) {
+            // 存活状态由心跳处理器上报，心跳间隔远大于测试时长，不会真正发送心跳
+            fixture.setHeartbeatIntervalMillis(60000);
+            InetSocketAddress address = fixture.startServer(request -> LoopbackRpcFixture.successResponse("ok"));
+            RpcClient client = fixture.newClient();
+            ChannelLivenessRegistry registry =
+                    (ChannelLivenessRegistry) LoopbackRpcFixture.getField(client, "channelLivenessRegistry");
+
+            client.sendRequest(LoopbackRpcFixture.newRequest("echo"), null, TIMEOUT_MILLIS, null, false, null)
+                    .get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            assertTrue(registry.isAlive(address, TIMEOUT_MILLIS));
+
+            // 到该实例的连接全部关闭后注册表不再保留其存活状态
+            ConnectionPool pool = (ConnectionPool) LoopbackRpcFixture.getField(client, "connectionPool");
+            pool.close();
+            awaitTrue("已关闭连接的存活状态未移除", () -> registry.size() == 0);
+            assertFalse(registry.isAlive(address, TIMEOUT_MILLIS));
+        }
+    }
+
+    @Test
+    public void epollTransportRoundTrip() throws Exception {
+        Assume.assumeTrue("epoll原生传输不可用", Epoll.isAvailable());
+        try (LoopbackRpcFixture fixture = new LoopbackRpcFixture(NettyTransport.EPOLL)) {
+            InetSocketAddress address = fixture.startServer(request -> LoopbackRpcFixture.successResponse("ok"));
+            RpcClient client = fixture.newClient();
+
+            RpcResponse response = client.sendRequest(LoopbackRpcFixture.newRequest("echo"), null, TIMEOUT_MILLIS,
+                    null, false, null).get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            assertEquals("ok", response.getResult());
+            ConnectionPool pool = (ConnectionPool) LoopbackRpcFixture.getField(client, "connectionPool");
+            assertTrue(pool.acquire(address).get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS) instanceof EpollSocketChannel);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.butterfly.framework.core.rpc;
+
+import org.junit.Test;
+
+import java.io.Serializable;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * 按名称调用的请求在各序列化方式下的往返测试
+ * 覆盖基本类型、数组和自定义对象参数，验证服务端能按参数类型名称匹配到重载方法并完成调用
+ */
+public class RpcRequestSerializationTest {
+
+    public interface CalcService {
+        int sum(int base, int[] values, Item item);
+
+        int sum(long base, String[] values, Item item);
+    }
+
+    public static class Item implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private String name;
+        private int count;
+
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+        public int getCount() { return count; }
+        public void setCount(int count) { this.count = count; }
+    }
+
+    public static class CalcServiceImpl implements CalcService {
+        @Override
+        public int sum(int base, int[] values, Item item) {
+            int total = base + item.getCount();
+            for (int value : values) {
+                total += value;
+            }
+            return total;
+        }
+
+        @Override
+        public int sum(long base, String[] values, Item item) {
+            return (int) base + values.length + item.getCount();
+        }
+    }
+
+    private static RpcRequest request(Class<?>[] parameterTypes, Object[] parameters) {
+        RpcRequest request = new RpcRequest();
+        request.setServiceName(CalcService.class.getName());
+        request.setMethodName("sum");
+        request.setParameterTypes(ProviderRegistry.typeNames(parameterTypes));
+        request.setParameters(parameters);
+        return request;
+    }
+
+    private static Item item(int count) {
+        Item item = new Item();
+        item.setName("item");
+        item.setCount(count);
+        return item;
+    }
+
+    private static void assertRoundTrip(Serializer serializer) throws Throwable {
+        ProviderRegistry registry = new ProviderRegistry();
+        registry.register(CalcService.class, "1.0.0", "default", new CalcServiceImpl());
+
+        Class<?>[] intTypes = {int.class, int[].class, Item.class};
+        RpcRequest decoded = serializer.deserialize(
+                serializer.serialize(request(intTypes, new Object[]{1, new int[]{2, 3}, item(4)})), RpcRequest.class);
+        assertArrayEquals(new String[]{"int", "[I", Item.class.getName()}, decoded.getParameterTypes());
+        MethodInvoker invoker = registry.lookup(decoded);
+        assertNotNull(serializer.getName() + ": 应按参数类型名称匹配到sum(int,int[],Item)", invoker);
+        assertEquals(10, invoker.invoke(decoded.getParameters()));
+
+        Class<?>[] longTypes = {long.class, String[].class, Item.class};
+        decoded = serializer.deserialize(
+                serializer.serialize(request(longTypes, new Object[]{1L, new String[]{"a", "b"}, item(4)})), RpcRequest.class);
+        invoker = registry.lookup(decoded);
+        assertNotNull(serializer.getName() + ": 应按参数类型名称匹配到sum(long,String[],Item)", invoker);
+        assertEquals(7, invoker.invoke(decoded.getParameters()));
+    }
+
+    @Test
+    public void jsonRoundTripResolvesOverloadedMethod() throws Throwable {
+        assertRoundTrip(new FastJsonSerializer());
+    }
+
+    @Test
+    public void jsonbRoundTripResolvesOverloadedMethod() throws Throwable {
+        assertRoundTrip(new JsonbSerializer());
+    }
+}
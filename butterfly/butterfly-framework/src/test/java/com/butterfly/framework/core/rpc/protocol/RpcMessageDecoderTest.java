@@ -0,0 +1,145 @@
+package com.butterfly.framework.core.rpc.protocol;
+
+import com.butterfly.framework.core.rpc.RpcErrorCode;
+import com.butterfly.framework.core.rpc.RpcRequest;
+import com.butterfly.framework.core.rpc.RpcRequestHandler;
+import com.butterfly.framework.core.rpc.RpcResponse;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * RPC协议解码器测试
+ */
+public class RpcMessageDecoderTest {
+
+    private static ByteBuf frame(byte messageType, long requestId, byte[] body) {
+        return frame(messageType, RpcProtocol.FLAG_NONE, requestId, body);
+    }
+
+    private static ByteBuf frame(byte messageType, byte flags, long requestId, byte[] body) {
+        ByteBuf frame = Unpooled.buffer();
+        frame.writeShort(RpcProtocol.MAGIC);
+        frame.writeByte(RpcProtocol.VERSION);
+        frame.writeByte(messageType);
+        frame.writeByte(RpcProtocol.SERIALIZER_JSON);
+        frame.writeByte(flags);
+        frame.writeLong(requestId);
+        frame.writeInt(body.length);
+        frame.writeBytes(body);
+        return frame;
+    }
+
+    private static ByteBuf encode(RpcMessage message) {
+        EmbeddedChannel channel = new EmbeddedChannel(new RpcMessageEncoder());
+        channel.writeOutbound(message);
+        return channel.readOutbound();
+    }
+
+    @Test
+    public void undecodableBodyFailsOnlyItsOwnFrame() {
+        EmbeddedChannel channel = new EmbeddedChannel(new RpcMessageDecoder(1 << 20));
+        RpcRequest request = new RpcRequest();
+        request.setServiceName("com.example.OrderService");
+        request.setMethodName("query");
+
+        channel.writeInbound(frame(RpcProtocol.TYPE_REQUEST, 7, "{not json".getBytes(StandardCharsets.UTF_8)));
+        channel.writeInbound(encode(new RpcMessage(RpcProtocol.TYPE_REQUEST, 8, request)));
+
+        RpcMessage broken = channel.readInbound();
+        assertEquals(7, broken.getRequestId());
+        assertNotNull(broken.getDecodeError());
+        assertNull(broken.getBody());
+
+        RpcMessage next = channel.readInbound();
+        assertEquals(8, next.getRequestId());
+        assertNull(next.getDecodeError());
+        assertEquals("query", ((RpcRequest) next.getBody()).getMethodName());
+        assertTrue("消息体解析失败不应关闭连接", channel.isActive());
+    }
+
+    @Test
+    public void serverRepliesBadRequestForUndecodableRequest() {
+        EmbeddedChannel channel = new EmbeddedChannel(new RpcRequestHandler(null, null, null));
+        RpcMessage broken = new RpcMessage(RpcProtocol.TYPE_REQUEST, 7, null);
+        broken.setDecodeError(new IllegalStateException("bad body"));
+
+        channel.writeInbound(broken);
+
+        RpcMessage reply = channel.readOutbound();
+        assertEquals(RpcProtocol.TYPE_RESPONSE, reply.getMessageType());
+        assertEquals(7, reply.getRequestId());
+        RpcResponse response = (RpcResponse) reply.getBody();
+        assertFalse(response.isSuccess());
+        assertEquals(RpcErrorCode.BAD_REQUEST, response.getErrorCode());
+        assertTrue(channel.isActive());
+    }
+
+    @Test
+    public void corruptedHeaderClosesConnection() {
+        EmbeddedChannel channel = new EmbeddedChannel(new RpcMessageDecoder(1 << 20),
+                new RpcRequestHandler(null, null, null));
+        ByteBuf frame = frame(RpcProtocol.TYPE_REQUEST, 7, new byte[0]);
+        frame.setShort(0, 0x1234);
+
+        channel.writeInbound(frame);
+
+        assertFalse("帧头损坏时应关闭连接", channel.isActive());
+    }
+
+    @Test
+    public void deadlineFlagWithoutDeadlineFieldIsRejected() {
+        EmbeddedChannel channel = new EmbeddedChannel(new RpcMessageDecoder(1 << 20),
+                new RpcRequestHandler(null, null, null));
+
+        // 声明携带截止时间但帧内只有2个字节，不能越界读取截止时间
+        channel.writeInbound(frame(RpcProtocol.TYPE_REQUEST, RpcProtocol.FLAG_DEADLINE, 7, new byte[2]));
+
+        assertNull(channel.readInbound());
+        assertFalse("截止时间字段不完整时应按帧损坏关闭连接", channel.isActive());
+    }
+
+    @Test
+    public void deadlineRoundTrips() {
+        EmbeddedChannel channel = new EmbeddedChannel(new RpcMessageDecoder(1 << 20));
+        RpcMessage message = new RpcMessage(RpcProtocol.TYPE_REQUEST, 8, null);
+        message.setDeadline(System.currentTimeMillis() + 60000);
+
+        channel.writeInbound(encode(message));
+
+        RpcMessage decoded = channel.readInbound();
+        assertEquals(8, decoded.getRequestId());
+        assertNull(decoded.getBody());
+        assertTrue(decoded.getDeadline() > System.currentTimeMillis() + 50000);
+    }
+
+    @Test
+    public void handshakeWithMethodTableRoundTrips() {
+        for (byte serializerType : new byte[]{RpcProtocol.SERIALIZER_JSON, RpcProtocol.SERIALIZER_JSONB}) {
+            HandshakeResponse handshake = new HandshakeResponse();
+            handshake.setSerializerType(serializerType);
+            handshake.setSupportedSerializerTypes(new byte[]{RpcProtocol.SERIALIZER_JSON, RpcProtocol.SERIALIZER_JSONB});
+            Map<String, Integer> methodTable = new HashMap<>();
+            methodTable.put("com.example.OrderService:1.0.0:default#query(java.lang.String)", 1);
+            handshake.setMethodTable(methodTable);
+            RpcMessage message = new RpcMessage(RpcProtocol.TYPE_HANDSHAKE_RESPONSE, 0, handshake);
+            message.setSerializerType(serializerType);
+
+            EmbeddedChannel channel = new EmbeddedChannel(new RpcMessageDecoder(1 << 20));
+            channel.writeInbound(encode(message));
+            RpcMessage decoded = channel.readInbound();
+            assertEquals(methodTable, ((HandshakeResponse) decoded.getBody()).getMethodTable());
+        }
+    }
+}